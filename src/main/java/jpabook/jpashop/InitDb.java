@@ -2,11 +2,14 @@ package jpabook.jpashop;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.startup.StartupProperties;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
 /**
@@ -17,19 +20,45 @@ import javax.persistence.EntityManager;
  * * userB
  *   * SPRING1 BOOK
  *   * SPRING2 BOOK
+ *
+ * 기동(context refresh)이 끝난 뒤 ApplicationRunner 로 넣는다.
+ * jpashop.startup.seed-async=true 이면 별도 스레드에서 넣으므로 기동 완료/첫 요청이 샘플 데이터를 기다리지 않는다.
+ * ddl-auto 가 create 가 아니면 (fast-startup profile) 이미 들어있는 경우 건너뛴다.
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class InitDb {
+public class InitDb implements ApplicationRunner {
 
     // Spring life cycle이 존재하기 때문에 transaction 적용하기 위해서는 별도의 bean으로 등록해야 한다.
     private final InitService initService;
+    private final StartupProperties startupProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!startupProperties.isSeedAsync()) {
+            init();
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                init();
+            } catch (RuntimeException e) {
+                log.warn("init db failed", e);
+            }
+        }, "init-db");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-    // Spring 뜬 이후에 @PostConstruct를 호출해서 초기화 함.
-    @PostConstruct
     public void init() {
+        if (initService.isInitialized()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
         initService.dbInit1();
         initService.dbInit2();
+        log.info("init db finished. {}ms", System.currentTimeMillis() - start);
     }
 
     @Component
@@ -38,6 +67,15 @@ public class InitDb {
     static class InitService {
 
         private final EntityManager em;
+
+        public boolean isInitialized() {
+            return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                    .setParameter("name", "userA")
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+        }
+
         public void dbInit1() {
             Member member = createMember("userA", "서울", "1", "111111");
             em.persist(member);
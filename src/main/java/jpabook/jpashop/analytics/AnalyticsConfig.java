@@ -0,0 +1,24 @@
+package jpabook.jpashop.analytics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AnalyticsProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.analytics", name = "enabled", havingValue = "true")
+public class AnalyticsConfig {
+
+    @Bean
+    public OrderLineColumnStore orderLineColumnStore(EntityManager em,
+                                                     PlatformTransactionManager transactionManager,
+                                                     AnalyticsProperties properties) {
+        return new OrderLineColumnStore(em, transactionManager, properties);
+    }
+}
@@ -0,0 +1,27 @@
+package jpabook.jpashop.analytics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.analytics.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.analytics")
+public class AnalyticsProperties {
+
+    private boolean enabled = false;
+
+    // 신규 주문 반영 주기
+    private long refreshIntervalMillis = 10000;
+
+    // 한번에 읽어오는 주문상품 행 수
+    private int loadChunkSize = 10000;
+
+    // 늦게 커밋되는 주문상품을 찾기 위해 워터마크 뒤에서부터 다시 읽는 id 개수
+    private int lateCommitIds = 1000;
+
+    // 늦게 커밋되는 취소를 찾기 위해 취소 시간 워터마크 뒤에서부터 다시 읽는 시간 (서버 간 시계 차이 포함)
+    private long lateCommitMillis = 60000;
+}
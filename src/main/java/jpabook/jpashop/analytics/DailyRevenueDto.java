@@ -0,0 +1,15 @@
+package jpabook.jpashop.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class DailyRevenueDto {
+
+    private LocalDate date;
+    private long revenue; // 매출 (주문가격 * 수량, 취소 제외)
+    private long quantity; // 판매 수량
+}
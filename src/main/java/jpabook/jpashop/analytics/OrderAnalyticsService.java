@@ -0,0 +1,97 @@
+package jpabook.jpashop.analytics;
+
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 통계 (일별 매출, 상품/회원 top-k, 회원별 구매 금액)
+ * 모든 조회는 OrderLineColumnStore 스냅샷에서 계산한다. (JPA 사용 X)
+ *
+ * 날짜 조건이 없으면 전체 기간
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@WorkloadPool(WorkloadType.REPORTING)
+@ConditionalOnProperty(prefix = "jpashop.analytics", name = "enabled", havingValue = "true")
+public class OrderAnalyticsService {
+
+    private final OrderLineColumnStore store;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad() {
+        refresh();
+        log.info("order analytics snapshot loaded. rows = {}", store.snapshot().size());
+    }
+
+    /**
+     * 갱신 실패 시 이전 스냅샷을 그대로 유지한다. (다음 주기에 재시도)
+     */
+    @Scheduled(initialDelayString = "${jpashop.analytics.refresh-interval-millis:10000}",
+            fixedDelayString = "${jpashop.analytics.refresh-interval-millis:10000}")
+    public void refresh() {
+        try {
+            store.refresh();
+        } catch (RuntimeException e) {
+            log.warn("order analytics refresh failed. keep previous snapshot", e);
+        }
+    }
+
+    public List<DailyRevenueDto> dailyRevenue(LocalDate from, LocalDate to) {
+        OrderLineSnapshot snapshot = store.snapshot();
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+
+        long[][] totals = snapshot.dailyTotals(fromDay, toDay);
+        List<DailyRevenueDto> result = new ArrayList<>();
+        for (int d = 0; d < totals[0].length; d++) {
+            result.add(new DailyRevenueDto(LocalDate.ofEpochDay(fromDay + d), totals[0][d], totals[1][d]));
+        }
+        return result;
+    }
+
+    public List<RankDto> topItems(int limit, LocalDate from, LocalDate to) {
+        OrderLineSnapshot snapshot = store.snapshot();
+        long[] revenue = snapshot.revenueByItem(fromDay(from), toDay(to));
+
+        List<RankDto> result = new ArrayList<>();
+        for (int code : OrderLineSnapshot.topK(revenue, limit)) {
+            result.add(new RankDto(snapshot.itemIdOf(code), revenue[code]));
+        }
+        return result;
+    }
+
+    public List<RankDto> topMembers(int limit, LocalDate from, LocalDate to) {
+        OrderLineSnapshot snapshot = store.snapshot();
+        long[] revenue = snapshot.revenueByMember(fromDay(from), toDay(to));
+
+        List<RankDto> result = new ArrayList<>();
+        for (int code : OrderLineSnapshot.topK(revenue, limit)) {
+            result.add(new RankDto(snapshot.memberIdOf(code), revenue[code]));
+        }
+        return result;
+    }
+
+    public long memberSpend(Long memberId, LocalDate from, LocalDate to) {
+        return store.snapshot().memberSpend(memberId, fromDay(from), toDay(to));
+    }
+
+    private int fromDay(LocalDate from) {
+        return from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+    }
+
+    private int toDay(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+    }
+}
@@ -0,0 +1,241 @@
+package jpabook.jpashop.analytics;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 주문상품 컬럼 스토어
+ *
+ * refresh(): order_item_id 워터마크 이후의 신규 행만 스칼라 프로젝션으로 읽어서 배열 뒤에 붙인다.
+ *            (엔티티를 로딩하지 않음 -> 영속성 컨텍스트 / getTotalPrice() 의 지연 로딩 없음)
+ * 조회: 현재 스냅샷(volatile)만 읽으므로 lock 없이 JPA 와 무관하게 응답한다.
+ *
+ * id 는 커밋 순서와 다르게 보일 수 있다. (먼저 id 를 받은 트랜잭션이 더 늦게 커밋)
+ * -> 워터마크보다 lateCommitIds 만큼 뒤에서부터 다시 읽고, 이미 읽은 id 는 건너뛴다.
+ * 취소는 orders.cancel_date 워터마크(lateCommitMillis 만큼 뒤에서부터) 이후에 취소된 주문만 읽는다.
+ * cancelled 배열은 복사한 뒤 바꿔서 새 스냅샷으로 공개한다. -> 이미 공개된 스냅샷의 값은 바뀌지 않는다.
+ */
+@Slf4j
+public class OrderLineColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final int lateCommitIds;
+    private final long lateCommitMillis;
+
+    private volatile OrderLineSnapshot snapshot = OrderLineSnapshot.EMPTY;
+
+    // refresh 에서만 변경 (synchronized)
+    private long[] orderIds = new long[INITIAL_CAPACITY];
+    private int[] memberCodes = new int[INITIAL_CAPACITY];
+    private int[] itemCodes = new int[INITIAL_CAPACITY];
+    private int[] prices = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private boolean[] cancelled = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    private long[] memberIds = new long[INITIAL_CAPACITY];
+    private int memberCount;
+    private long[] itemIds = new long[INITIAL_CAPACITY];
+    private int itemCount;
+    private final Map<Long, Integer> memberCodeMap = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> itemCodeMap = new ConcurrentHashMap<>();
+
+    private long lastOrderItemId = 0;
+    // (lastOrderItemId - lateCommitIds, lastOrderItemId] 범위에서 이미 읽은 주문상품 id
+    private final Set<Long> recentOrderItemIds = new HashSet<>();
+    private boolean archiveLoaded = false;
+
+    private LocalDateTime lastCancelDate;
+    // (lastCancelDate - lateCommitMillis, lastCancelDate] 범위에서 이미 반영한 취소 주문 id -> 취소 시간
+    private final Map<Long, LocalDateTime> recentCancels = new HashMap<>();
+
+    public OrderLineColumnStore(EntityManager em, PlatformTransactionManager transactionManager,
+                                AnalyticsProperties properties) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = properties.getLoadChunkSize();
+        this.lateCommitIds = properties.getLateCommitIds();
+        this.lateCommitMillis = properties.getLateCommitMillis();
+    }
+
+    public OrderLineSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 신규 주문상품 추가 + 취소 상태 반영
+     * @return 추가된 행 수
+     */
+    public synchronized int refresh() {
+        int before = size;
+        readOnlyTransaction.executeWithoutResult(status -> {
+            if (!archiveLoaded) {
+                // 최초 1회: 보관(archive) 테이블의 과거 주문도 포함
+                appendRows(em.createQuery(
+                                "select oi.id, o.id, o.memberId, oi.itemId, oi.orderPrice, oi.count, o.orderDate, o.status" +
+                                        " from ArchivedOrderItem oi, ArchivedOrder o" +
+                                        " where o.id = oi.orderId", Object[].class)
+                        .getResultList(), false);
+                archiveLoaded = true;
+            }
+
+            if (lastCancelDate == null) {
+                // 최초 1회: 이 시점 이전의 취소는 아래에서 읽는 주문상품의 status 로 반영된다.
+                lastCancelDate = LocalDateTime.now();
+            }
+
+            long cursor = Math.max(0, lastOrderItemId - lateCommitIds);
+            while (true) {
+                List<Object[]> rows = em.createQuery(
+                                "select oi.id, o.id, o.member.id, oi.item.id, oi.orderPrice, oi.count, o.orderDate, o.status" +
+                                        " from OrderItem oi join oi.order o" +
+                                        " where oi.id > :lastId" +
+                                        " order by oi.id", Object[].class)
+                        .setParameter("lastId", cursor)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                if (rows.isEmpty()) {
+                    break;
+                }
+                cursor = (Long) rows.get(rows.size() - 1)[0];
+                appendRows(rows.stream()
+                        .filter(row -> recentOrderItemIds.add((Long) row[0]))
+                        .collect(Collectors.toList()), true);
+                long oldest = lastOrderItemId - lateCommitIds;
+                recentOrderItemIds.removeIf(id -> id <= oldest);
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            markCancelled(em.createQuery(
+                            "select o.id, o.cancelDate from Order o" +
+                                    " where o.status = :status and o.cancelDate > :since", Object[].class)
+                    .setParameter("status", OrderStatus.CANCEL)
+                    .setParameter("since", lastCancelDate.minus(lateCommitMillis, ChronoUnit.MILLIS))
+                    .getResultList());
+        });
+
+        snapshot = new OrderLineSnapshot(size, orderIds, memberCodes, itemCodes, prices, counts, epochDays, cancelled,
+                memberIds, memberCount, itemIds, itemCount, memberCodeMap, itemCodeMap, lastOrderItemId);
+        return size - before;
+    }
+
+    private void appendRows(List<Object[]> rows, boolean advanceWatermark) {
+        ensureCapacity(size + rows.size());
+        for (Object[] row : rows) {
+            long orderItemId = (Long) row[0];
+            long orderId = (Long) row[1];
+            OrderStatus status = (OrderStatus) row[7];
+
+            orderIds[size] = orderId;
+            memberCodes[size] = memberCode((Long) row[2]);
+            itemCodes[size] = itemCode((Long) row[3]);
+            prices[size] = (Integer) row[4];
+            counts[size] = (Integer) row[5];
+            epochDays[size] = (int) ((LocalDateTime) row[6]).toLocalDate().toEpochDay();
+            cancelled[size] = status == OrderStatus.CANCEL;
+            size++;
+
+            if (advanceWatermark) {
+                lastOrderItemId = Math.max(lastOrderItemId, orderItemId);
+            }
+        }
+    }
+
+    /**
+     * 새로 취소된 주문이 있을 때만 cancelled 를 복사해서 전체 행을 한번 훑는다.
+     * (공개된 스냅샷이 보고 있는 배열은 바꾸지 않는다.)
+     */
+    private void markCancelled(List<Object[]> cancels) {
+        Set<Long> newlyCancelled = new HashSet<>();
+        for (Object[] cancel : cancels) {
+            Long orderId = (Long) cancel[0];
+            LocalDateTime cancelDate = (LocalDateTime) cancel[1];
+            if (recentCancels.put(orderId, cancelDate) == null) {
+                newlyCancelled.add(orderId);
+            }
+            if (cancelDate.isAfter(lastCancelDate)) {
+                lastCancelDate = cancelDate;
+            }
+        }
+        LocalDateTime oldest = lastCancelDate.minus(lateCommitMillis, ChronoUnit.MILLIS);
+        recentCancels.values().removeIf(cancelDate -> !cancelDate.isAfter(oldest));
+        if (newlyCancelled.isEmpty()) {
+            return;
+        }
+
+        boolean[] copy = null;
+        for (int i = 0; i < size; i++) {
+            if (!cancelled[i] && newlyCancelled.contains(orderIds[i])) {
+                if (copy == null) {
+                    copy = Arrays.copyOf(cancelled, cancelled.length);
+                }
+                copy[i] = true;
+            }
+        }
+        if (copy != null) {
+            cancelled = copy;
+        }
+    }
+
+    private int memberCode(Long memberId) {
+        Integer code = memberCodeMap.get(memberId);
+        if (code != null) {
+            return code;
+        }
+        if (memberCount == memberIds.length) {
+            memberIds = Arrays.copyOf(memberIds, memberCount * 2);
+        }
+        memberIds[memberCount] = memberId;
+        memberCodeMap.put(memberId, memberCount);
+        return memberCount++;
+    }
+
+    private int itemCode(Long itemId) {
+        Integer code = itemCodeMap.get(itemId);
+        if (code != null) {
+            return code;
+        }
+        if (itemCount == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, itemCount * 2);
+        }
+        itemIds[itemCount] = itemId;
+        itemCodeMap.put(itemId, itemCount);
+        return itemCount++;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= orderIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, orderIds.length * 2);
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        memberCodes = Arrays.copyOf(memberCodes, capacity);
+        itemCodes = Arrays.copyOf(itemCodes, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        cancelled = Arrays.copyOf(cancelled, capacity);
+    }
+}
@@ -0,0 +1,197 @@
+package jpabook.jpashop.analytics;
+
+import java.util.Map;
+
+/**
+ * 주문상품(order line) 컬럼 스냅샷
+ *
+ * 한 행 = 주문상품 1건. 컬럼별 primitive 배열로 보관한다.
+ * 회원/상품 id 는 사전(dictionary) 인코딩해서 0 부터 시작하는 code 로 저장한다.
+ * -> group by 를 HashMap 없이 long[] 누적 배열로 처리할 수 있다.
+ *
+ * 스냅샷은 [0, size) 범위만 읽는다. 배열은 다음 스냅샷과 공유될 수 있지만
+ * 새 행은 항상 size 이후에만 추가되므로 이 스냅샷이 보는 값은 바뀌지 않는다.
+ * (취소 반영은 cancelled 를 복사한 새 배열에 한다.)
+ */
+public class OrderLineSnapshot {
+
+    static final OrderLineSnapshot EMPTY = new OrderLineSnapshot(0,
+            new long[0], new int[0], new int[0], new int[0], new int[0], new int[0], new boolean[0],
+            new long[0], 0, new long[0], 0, Map.of(), Map.of(), 0);
+
+    final int size;
+    final long[] orderIds;
+    final int[] memberCodes;
+    final int[] itemCodes;
+    final int[] prices;
+    final int[] counts;
+    final int[] epochDays;
+    final boolean[] cancelled;
+
+    final long[] memberIds; // code -> memberId
+    final int memberCount;
+    final long[] itemIds;   // code -> itemId
+    final int itemCount;
+    private final Map<Long, Integer> memberCodeMap;
+    private final Map<Long, Integer> itemCodeMap;
+
+    final long lastOrderItemId;
+
+    OrderLineSnapshot(int size, long[] orderIds, int[] memberCodes, int[] itemCodes, int[] prices, int[] counts,
+                      int[] epochDays, boolean[] cancelled, long[] memberIds, int memberCount, long[] itemIds,
+                      int itemCount, Map<Long, Integer> memberCodeMap, Map<Long, Integer> itemCodeMap,
+                      long lastOrderItemId) {
+        this.size = size;
+        this.orderIds = orderIds;
+        this.memberCodes = memberCodes;
+        this.itemCodes = itemCodes;
+        this.prices = prices;
+        this.counts = counts;
+        this.epochDays = epochDays;
+        this.cancelled = cancelled;
+        this.memberIds = memberIds;
+        this.memberCount = memberCount;
+        this.itemIds = itemIds;
+        this.itemCount = itemCount;
+        this.memberCodeMap = memberCodeMap;
+        this.itemCodeMap = itemCodeMap;
+        this.lastOrderItemId = lastOrderItemId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 일별 매출/수량 (취소 제외)
+     * @return [0]: 매출, [1]: 수량 - index 0 이 fromDay
+     */
+    public long[][] dailyTotals(int fromDay, int toDay) {
+        int days = toDay - fromDay + 1;
+        long[] revenue = new long[Math.max(days, 0)];
+        long[] quantity = new long[Math.max(days, 0)];
+        for (int i = 0; i < size; i++) {
+            int d = epochDays[i] - fromDay;
+            if (d >= 0 && d < days && !cancelled[i]) {
+                revenue[d] += (long) prices[i] * counts[i];
+                quantity[d] += counts[i];
+            }
+        }
+        return new long[][]{revenue, quantity};
+    }
+
+    /**
+     * 상품별 매출 (index = item code)
+     */
+    public long[] revenueByItem(int fromDay, int toDay) {
+        return revenueBy(itemCodes, itemCount, fromDay, toDay);
+    }
+
+    /**
+     * 회원별 구매 금액 (index = member code)
+     */
+    public long[] revenueByMember(int fromDay, int toDay) {
+        return revenueBy(memberCodes, memberCount, fromDay, toDay);
+    }
+
+    private long[] revenueBy(int[] codes, int groups, int fromDay, int toDay) {
+        long[] sums = new long[groups];
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay && !cancelled[i]) {
+                sums[codes[i]] += (long) prices[i] * counts[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * 회원 한 명의 구매 금액. 스냅샷에 없는 회원이면 0
+     */
+    public long memberSpend(Long memberId, int fromDay, int toDay) {
+        Integer code = memberCodeMap.get(memberId);
+        if (code == null || code >= memberCount) {
+            return 0;
+        }
+        int target = code;
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (memberCodes[i] == target && day >= fromDay && day <= toDay && !cancelled[i]) {
+                sum += (long) prices[i] * counts[i];
+            }
+        }
+        return sum;
+    }
+
+    public long itemIdOf(int code) {
+        return itemIds[code];
+    }
+
+    public long memberIdOf(int code) {
+        return memberIds[code];
+    }
+
+    /**
+     * 값이 큰 순서로 k 개의 index (0 인 값은 제외)
+     * 전체 정렬 대신 크기 k 의 min-heap 을 유지한다. O(n log k)
+     */
+    public static int[] topK(long[] values, int k) {
+        int[] heap = new int[Math.max(0, Math.min(k, values.length))];
+        int heapSize = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] <= 0) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, values);
+            } else if (heap.length > 0 && values[i] > values[heap[0]]) {
+                heap[0] = i;
+                siftDown(heap, heapSize, values);
+            }
+        }
+
+        // heap -> 내림차순
+        int[] result = new int[heapSize];
+        for (int n = heapSize - 1; n >= 0; n--) {
+            result[n] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, values);
+        }
+        return result;
+    }
+
+    private static void siftUp(int[] heap, int pos, long[] values) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (values[heap[parent]] <= values[heap[pos]]) {
+                break;
+            }
+            swap(heap, parent, pos);
+            pos = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] values) {
+        int pos = 0;
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && values[heap[left + 1]] < values[heap[left]] ? left + 1 : left;
+            if (values[heap[pos]] <= values[heap[smallest]]) {
+                break;
+            }
+            swap(heap, pos, smallest);
+            pos = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
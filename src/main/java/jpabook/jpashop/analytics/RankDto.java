@@ -0,0 +1,15 @@
+package jpabook.jpashop.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * top-k 결과 (상품 id 또는 회원 id 별 매출)
+ */
+@Data
+@AllArgsConstructor
+public class RankDto {
+
+    private Long id;
+    private long revenue;
+}
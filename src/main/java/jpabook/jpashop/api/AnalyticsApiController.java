@@ -0,0 +1,70 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.analytics.DailyRevenueDto;
+import jpabook.jpashop.analytics.OrderAnalyticsService;
+import jpabook.jpashop.analytics.RankDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 주문 통계 API
+ * 인메모리 컬럼 스냅샷에서 계산하므로 DB 를 조회하지 않는다. (최대 refresh 주기만큼 지연될 수 있음)
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.analytics", name = "enabled", havingValue = "true")
+public class AnalyticsApiController {
+
+    private final OrderAnalyticsService orderAnalyticsService;
+
+    @GetMapping("/api/v1/analytics/daily-revenue")
+    public Result<List<DailyRevenueDto>> dailyRevenue(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<DailyRevenueDto> result = orderAnalyticsService.dailyRevenue(from, to);
+        return new Result<>(result.size(), result);
+    }
+
+    @GetMapping("/api/v1/analytics/top-items")
+    public Result<List<RankDto>> topItems(
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<RankDto> result = orderAnalyticsService.topItems(limit, from, to);
+        return new Result<>(result.size(), result);
+    }
+
+    @GetMapping("/api/v1/analytics/top-members")
+    public Result<List<RankDto>> topMembers(
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<RankDto> result = orderAnalyticsService.topMembers(limit, from, to);
+        return new Result<>(result.size(), result);
+    }
+
+    @GetMapping("/api/v1/analytics/members/{memberId}/spend")
+    public RankDto memberSpend(
+            @PathVariable("memberId") Long memberId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new RankDto(memberId, orderAnalyticsService.memberSpend(memberId, from, to));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+}
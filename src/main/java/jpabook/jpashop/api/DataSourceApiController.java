@@ -0,0 +1,71 @@
+package jpabook.jpashop.api;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jpabook.jpashop.datasource.DataSourceRoutingMetrics;
+import jpabook.jpashop.datasource.DataSourceType;
+import jpabook.jpashop.datasource.ReplicaLagMonitor;
+import jpabook.jpashop.datasource.ReplicationDataSources;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * primary / replica pool 별 라우팅 횟수와 Hikari pool 상태 조회
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceApiController {
+
+    private final ReplicationDataSources dataSources;
+    private final DataSourceRoutingMetrics metrics;
+    private final ReplicaLagMonitor lagMonitor;
+
+    @GetMapping("/api/v1/datasources")
+    public DataSourceStatsResponse dataSources() {
+        List<PoolStats> pools = List.of(
+                toPoolStats(DataSourceType.PRIMARY),
+                toPoolStats(DataSourceType.REPLICA));
+
+        return new DataSourceStatsResponse(lagMonitor.isAvailable(), lagMonitor.getLastLagMillis(),
+                metrics.getFallbackCount(), pools);
+    }
+
+    private PoolStats toPoolStats(DataSourceType type) {
+        HikariDataSource dataSource = dataSources.get(type);
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) { // 아직 connection 을 한번도 요청하지 않은 pool
+            return new PoolStats(type, dataSource.getPoolName(), metrics.getRoutedCount(type), 0, 0, 0, 0);
+        }
+        return new PoolStats(type, dataSource.getPoolName(), metrics.getRoutedCount(type),
+                pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class DataSourceStatsResponse {
+        private boolean replicaAvailable;
+        private long replicaLagMillis;
+        private long fallbackCount;
+        private List<PoolStats> pools;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PoolStats {
+        private DataSourceType type;
+        private String poolName;
+        private long routedCount;
+        private int active;
+        private int idle;
+        private int total;
+        private int awaiting;
+    }
+}
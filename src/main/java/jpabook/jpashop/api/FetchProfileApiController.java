@@ -0,0 +1,41 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.fetch.BatchFetchPolicy;
+import jpabook.jpashop.repository.fetch.FetchProfileStats;
+import jpabook.jpashop.repository.fetch.OrderFetchProfile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * fetch profile 별 batch size 조회/변경 (재배포 없이 조회 범위 튜닝)
+ */
+@RestController
+@RequiredArgsConstructor
+public class FetchProfileApiController {
+
+    private final BatchFetchPolicy batchFetchPolicy;
+
+    @GetMapping("/api/v1/fetch-profiles")
+    public Result<List<FetchProfileStats>> profiles() {
+        List<FetchProfileStats> stats = batchFetchPolicy.stats();
+        return new Result<>(stats.size(), stats);
+    }
+
+    @PutMapping("/api/v1/fetch-profiles/{profile}")
+    public Result<List<FetchProfileStats>> updateBatchSize(@PathVariable("profile") String profile,
+                                                           @RequestParam("batchSize") int batchSize) {
+        batchFetchPolicy.setBatchSize(OrderFetchProfile.of(profile), batchSize);
+        return profiles();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+}
@@ -0,0 +1,64 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.ItemCatalogSearch;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
+import jpabook.jpashop.service.ItemBulkUpdateCommand;
+import jpabook.jpashop.service.ItemBulkUpdateResult;
+import jpabook.jpashop.service.ItemBulkUpdateService;
+import jpabook.jpashop.service.ItemService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemBulkUpdateService itemBulkUpdateService;
+    private final ItemService itemService;
+
+    /**
+     * 상품 목록 (keyset 페이징)
+     * ex) /api/v1/items?type=BOOK&minPrice=10000&maxPrice=30000&inStock=true&limit=50
+     * 다음 페이지: lastId=nextLastId (마지막 페이지면 nextLastId 는 null)
+     * limit 은 1 ~ ItemRepository.CATALOG_MAX_PAGE_SIZE 로 맞춘다.
+     */
+    @GetMapping("/api/v1/items")
+    public CatalogResult<List<ItemCatalogDto>> catalog(@ModelAttribute ItemCatalogSearch search,
+                                                       @RequestParam(value = "lastId", required = false) Long lastId,
+                                                       @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        // 실제로 조회하는 건수와 비교해야 마지막 페이지를 판단할 수 있다. (limit > 최대값, limit <= 0)
+        int pageSize = ItemRepository.catalogPageSize(limit);
+        List<ItemCatalogDto> items = itemService.findCatalog(search, lastId, pageSize);
+        Long nextLastId = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return new CatalogResult<>(items.size(), items, nextLastId);
+    }
+
+    /**
+     * 상품 가격/재고 일괄 변경
+     * ex) {"itemType": "BOOK", "categoryId": 1, "pricePercent": 10, "stockDelta": -5}
+     * 변경할 내용이 없거나 잘못된 요청이면 400
+     */
+    @PutMapping("/api/v1/items/bulk")
+    public ItemBulkUpdateResult bulkUpdate(@RequestBody ItemBulkUpdateCommand command) {
+        try {
+            return itemBulkUpdateService.bulkUpdate(command);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CatalogResult<T> {
+        private int count;
+        private T data;
+        private Long nextLastId;
+    }
+}
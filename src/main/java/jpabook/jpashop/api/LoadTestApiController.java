@@ -0,0 +1,44 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.loadtest.LoadTestDriver;
+import jpabook.jpashop.loadtest.LoadTestReport;
+import jpabook.jpashop.loadtest.SyntheticDataGenerator;
+import jpabook.jpashop.loadtest.SyntheticDataResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.loadtest", name = "enabled", havingValue = "true")
+public class LoadTestApiController {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final LoadTestDriver loadTestDriver;
+
+    /**
+     * jpashop.loadtest.* 설정대로 합성 데이터 추가
+     */
+    @PostMapping("/api/v1/loadtest/data")
+    public SyntheticDataResult generate() {
+        return syntheticDataGenerator.generate();
+    }
+
+    /**
+     * 주문/취소/목록 조회 부하 실행 후 요청 종류별 응답시간 분포 반환
+     * threads / durationSeconds 가 1 ~ jpashop.loadtest.max-threads / max-duration-seconds 를 벗어나면 400
+     */
+    @PostMapping("/api/v1/loadtest/run")
+    public LoadTestReport run(@RequestParam(required = false) Integer threads,
+                              @RequestParam(required = false) Integer durationSeconds) throws InterruptedException {
+        try {
+            return loadTestDriver.run(threads, durationSeconds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
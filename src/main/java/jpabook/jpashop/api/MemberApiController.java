@@ -1,16 +1,33 @@
 package jpabook.jpashop.api;
 
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.BulkJoinResult;
+import jpabook.jpashop.service.MemberBulkService;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 //@Controller @ResponseBody
@@ -18,7 +35,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberApiController {
 
+    // NDJSON 대량 가입 한 요청의 최대 줄 수 / 한 줄 최대 길이 (회원 이름 + JSON 여유)
+    static final int NDJSON_MAX_LINES = 100_000;
+    static final int NDJSON_MAX_LINE_LENGTH = 1_000;
+
     private final MemberService memberService;
+    private final MemberBulkService memberBulkService;
+    private final ObjectMapper objectMapper;
 
     /**
      * API to enroll a member .ver1
@@ -90,6 +113,32 @@ public class MemberApiController {
         return new CreateMemberResponse(id);
     }
 
+    /**
+     * 대량 가입 (JSON 배열)
+     * 한 건씩 가입하는 /api/v2/members 와 달리 청크 단위로 중복 검사 IN 쿼리 1번 + batch insert
+     * 요청 순서대로 건별 결과를 돌려준다.
+     */
+    @PostMapping(value = "/api/v2/members/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkJoinResponse saveMembersV2(@RequestBody List<CreateMemberRequest> requests) {
+        List<String> names = new ArrayList<>(requests.size());
+        for (CreateMemberRequest request : requests) {
+            names.add(request == null ? null : request.getName());
+        }
+        return new BulkJoinResponse(memberBulkService.joinAll(names));
+    }
+
+    /**
+     * 대량 가입 (NDJSON - 한 줄에 CreateMemberRequest 하나)
+     * 본문을 한 줄씩 읽으면서 MemberBulkService.CHUNK_SIZE 줄마다 가입 처리/커밋한다. (본문 전체를 메모리에 올리지 않는다.)
+     * 파싱할 수 없는 줄, NDJSON_MAX_LINE_LENGTH 자를 넘는 줄은 INVALID 로 처리한다.
+     * NDJSON_MAX_LINES 줄을 넘으면 413 - 그 전까지 커밋된 청크는 남지만, 다시 요청하면 이미 가입된 이름은 DUPLICATE 가 된다.
+     */
+    @PostMapping(value = "/api/v2/members/bulk", consumes = "application/x-ndjson")
+    public BulkJoinResponse saveMembersV2Ndjson(InputStream body) {
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return new BulkJoinResponse(memberBulkService.joinAll(new NdjsonNames(reader, objectMapper)));
+    }
+
     @PutMapping("/api/v2/members/{id}")
     public UpdateMemberResponse updateMemberV2(@PathVariable("id") Long id,
                                                @RequestBody @Valid UpdateMemberRequest request) {
@@ -119,6 +168,102 @@ public class MemberApiController {
         private String name;
     }
 
+    @Data
+    static class BulkJoinResponse {
+        private int created;
+        private int duplicated;
+        private int invalid;
+        private int failed;
+        private List<BulkJoinResult> results;
+
+        BulkJoinResponse(List<BulkJoinResult> results) {
+            for (BulkJoinResult result : results) {
+                switch (result.getStatus()) {
+                    case CREATED: created++; break;
+                    case DUPLICATE: duplicated++; break;
+                    case FAILED: failed++; break;
+                    default: invalid++;
+                }
+            }
+            this.results = results;
+        }
+    }
+
+    /**
+     * NDJSON 본문의 줄을 하나씩 읽어서 회원 이름으로 바꾼다. (INVALID 인 줄은 null, 빈 줄은 건너뛴다.)
+     * 한 줄도 NDJSON_MAX_LINE_LENGTH 자까지만 메모리에 올린다.
+     */
+    static class NdjsonNames implements Iterator<String> {
+
+        private final Reader reader;
+        private final ObjectMapper objectMapper;
+        private final StringBuilder line = new StringBuilder();
+        private int lines;
+        private boolean eof;
+        private boolean hasLine;
+        private boolean tooLong;
+
+        NdjsonNames(Reader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!hasLine && !eof) {
+                readLine();
+                if (hasLine && !tooLong && line.toString().isBlank()) {
+                    hasLine = false;
+                }
+            }
+            return hasLine;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasLine = false;
+            if (tooLong) {
+                return null;
+            }
+            try {
+                return objectMapper.readValue(line.toString(), CreateMemberRequest.class).getName();
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        private void readLine() {
+            line.setLength(0);
+            tooLong = false;
+            try {
+                int c;
+                while ((c = reader.read()) != -1 && c != '\n') {
+                    if (line.length() < NDJSON_MAX_LINE_LENGTH) {
+                        line.append((char) c);
+                    } else {
+                        tooLong = true; // 줄 끝까지 읽어서 버린다.
+                    }
+                }
+                if (c == -1) {
+                    eof = true;
+                    if (line.length() == 0 && !tooLong) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++lines > NDJSON_MAX_LINES) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "대량 가입은 한 번에 " + NDJSON_MAX_LINES + "줄까지 요청할 수 있습니다.");
+            }
+            hasLine = true;
+        }
+    }
+
     @Data
     static class CreateMemberResponse{
         private Long id;
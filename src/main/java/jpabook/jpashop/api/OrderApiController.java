@@ -1,5 +1,7 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
@@ -11,11 +13,15 @@ import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
 import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.sharding.ShardedOrderQueryRepository;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,9 +34,16 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final ObjectProvider<ShardedOrderQueryRepository> shardedOrderQueryRepository; // sharding 모드에서만 존재
 
+    /**
+     * sharding 모드에서는 주문이 shard 에만 있고 엔티티가 아니므로 지원하지 않는다. (501)
+     */
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
+        if (shardedOrderQueryRepository.getIfAvailable() != null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "sharding 모드에서는 /api/v2/orders 이후 버전을 사용해야 합니다.");
+        }
         List<Order> all = orderRepository.findAllByString(new OrderSearch());
         for (Order order : all) {
             order.getMember().getName();
@@ -49,6 +62,10 @@ public class OrderApiController {
 
     @GetMapping("/api/v2/orders")
     public List<OrderDto> ordersV2() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findAll(new OrderSearch()).stream().map(OrderDto::new).collect(toList());
+        }
         List<Order> orders = orderRepository.findAllByString(new OrderSearch());
         List<OrderDto> result = orders.stream()
                 .map(o -> new OrderDto(o))
@@ -58,9 +75,21 @@ public class OrderApiController {
         return result;
     }
 
+    /**
+     * 컬렉션 fetch join + 페이징: 주문 id 한 페이지를 먼저 조회하고 그 주문들만 fetch join (2단계 조회)
+     * lastId: 이전 페이지 마지막 orderId (keyset 페이징, offset 무시)
+     */
     @GetMapping("/api/v3/orders")
-    public List<OrderDto> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithItem();
+    @WorkloadPool(WorkloadType.LISTING)
+    public List<OrderDto> ordersV3(
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findPage(new OrderSearch(), lastId, offset, limit).stream().map(OrderDto::new).collect(toList());
+        }
+        List<Order> orders = orderRepository.findAllWithItem(lastId, offset, limit);
 
         for(Order order : orders) {
             System.out.println("order ref = " + order + " id = " + order.getId());
@@ -84,8 +113,28 @@ public class OrderApiController {
     private final OrderQueryService orderQueryService;
 
     @GetMapping("/api/v3.2/orders")
-    public List<jpabook.jpashop.service.query.OrderDto> ordersV3_osviOff() {
-        return orderQueryService.ordersV3_osviOff();
+    public List<jpabook.jpashop.service.query.OrderDto> ordersV3_osviOff(
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return orderQueryService.ordersV3_osviOff(lastId, offset, limit);
+    }
+
+    /**
+     * order-with-lines fetch profile
+     * 회원/배송은 fetch join, 주문상품/상품은 /api/v1/fetch-profiles 에서 설정한 batch size 단위로 조회
+     * limit 은 OrderRepository.MAX_PAGE_SIZE 까지, offset 이 음수이거나 limit 이 1 미만이면 400
+     */
+    @GetMapping("/api/v3.3/orders")
+    public List<jpabook.jpashop.service.query.OrderDto> ordersV3_profile(
+            OrderSearch orderSearch,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            return orderQueryService.ordersWithLines(orderSearch, offset, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
@@ -97,6 +146,10 @@ public class OrderApiController {
     public List<OrderDto> ordersV3_page(
             @RequestParam(value = "offset", defaultValue = "0") int offset,
             @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findPage(new OrderSearch(), null, offset, limit).stream().map(OrderDto::new).collect(toList());
+        }
         List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
 
         List<OrderDto> result = orders.stream()
@@ -109,17 +162,34 @@ public class OrderApiController {
 
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findAll(new OrderSearch());
+        }
         return orderQueryRepository.findOrderQueryDtos();
     }
 
+    /**
+     * 검색 조건: memberName, orderStatus, includeArchived(보관 주문 포함)
+     * 주문 id 순 페이징 (lastId 가 있으면 keyset) - 보관 주문도 같은 페이지 크기 안에서 id 순으로 합쳐진다.
+     * sharding 모드에서는 전체 shard 병렬 조회 후 병합
+     */
     @GetMapping("/api/v5/orders")
-    public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+    public List<OrderQueryDto> ordersV5(
+            OrderSearch orderSearch,
+            @RequestParam(value = "lastId", required = false) Long lastId,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return orderQueryService.searchOrders(orderSearch, lastId, offset, limit);
     }
 
     @GetMapping("/api/v6/orders")
     public List<OrderQueryDto> ordersV6() {
 //    public List<OrderFlatDto> ordersV6() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findAll(new OrderSearch());
+        }
 //        return orderQueryRepository.findAllByDto_flat();
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
 
@@ -161,6 +231,18 @@ public class OrderApiController {
                     .map(orderItem -> new OrderItemDto(orderItem))
                     .collect(toList());
         }
+
+        // sharding 모드
+        public OrderDto(OrderQueryDto order) {
+            orderId = order.getOrderId();
+            name = order.getName();
+            orderDate = order.getOrderDate();
+            orderStatus = order.getOrderStatus();
+            address = order.getAddress();
+            orderItems = order.getOrderItems().stream()
+                    .map(OrderItemDto::new)
+                    .collect(toList());
+        }
     }
 
     @Getter
@@ -175,5 +257,11 @@ public class OrderApiController {
             orderPrice = orderItem.getOrderPrice();
             count = orderItem.getCount();
         }
+
+        public OrderItemDto(OrderItemQueryDto orderItem) {
+            itemName = orderItem.getItemName();
+            orderPrice = orderItem.getOrderPrice();
+            count = orderItem.getCount();
+        }
     }
 }
@@ -0,0 +1,47 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.archive.ArchiveStats;
+import jpabook.jpashop.service.archive.OrderArchiveService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderArchiveApiController {
+
+    private final OrderArchiveService orderArchiveService;
+
+    /**
+     * 보관 작업 수동 실행
+     * before 가 없으면 jpashop.archive.retention-days 기준
+     */
+    @PostMapping("/api/v1/orders/archive")
+    public ArchiveResponse archive(
+            @RequestParam(value = "before", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        long archived = before == null ? orderArchiveService.archive() : orderArchiveService.archive(before);
+        return new ArchiveResponse(archived);
+    }
+
+    /**
+     * hot / archive 테이블 크기, 마지막 실행 결과
+     */
+    @GetMapping("/api/v1/orders/archive/stats")
+    public ArchiveStats stats() {
+        return orderArchiveService.stats();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ArchiveResponse {
+        private long archived;
+    }
+}
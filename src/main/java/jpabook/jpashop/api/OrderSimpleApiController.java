@@ -7,10 +7,18 @@ import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.service.query.OrderSummaryDto;
+import jpabook.jpashop.sharding.ShardedOrderQueryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -36,14 +44,20 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderQueryService orderQueryService;
+    private final ObjectProvider<ShardedOrderQueryRepository> shardedOrderQueryRepository; // sharding 모드에서만 존재
 
     /**
      * Entity 직접 노출 절대 절대 안된다.
      * 연관관계 데이터에 대한 fetch 여부 및 처리 필요,
      * 필요하지 않은 데이터까지 모두 조회하는 쿼리문 실행 -> 성능 저하
+     * sharding 모드에서는 주문이 shard 에만 있고 엔티티가 아니므로 지원하지 않는다. (501)
      */
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
+        if (shardedOrderQueryRepository.getIfAvailable() != null) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "sharding 모드에서는 /api/v2/simple-orders 이후 버전을 사용해야 합니다.");
+        }
         List<Order> all = orderRepository.findAllByString(new OrderSearch());
         for(Order order : all) {
             /**
@@ -59,6 +73,10 @@ public class OrderSimpleApiController {
 
     @GetMapping("/api/v2/simple-orders")
     public List<SimpleOrderDto> ordersV2() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findAll(new OrderSearch()).stream().map(SimpleOrderDto::new).collect(Collectors.toList());
+        }
         List<Order> orders = orderRepository.findAllByString(new OrderSearch());
 
         /**
@@ -86,6 +104,10 @@ public class OrderSimpleApiController {
 
     @GetMapping("/api/v3/simple-orders")
     public List<SimpleOrderDto> ordersV3() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findPage(new OrderSearch(), null, 0, 100).stream().map(SimpleOrderDto::new).collect(Collectors.toList());
+        }
         List<Order> orders = orderRepository.findAllWithMemberDelivery(0, 100);
 //        List<Order> orders = orderRepository.findAllWithMemberDelivery();
         List<SimpleOrderDto> result = orders.stream()
@@ -97,9 +119,31 @@ public class OrderSimpleApiController {
 
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findAll(new OrderSearch()).stream()
+                    .map(o -> new OrderSimpleQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()))
+                    .collect(Collectors.toList());
+        }
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
+    /**
+     * order-summary fetch profile (회원/배송 fetch join, id 순 페이징)
+     * limit 은 OrderRepository.MAX_PAGE_SIZE 까지, offset 이 음수이거나 limit 이 1 미만이면 400
+     */
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSummaryDto> ordersV5(
+            OrderSearch orderSearch,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        try {
+            return orderQueryService.orderSummaries(orderSearch, offset, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     /**
      * v3 vs v4 ?
      * 조회 빈도수를 고려해서 고르는 것이 바람직하다.
@@ -127,6 +171,15 @@ public class OrderSimpleApiController {
             orderStatus = order.getStatus();
             address = order.getDelivery().getAddress(); // LAZY 초기화
         }
+
+        // sharding 모드
+        public SimpleOrderDto(OrderQueryDto order) {
+            orderId = order.getOrderId();
+            name = order.getName();
+            orderDate = order.getOrderDate();
+            orderStatus = order.getOrderStatus();
+            address = order.getAddress();
+        }
     }
 
     /**
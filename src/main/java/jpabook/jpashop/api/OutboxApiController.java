@@ -0,0 +1,41 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.outbox.OutboxRelay;
+import jpabook.jpashop.outbox.OutboxStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.outbox", name = "enabled", havingValue = "true")
+public class OutboxApiController {
+
+    private final OutboxRelay outboxRelay;
+
+    /**
+     * 미전달 이벤트 수, lag, 처리량
+     */
+    @GetMapping("/api/v1/outbox/stats")
+    public OutboxStats stats() {
+        return outboxRelay.stats();
+    }
+
+    /**
+     * relay 수동 실행
+     */
+    @PostMapping("/api/v1/outbox/relay")
+    public RelayResponse relay() {
+        return new RelayResponse(outboxRelay.relay());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RelayResponse {
+        private int relayed;
+    }
+}
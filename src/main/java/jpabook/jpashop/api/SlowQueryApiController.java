@@ -0,0 +1,56 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.slowquery.SlowQueryDto;
+import jpabook.jpashop.slowquery.SlowQueryRecorder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryApiController {
+
+    private final SlowQueryRecorder slowQueryRecorder;
+
+    /**
+     * fingerprint 별 실행 통계 상위 N 개
+     * sort: total(누적 시간, 기본) | max | p99 | count | slow
+     * top 이 1 미만이거나 지원하지 않는 sort 면 400
+     */
+    @GetMapping("/api/v1/slow-queries")
+    public Result<List<SlowQueryDto>> top(@RequestParam(defaultValue = "20") int top,
+                                          @RequestParam(defaultValue = "total") String sort) {
+        List<SlowQueryDto> result;
+        try {
+            result = slowQueryRecorder.top(top, sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return new Result<>(result.size(), result);
+    }
+
+    /**
+     * 통계 초기화 (배포 후 비교 등)
+     */
+    @DeleteMapping("/api/v1/slow-queries")
+    public void reset() {
+        slowQueryRecorder.reset();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+}
@@ -0,0 +1,42 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.inventory.StockBucketProperties;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.inventory.StockBucketStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 인기 상품 재고 bucket 분할/합치기/재분배
+ */
+@RestController
+@RequiredArgsConstructor
+public class StockBucketApiController {
+
+    private final StockBucketService stockBucketService;
+    private final StockBucketProperties properties;
+
+    @GetMapping("/api/v1/items/{itemId}/stock-buckets")
+    public StockBucketStatus status(@PathVariable("itemId") Long itemId) {
+        return stockBucketService.status(itemId);
+    }
+
+    /**
+     * ex) POST /api/v1/items/1/stock-buckets?buckets=16 (생략하면 jpashop.stock-buckets.default-buckets)
+     */
+    @PostMapping("/api/v1/items/{itemId}/stock-buckets")
+    public StockBucketStatus split(@PathVariable("itemId") Long itemId,
+                                   @RequestParam(value = "buckets", required = false) Integer buckets) {
+        return stockBucketService.split(itemId, buckets == null ? properties.getDefaultBuckets() : buckets);
+    }
+
+    @DeleteMapping("/api/v1/items/{itemId}/stock-buckets")
+    public StockBucketStatus merge(@PathVariable("itemId") Long itemId) {
+        return stockBucketService.merge(itemId);
+    }
+
+    @PostMapping("/api/v1/items/{itemId}/stock-buckets/rebalance")
+    public StockBucketStatus rebalance(@PathVariable("itemId") Long itemId) {
+        return stockBucketService.rebalance(itemId);
+    }
+}
@@ -0,0 +1,82 @@
+package jpabook.jpashop.api;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jpabook.jpashop.datasource.WorkloadPoolMetrics;
+import jpabook.jpashop.datasource.WorkloadPoolProperties;
+import jpabook.jpashop.datasource.WorkloadPools;
+import jpabook.jpashop.datasource.WorkloadType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 워크로드 pool 별 크기(adaptive 조정 값), timeout, Hikari pool 상태 조회
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.datasource.workload-pools", name = "enabled", havingValue = "true")
+public class WorkloadPoolApiController {
+
+    private final WorkloadPools pools;
+    private final WorkloadPoolProperties properties;
+    private final WorkloadPoolMetrics metrics;
+
+    @GetMapping("/api/v1/workload-pools")
+    public Result<List<WorkloadPoolStats>> workloadPools() {
+        List<WorkloadPoolStats> result = new ArrayList<>();
+        for (WorkloadType type : WorkloadType.values()) {
+            result.add(toStats(type));
+        }
+        return new Result<>(result.size(), result);
+    }
+
+    private WorkloadPoolStats toStats(WorkloadType type) {
+        HikariDataSource dataSource = pools.get(type);
+        WorkloadPoolProperties.Pool pool = properties.get(type);
+        HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+        WorkloadPoolStats stats = new WorkloadPoolStats();
+        stats.setPool(type.key());
+        stats.setMaximumPoolSize(dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+        stats.setMinSize(pool.getMinSize());
+        stats.setMaxSize(pool.getMaxSize());
+        stats.setStatementTimeoutSeconds(pool.getStatementTimeoutSeconds());
+        stats.setTransactionTimeoutSeconds(pool.getTransactionTimeoutSeconds());
+        stats.setRoutedCount(metrics.getRoutedCount(type));
+        if (mxBean != null) { // 아직 connection 을 한번도 요청하지 않은 pool 은 null
+            stats.setActive(mxBean.getActiveConnections());
+            stats.setIdle(mxBean.getIdleConnections());
+            stats.setTotal(mxBean.getTotalConnections());
+            stats.setAwaiting(mxBean.getThreadsAwaitingConnection());
+        }
+        return stats;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+
+    @Data
+    static class WorkloadPoolStats {
+        private String pool;
+        private int maximumPoolSize;
+        private int minSize;
+        private int maxSize;
+        private int statementTimeoutSeconds;
+        private int transactionTimeoutSeconds;
+        private long routedCount;
+        private int active;
+        private int idle;
+        private int total;
+        private int awaiting;
+    }
+}
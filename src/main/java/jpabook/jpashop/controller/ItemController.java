@@ -1,7 +1,8 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.item.Book;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
 import jpabook.jpashop.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -17,6 +19,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
 
+    // 상품 목록 화면 한 페이지 행 수
+    static final int ITEM_LIST_PAGE_SIZE = 50;
+
     private final ItemService itemService;
 
     @GetMapping("/items/new")
@@ -42,9 +47,14 @@ public class ItemController {
     }
 
     @GetMapping("/items")
-    public String list(Model model) {
-        List<Item> items = itemService.findItems();
+    public String list(@ModelAttribute("itemSearch") ItemCatalogSearch itemSearch,
+                       @RequestParam(value = "lastId", required = false) Long lastId, Model model) {
+        // 전체 상품(엔티티) 대신 검색 조건에 맞는 한 페이지만 projection 으로 조회
+        List<ItemCatalogDto> items = itemService.findCatalog(itemSearch, lastId, ITEM_LIST_PAGE_SIZE);
         model.addAttribute("items", items);
+        if (items.size() == ITEM_LIST_PAGE_SIZE) {
+            model.addAttribute("nextLastId", items.get(items.size() - 1).getId());
+        }
 
         return "items/itemList";
     }
@@ -1,26 +1,36 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.idempotency.IdempotentOrderService;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
 import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.List;
+import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
 public class OrderController {
 
+    // 주문 목록 화면: 한 번에 조회/flush 하는 행 수, 최대 행 수
+    static final int ORDER_LIST_CHUNK_SIZE = 100;
+    static final int ORDER_LIST_MAX_ROWS = 1000;
+
     private final OrderService orderService;
+    private final IdempotentOrderService idempotentOrderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderQueryService orderQueryService;
 
     @GetMapping("/order")
     public String createForm(Model model) {
@@ -30,6 +40,8 @@ public class OrderController {
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
+        // 폼마다 idempotency key 발급 -> 같은 폼을 다시 제출(새로고침, 재시도)해도 주문은 한 번만 생성
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
 
         return "order/orderForm";
     }
@@ -37,20 +49,24 @@ public class OrderController {
     @PostMapping("/order")
     public String order(@RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
-                        @RequestParam("count") int count) {
+                        @RequestParam("count") int count,
+                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKeyHeader,
+                        @RequestParam(value = "idempotencyKey", required = false) String idempotencyKey) {
 
         // ** 가급적 식별자만 파라미터로 넘겨서 @Transaction 어노테이션이 존재하는 (영속 Context가 존재하는) 영역에서 엔티티를 처리하도록 한다.
         // 가독성 향상, 테스트 작업 원활
-        orderService.order(memberId, itemId, count);
+        // Idempotency-Key 헤더(API 클라이언트) 또는 폼의 idempotencyKey 가 같으면 처음 주문을 그대로 사용한다.
+        idempotentOrderService.order(idempotencyKeyHeader != null ? idempotencyKeyHeader : idempotencyKey, memberId, itemId, count);
         return "redirect:/orders";
     }
 
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model, HttpServletResponse response) {
         // @ModelAttribute로 form 데이터 가져옴.
 
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders", orders);
+        // 엔티티 목록(회원/주문상품/상품 지연 로딩) 대신 DTO 를 렌더링 중에 chunk 단위로 조회해서 바로 내보낸다.
+        model.addAttribute("orders", new OrderListRows(orderQueryService::findOrderListRows, orderSearch, response,
+                ORDER_LIST_CHUNK_SIZE, ORDER_LIST_MAX_ROWS));
 
         return "order/orderList";
     }
@@ -0,0 +1,93 @@
+package jpabook.jpashop.controller;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderListRowDto;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 주문 목록 화면의 th:each 대상 - 렌더링 중에 chunkSize 건씩 keyset 으로 조회한다.
+ *
+ * Thymeleaf(ThymeleafView) 는 렌더링 결과를 response writer 에 바로 쓰므로 (produce-partial-output-while-processing 기본값 true)
+ * 다음 chunk 를 조회하기 전에 flushBuffer() 하면 그때까지 그려진 행이 chunked 응답으로 브라우저에 먼저 전달된다.
+ * -> 첫 행이 나오는 시간은 전체 건수와 무관하고, 메모리에는 chunk 하나만 올라간다.
+ * (ReactiveDataDriverContextVariable 은 WebFlux 용 view resolver 에서만 동작하므로 MVC 에서는 이 방식으로 대신한다.)
+ */
+class OrderListRows implements Iterable<OrderListRowDto> {
+
+    /**
+     * id 순 keyset 조회 (OrderQueryService.findOrderListRows)
+     */
+    interface Source {
+        List<OrderListRowDto> findOrderListRows(OrderSearch orderSearch, Long lastId, int limit);
+    }
+
+    private final Source source;
+    private final OrderSearch orderSearch;
+    private final HttpServletResponse response;
+    private final int chunkSize;
+    private final int maxRows;
+
+    OrderListRows(Source source, OrderSearch orderSearch, HttpServletResponse response,
+                  int chunkSize, int maxRows) {
+        this.source = source;
+        this.orderSearch = orderSearch;
+        this.response = response;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public Iterator<OrderListRowDto> iterator() {
+        return new Iterator<>() {
+            private List<OrderListRowDto> chunk = Collections.emptyList();
+            private int index;
+            private int returned;
+            private Long lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index < chunk.size()) {
+                    return true;
+                }
+                if (exhausted || returned >= maxRows) {
+                    return false;
+                }
+                flush();
+                chunk = source.findOrderListRows(orderSearch, lastId, Math.min(chunkSize, maxRows - returned));
+                index = 0;
+                exhausted = chunk.size() < chunkSize;
+                if (chunk.isEmpty()) {
+                    return false;
+                }
+                lastId = chunk.get(chunk.size() - 1).getOrderId();
+                return true;
+            }
+
+            @Override
+            public OrderListRowDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                returned++;
+                return chunk.get(index++);
+            }
+        };
+    }
+
+    private void flush() {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            // 클라이언트 연결 끊김 -> 렌더링 중단
+            throw new UncheckedIOException(e);
+        }
+    }
+}
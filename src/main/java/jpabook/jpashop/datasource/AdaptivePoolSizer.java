@@ -0,0 +1,114 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 워크로드 pool 크기(maximumPoolSize) 를 주기마다 조정한다.
+ *
+ * - connection 대기(평균 대기 >= target-wait-millis 또는 대기 스레드 있음) -> grow-step 만큼 늘린다.
+ * - 단, 쿼리 평균 실행 시간이 max-db-latency-millis 를 넘으면 DB 가 포화된 것이므로
+ *   connection 을 늘리면 대기가 DB 로 옮겨갈 뿐이다. -> 늘리지 않고 하나 줄인다.
+ * - 사용 중 connection 최대값이 pool 크기보다 grow-step 이상 작은 주기가 shrink-after-intervals 번 이어지면 하나 줄인다.
+ * 항상 min-size ~ max-size 사이. Hikari 는 실행 중 maximumPoolSize 변경을 지원한다. (줄어든 만큼은 반환될 때 닫힌다.)
+ */
+@Slf4j
+public class AdaptivePoolSizer {
+
+    private final WorkloadPools pools;
+    private final WorkloadPoolProperties properties;
+    private final WorkloadPoolMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<WorkloadType, Integer> idleIntervals = new EnumMap<>(WorkloadType.class);
+
+    public AdaptivePoolSizer(WorkloadPools pools, WorkloadPoolProperties properties, WorkloadPoolMetrics metrics) {
+        this.pools = pools;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "workload-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (WorkloadType type : WorkloadType.values()) {
+            idleIntervals.put(type, 0);
+        }
+    }
+
+    public void start() {
+        if (!properties.getAdaptive().isEnabled()) {
+            return;
+        }
+        long interval = properties.getAdaptive().getIntervalMillis();
+        scheduler.scheduleWithFixedDelay(this::resizeAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void resizeAll() {
+        for (WorkloadType type : WorkloadType.values()) {
+            try {
+                resize(type);
+            } catch (RuntimeException e) {
+                log.warn("workload pool resize failed. pool = {}", type.key(), e);
+            }
+        }
+    }
+
+    /**
+     * @return 조정 후 pool 크기
+     */
+    public synchronized int resize(WorkloadType type) {
+        HikariDataSource dataSource = pools.get(type);
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        int awaiting = pool == null ? 0 : pool.getThreadsAwaitingConnection();
+
+        int current = config.getMaximumPoolSize();
+        int next = nextSize(type, current, metrics.drain(type), awaiting);
+        if (next != current) {
+            // minimumIdle 이 maximumPoolSize 보다 크면 Hikari 가 maximumPoolSize 까지 채우려고 한다.
+            config.setMinimumIdle(Math.min(properties.get(type).getMinSize(), next));
+            config.setMaximumPoolSize(next);
+            metrics.recordResize(type, current, next);
+            log.info("workload pool resized. pool = {}, {} -> {}", type.key(), current, next);
+        }
+        return next;
+    }
+
+    synchronized int nextSize(WorkloadType type, int current, WorkloadPoolMetrics.Window window, int awaiting) {
+        WorkloadPoolProperties.Pool pool = properties.get(type);
+        WorkloadPoolProperties.Adaptive adaptive = properties.getAdaptive();
+        boolean waiting = awaiting > 0 || (window.getAcquisitions() > 0 && window.getAvgWaitMillis() >= adaptive.getTargetWaitMillis());
+        boolean dbSaturated = window.getStatements() > 0 && window.getAvgStatementMillis() > adaptive.getMaxDbLatencyMillis();
+
+        int next = current;
+        if (dbSaturated) {
+            next = current - 1;
+            idleIntervals.put(type, 0);
+        } else if (waiting) {
+            next = current + adaptive.getGrowStep();
+            idleIntervals.put(type, 0);
+        } else if (window.getPeakInUse() <= current - adaptive.getGrowStep()) {
+            int idle = idleIntervals.merge(type, 1, Integer::sum);
+            if (idle >= adaptive.getShrinkAfterIntervals()) {
+                next = current - 1;
+                idleIntervals.put(type, 0);
+            }
+        } else {
+            idleIntervals.put(type, 0);
+        }
+        return Math.max(pool.getMinSize(), Math.min(pool.getMaxSize(), next));
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.datasource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * pool 별로 몇 번의 connection 요청이 라우팅 되었는지 기록한다.
+ */
+public class DataSourceRoutingMetrics {
+
+    private final Map<DataSourceType, AtomicLong> routed = new EnumMap<>(DataSourceType.class);
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public DataSourceRoutingMetrics() {
+        for (DataSourceType type : DataSourceType.values()) {
+            routed.put(type, new AtomicLong());
+        }
+    }
+
+    public void recordRouted(DataSourceType type) {
+        routed.get(type).incrementAndGet();
+    }
+
+    // readOnly 트랜잭션이었지만 replica 상태 때문에 primary 로 보낸 경우
+    public void recordFallback() {
+        fallbacks.incrementAndGet();
+    }
+
+    public long getRoutedCount(DataSourceType type) {
+        return routed.get(type).get();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+}
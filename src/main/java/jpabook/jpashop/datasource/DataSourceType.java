@@ -0,0 +1,5 @@
+package jpabook.jpashop.datasource;
+
+public enum DataSourceType {
+    PRIMARY, REPLICA
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * replica 상태(지연, 장애)를 주기적으로 확인한다.
+ * 지연이 maxLagMillis 를 넘거나 접속이 불가능하면 available = false 가 되어
+ * 읽기 전용 트랜잭션도 primary 로 보낸다.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replica;
+    private final ReplicationProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean available = true;
+    private volatile long lastLagMillis = 0;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicationProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        // 첫 체크는 기동 시점에 동기로 실행해서 바로 라우팅 여부를 결정한다.
+        check();
+        long interval = properties.getLagCheckIntervalMillis();
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void check() {
+        try (Connection connection = replica.getConnection()) {
+            long lag = measureLag(connection);
+            lastLagMillis = lag;
+            boolean nowAvailable = lag <= properties.getMaxLagMillis();
+            if (available != nowAvailable) {
+                log.warn("replica available changed: {} -> {} (lag = {}ms)", available, nowAvailable, lag);
+            }
+            available = nowAvailable;
+        } catch (Exception e) {
+            if (available) {
+                log.warn("replica is unavailable, fallback to primary", e);
+            }
+            available = false;
+        }
+    }
+
+    private long measureLag(Connection connection) throws Exception {
+        if (!StringUtils.hasText(properties.getLagQuery())) {
+            // 지연 쿼리가 없으면 살아있는지만 확인한다.
+            return connection.isValid(1) ? 0 : Long.MAX_VALUE;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+            return rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    // 테스트, 장애 대응 시 수동 전환용
+    public void markUnavailable() {
+        available = false;
+    }
+}
@@ -0,0 +1,96 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 읽기/쓰기 DataSource 분리
+ * jpashop.datasource.replica.enabled=true 인 경우에만 등록되고,
+ * 그렇지 않으면 기존처럼 Spring Boot 자동 설정 DataSource 하나를 사용한다.
+ *
+ * primary: spring.datasource.* (+ spring.datasource.hikari.*)
+ * replica: jpashop.datasource.replica.*
+ *
+ * p6spy 는 primaryDataSource / replicaDataSource 를 감싼다.
+ * 라우팅 DataSource 를 감싸면 getConnection() 시점에 getMetaData() 를 호출해서 connection 을 바로 가져오기 때문에
+ * readOnly 여부를 알기 전에 라우팅이 끝나버린다. (datasource-replication.properties 참고)
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.datasource.replica", name = "enabled", havingValue = "true")
+@PropertySource("classpath:datasource-replication.properties")
+public class ReplicationDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicationDataSources replicationDataSources(DataSourceProperties dataSourceProperties,
+                                                         ReplicationProperties properties,
+                                                         Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary-pool");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica-pool");
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getUsername());
+        replica.setPassword(properties.getPassword());
+        replica.setDriverClassName(properties.getDriverClassName());
+        replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+
+        return new ReplicationDataSources(primary, replica);
+    }
+
+    @Bean(destroyMethod = "") // pool 종료는 ReplicationDataSources 가 한다.
+    public DataSource primaryDataSource(ReplicationDataSources replicationDataSources) {
+        return replicationDataSources.getPrimary();
+    }
+
+    @Bean(destroyMethod = "") // pool 종료는 ReplicationDataSources 가 한다.
+    public DataSource replicaDataSource(ReplicationDataSources replicationDataSources) {
+        return replicationDataSources.getReplica();
+    }
+
+    @Bean
+    public DataSourceRoutingMetrics dataSourceRoutingMetrics() {
+        return new DataSourceRoutingMetrics();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicationDataSources replicationDataSources,
+                                               ReplicationProperties properties) {
+        return new ReplicaLagMonitor(replicationDataSources.getReplica(), properties);
+    }
+
+    /**
+     * JPA 가 사용하는 DataSource
+     * LazyConnectionDataSourceProxy: 실제 쿼리 실행 시점까지 connection 획득을 미룬다.
+     * -> 그 시점에는 트랜잭션의 readOnly 여부를 알 수 있다.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 DataSourceRoutingMetrics dataSourceRoutingMetrics) {
+        ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, dataSourceRoutingMetrics);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
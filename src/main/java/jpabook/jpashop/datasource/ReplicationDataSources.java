@@ -0,0 +1,33 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * primary / replica connection pool 보관
+ *
+ * 두 pool 은 primaryDataSource / replicaDataSource bean 으로도 노출되고 (p6spy 는 이 bean 들을 감싼다.)
+ * 라우팅 DataSource(dataSource) 는 데코레이터 대상에서 제외된다. (datasource-replication.properties 참고)
+ * 노출된 bean 은 같은 pool 을 돌려줄 뿐이므로 pool 의 종료(close)는 이 객체가 한 번만 한다.
+ */
+@Getter
+public class ReplicationDataSources implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReplicationDataSources(HikariDataSource primary, HikariDataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    public HikariDataSource get(DataSourceType type) {
+        return type == DataSourceType.PRIMARY ? primary : replica;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
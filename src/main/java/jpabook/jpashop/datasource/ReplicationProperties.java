@@ -0,0 +1,34 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.datasource.replica.* 설정
+ * 읽기 전용(readOnly = true) 트랜잭션을 보낼 replica connection pool 정보
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.datasource.replica")
+public class ReplicationProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+    private String username = "sa";
+    private String password = "";
+    private String driverClassName = "org.h2.Driver";
+    private int maximumPoolSize = 10;
+
+    /**
+     * replica 지연(ms)을 반환하는 쿼리. 비어 있으면 connection 유효성만 확인한다.
+     * ex) MySQL: select timestampdiff(microsecond, max(ts), now(6)) / 1000 from heartbeat
+     */
+    private String lagQuery;
+
+    // 허용 가능한 최대 지연. 초과하면 primary 로 fallback
+    private long maxLagMillis = 1000;
+
+    // 지연 체크 주기
+    private long lagCheckIntervalMillis = 5000;
+}
@@ -0,0 +1,74 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Transactional(readOnly = true) 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ *
+ * ** 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용할 것.
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 TransactionSynchronizationManager 에 등록되지 않았기 때문에,
+ * 실제 쿼리가 실행될 때 connection 을 가져오도록 미뤄야 올바르게 라우팅 된다.
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final DataSourceRoutingMetrics metrics;
+
+    public ReplicationRoutingDataSource(DataSource primary, DataSource replica,
+                                        ReplicaLagMonitor lagMonitor, DataSourceRoutingMetrics metrics) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.metrics = metrics;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceType.PRIMARY, primary);
+        targets.put(DataSourceType.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return DataSourceType.PRIMARY;
+        }
+        return lagMonitor.isAvailable() ? DataSourceType.REPLICA : DataSourceType.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSourceType type = (DataSourceType) determineCurrentLookupKey();
+        if (type == DataSourceType.PRIMARY) {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                metrics.recordFallback();
+            }
+            metrics.recordRouted(DataSourceType.PRIMARY);
+            return primary.getConnection();
+        }
+
+        try {
+            Connection connection = replica.getConnection();
+            metrics.recordRouted(DataSourceType.REPLICA);
+            return connection;
+        } catch (SQLException e) {
+            // replica 장애 시 다음 체크 전까지 primary 로 보낸다.
+            log.warn("failed to get replica connection, fallback to primary", e);
+            lagMonitor.markUnavailable();
+            metrics.recordFallback();
+            metrics.recordRouted(DataSourceType.PRIMARY);
+            return primary.getConnection();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package jpabook.jpashop.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * 워크로드 pool 에서 가져온 connection 을 감싼다.
+ *
+ * - 만든 Statement 에 pool 의 statement timeout 을 건다.
+ *   Hibernate/Spring 이 트랜잭션 남은 시간으로 setQueryTimeout 을 다시 호출해도 statement timeout 보다 길게는 못 바꾼다.
+ * - execute* 실행 시간 (DB 지연) 과 connection 반환을 WorkloadPoolMetrics 에 기록한다.
+ */
+final class WorkloadConnections {
+
+    private WorkloadConnections() {
+    }
+
+    static Connection wrap(Connection connection, WorkloadType type, int statementTimeoutSeconds,
+                           WorkloadPoolMetrics metrics) {
+        return (Connection) Proxy.newProxyInstance(WorkloadConnections.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, type, statementTimeoutSeconds, metrics));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final WorkloadType type;
+        private final int statementTimeoutSeconds;
+        private final WorkloadPoolMetrics metrics;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, WorkloadType type, int statementTimeoutSeconds,
+                          WorkloadPoolMetrics metrics) {
+            this.target = target;
+            this.type = type;
+            this.statementTimeoutSeconds = statementTimeoutSeconds;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        metrics.recordRelease(type);
+                    }
+                    return WorkloadConnections.invoke(target, method, args);
+                case "isClosed":
+                    return closed || target.isClosed();
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result = WorkloadConnections.invoke(target, method, args);
+            if (result instanceof Statement) {
+                Statement statement = (Statement) result;
+                if (statementTimeoutSeconds > 0) {
+                    statement.setQueryTimeout(statementTimeoutSeconds);
+                }
+                return Proxy.newProxyInstance(WorkloadConnections.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(statement, proxy, type, statementTimeoutSeconds, metrics));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Object connection;
+        private final WorkloadType type;
+        private final int statementTimeoutSeconds;
+        private final WorkloadPoolMetrics metrics;
+
+        StatementHandler(Statement target, Object connection, WorkloadType type, int statementTimeoutSeconds,
+                         WorkloadPoolMetrics metrics) {
+            this.target = target;
+            this.connection = connection;
+            this.type = type;
+            this.statementTimeoutSeconds = statementTimeoutSeconds;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("setQueryTimeout") && statementTimeoutSeconds > 0) {
+                int seconds = (Integer) args[0];
+                target.setQueryTimeout(seconds <= 0 ? statementTimeoutSeconds : Math.min(seconds, statementTimeoutSeconds));
+                return null;
+            }
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("unwrap")) {
+                return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+            }
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!name.startsWith("execute")) {
+                return WorkloadConnections.invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return WorkloadConnections.invoke(target, method, args);
+            } finally {
+                metrics.recordStatement(type, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 워크로드 (WorkloadRoutingDataSource 의 라우팅 키, WorkloadTransactionManager 의 timeout)
+ * 설정되지 않았으면 WorkloadType.DEFAULT
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static WorkloadType current() {
+        WorkloadType type = CURRENT.get();
+        return type == null ? WorkloadType.DEFAULT : type;
+    }
+
+    /**
+     * type 워크로드로 action 실행 (끝나면 이전 값으로 되돌린다.)
+     * @WorkloadPool 을 붙일 수 없는 곳(TransactionTemplate 등)에서 사용
+     */
+    public static <T> T call(WorkloadType type, Supplier<T> action) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(type);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static WorkloadType enter(WorkloadType type) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(type);
+        return previous;
+    }
+
+    static void restore(WorkloadType previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
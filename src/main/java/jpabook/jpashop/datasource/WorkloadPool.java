@@ -0,0 +1,19 @@
+package jpabook.jpashop.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 메서드(또는 클래스의 모든 public 메서드)가 사용할 connection pool
+ * jpashop.datasource.workload-pools.enabled=true 인 경우에만 적용된다. (WorkloadPoolAspect)
+ *
+ * 트랜잭션의 connection 은 처음 쿼리를 실행할 때 한번만 가져오므로,
+ * 이미 시작된 트랜잭션에 참여하는 메서드에 붙이면 바깥 트랜잭션의 pool 을 그대로 사용한다.
+ * 메서드에 붙인 값이 클래스에 붙인 값보다 우선한다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WorkloadPool {
+
+    WorkloadType value();
+}
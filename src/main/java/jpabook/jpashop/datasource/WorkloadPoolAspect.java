@@ -0,0 +1,37 @@
+package jpabook.jpashop.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+/**
+ * @WorkloadPool 메서드를 해당 워크로드로 실행한다.
+ *
+ * 트랜잭션 timeout 을 워크로드로 정하기 때문에 @Transactional 보다 바깥에서 실행된다. (TracingAspect 다음)
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class WorkloadPoolAspect {
+
+    @Around("within(jpabook.jpashop..*) && (@annotation(jpabook.jpashop.datasource.WorkloadPool)"
+            + " || @within(jpabook.jpashop.datasource.WorkloadPool))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        WorkloadPool workloadPool = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), WorkloadPool.class);
+        if (workloadPool == null) {
+            workloadPool = AnnotatedElementUtils.findMergedAnnotation(
+                    joinPoint.getTarget().getClass(), WorkloadPool.class);
+        }
+
+        WorkloadType previous = WorkloadContext.enter(workloadPool.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
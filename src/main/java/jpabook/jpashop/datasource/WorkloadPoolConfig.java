@@ -0,0 +1,131 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 워크로드(checkout, listing, reporting) 별 connection pool 분리
+ * jpashop.datasource.workload-pools.enabled=true 인 경우에만 등록된다. (replica 분리와 함께 사용할 수 없다.)
+ *
+ * 긴 목록/통계 조회가 connection 을 모두 잡고 있어도 주문은 자기 pool 에서 connection 을 가져온다.
+ * pool 선택은 @WorkloadPool (WorkloadPoolAspect), timeout 은 WorkloadTransactionManager / WorkloadConnections 참고
+ *
+ * p6spy 는 pool 별 DataSource bean 을 감싼다. (라우팅 DataSource 는 제외, datasource-workload-pools.properties)
+ */
+@Configuration
+@EnableConfigurationProperties(WorkloadPoolProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.datasource.workload-pools", name = "enabled", havingValue = "true")
+@PropertySource("classpath:datasource-workload-pools.properties")
+public class WorkloadPoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public WorkloadPools workloadPools(DataSourceProperties dataSourceProperties,
+                                       WorkloadPoolProperties properties,
+                                       Environment environment,
+                                       MeterRegistry meterRegistry) {
+        if (environment.getProperty("jpashop.datasource.replica.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("jpashop.datasource.workload-pools 와 jpashop.datasource.replica 는 함께 사용할 수 없습니다.");
+        }
+
+        Map<WorkloadType, HikariDataSource> pools = new EnumMap<>(WorkloadType.class);
+        for (WorkloadType type : WorkloadType.values()) {
+            WorkloadPoolProperties.Pool pool = properties.get(type);
+            HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName(type.key() + "-pool");
+            dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+            dataSource.setMinimumIdle(Math.min(pool.getMinSize(), pool.getMaximumPoolSize()));
+            dataSource.setConnectionTimeout(pool.getConnectionTimeoutMillis());
+            pools.put(type, dataSource);
+
+            Gauge.builder("jpashop.datasource.pool.size", dataSource, d -> d.getHikariConfigMXBean().getMaximumPoolSize())
+                    .description("maximumPoolSize (adaptive 조정 값)")
+                    .tag("pool", type.key())
+                    .register(meterRegistry);
+        }
+        return new WorkloadPools(pools);
+    }
+
+    @Bean
+    public DataSource checkoutDataSource(WorkloadPools workloadPools) {
+        return workloadPools.get(WorkloadType.CHECKOUT);
+    }
+
+    @Bean
+    public DataSource listingDataSource(WorkloadPools workloadPools) {
+        return workloadPools.get(WorkloadType.LISTING);
+    }
+
+    @Bean
+    public DataSource reportingDataSource(WorkloadPools workloadPools) {
+        return workloadPools.get(WorkloadType.REPORTING);
+    }
+
+    @Bean
+    public WorkloadPoolMetrics workloadPoolMetrics(MeterRegistry meterRegistry) {
+        return new WorkloadPoolMetrics(meterRegistry);
+    }
+
+    @Bean
+    public WorkloadPoolAspect workloadPoolAspect() {
+        return new WorkloadPoolAspect();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AdaptivePoolSizer adaptivePoolSizer(WorkloadPools workloadPools, WorkloadPoolProperties properties,
+                                               WorkloadPoolMetrics workloadPoolMetrics) {
+        return new AdaptivePoolSizer(workloadPools, properties, workloadPoolMetrics);
+    }
+
+    /**
+     * JPA 가 사용하는 DataSource (ReplicationDataSourceConfig 와 같이 LazyConnectionDataSourceProxy 로 감싼다.)
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("checkoutDataSource") DataSource checkoutDataSource,
+                                 @Qualifier("listingDataSource") DataSource listingDataSource,
+                                 @Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                 WorkloadPoolProperties properties,
+                                 WorkloadPoolMetrics workloadPoolMetrics) {
+        Map<WorkloadType, DataSource> targets = new EnumMap<>(WorkloadType.class);
+        targets.put(WorkloadType.CHECKOUT, checkoutDataSource);
+        targets.put(WorkloadType.LISTING, listingDataSource);
+        targets.put(WorkloadType.REPORTING, reportingDataSource);
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource(targets, properties, workloadPoolMetrics);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Spring Boot 기본 JpaTransactionManager 대신 워크로드별 transaction timeout 을 적용하는 transaction manager
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(WorkloadPoolProperties properties,
+                                                         ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        WorkloadTransactionManager transactionManager = new WorkloadTransactionManager(properties);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
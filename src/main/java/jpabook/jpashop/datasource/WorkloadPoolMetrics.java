@@ -0,0 +1,135 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 워크로드 pool 별 connection 획득 대기 시간, 쿼리 실행 시간, 사용 중 connection 수
+ *
+ * Micrometer: jpashop.datasource.pool.acquire / statement (timer), in-use (gauge), resize (counter) - tag: pool
+ * AdaptivePoolSizer 는 주기마다 drain() 으로 직전 주기 값만 가져간다.
+ */
+public class WorkloadPoolMetrics {
+
+    private final Map<WorkloadType, PoolStats> stats = new EnumMap<>(WorkloadType.class);
+
+    public WorkloadPoolMetrics(MeterRegistry meterRegistry) {
+        for (WorkloadType type : WorkloadType.values()) {
+            stats.put(type, new PoolStats(type, meterRegistry));
+        }
+    }
+
+    public void recordAcquire(WorkloadType type, long nanos) {
+        PoolStats pool = stats.get(type);
+        pool.routed.incrementAndGet();
+        pool.waitNanos.add(nanos);
+        pool.acquisitions.increment();
+        pool.acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+
+        int inUse = pool.inUse.incrementAndGet();
+        pool.peakInUse.accumulateAndGet(inUse, Math::max);
+    }
+
+    public void recordRelease(WorkloadType type) {
+        stats.get(type).inUse.decrementAndGet();
+    }
+
+    public void recordStatement(WorkloadType type, long nanos) {
+        PoolStats pool = stats.get(type);
+        pool.statementNanos.add(nanos);
+        pool.statements.increment();
+        pool.statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResize(WorkloadType type, int from, int to) {
+        PoolStats pool = stats.get(type);
+        (to > from ? pool.grown : pool.shrunk).increment();
+    }
+
+    public long getRoutedCount(WorkloadType type) {
+        return stats.get(type).routed.get();
+    }
+
+    public int getInUse(WorkloadType type) {
+        return stats.get(type).inUse.get();
+    }
+
+    /**
+     * 마지막 drain() 이후의 값 (호출하면 초기화)
+     */
+    public Window drain(WorkloadType type) {
+        PoolStats pool = stats.get(type);
+        long acquisitions = pool.acquisitions.sumThenReset();
+        long waitNanos = pool.waitNanos.sumThenReset();
+        long statements = pool.statements.sumThenReset();
+        long statementNanos = pool.statementNanos.sumThenReset();
+        int peakInUse = pool.peakInUse.getAndSet(pool.inUse.get());
+        return new Window(acquisitions,
+                acquisitions == 0 ? 0 : waitNanos / acquisitions / 1_000_000.0,
+                statements,
+                statements == 0 ? 0 : statementNanos / statements / 1_000_000.0,
+                peakInUse);
+    }
+
+    /**
+     * 한 주기 동안의 pool 사용 통계
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Window {
+        private final long acquisitions;
+        private final double avgWaitMillis;
+        private final long statements;
+        private final double avgStatementMillis;
+        private final int peakInUse;
+    }
+
+    private static class PoolStats {
+        private final AtomicLong routed = new AtomicLong();
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger peakInUse = new AtomicInteger();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder statementNanos = new LongAdder();
+        private final Timer acquireTimer;
+        private final Timer statementTimer;
+        private final Counter grown;
+        private final Counter shrunk;
+
+        PoolStats(WorkloadType type, MeterRegistry meterRegistry) {
+            String pool = type.key();
+            acquireTimer = Timer.builder("jpashop.datasource.pool.acquire")
+                    .description("connection 획득 대기 시간")
+                    .tag("pool", pool)
+                    .register(meterRegistry);
+            statementTimer = Timer.builder("jpashop.datasource.pool.statement")
+                    .description("쿼리 실행 시간")
+                    .tag("pool", pool)
+                    .register(meterRegistry);
+            Gauge.builder("jpashop.datasource.pool.in-use", inUse, AtomicInteger::get)
+                    .description("사용 중 connection 수")
+                    .tag("pool", pool)
+                    .register(meterRegistry);
+            grown = Counter.builder("jpashop.datasource.pool.resize")
+                    .tag("pool", pool)
+                    .tag("direction", "grow")
+                    .register(meterRegistry);
+            shrunk = Counter.builder("jpashop.datasource.pool.resize")
+                    .tag("pool", pool)
+                    .tag("direction", "shrink")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.datasource.workload-pools.* 설정
+ * 워크로드(checkout, listing, reporting) 별 connection pool 크기/timeout 과 pool 크기 자동 조정
+ *
+ * 접속 정보는 spring.datasource.* 를, 나머지 Hikari 설정은 spring.datasource.hikari.* 를 공통으로 사용한다.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.datasource.workload-pools")
+public class WorkloadPoolProperties {
+
+    private boolean enabled = false;
+
+    private Pool checkout = new Pool(10, 4, 30, 1000, 5, 10);
+    private Pool listing = new Pool(10, 2, 20, 3000, 10, 30);
+    private Pool reporting = new Pool(2, 1, 4, 30000, 60, 300);
+
+    private Adaptive adaptive = new Adaptive();
+
+    public Pool get(WorkloadType type) {
+        switch (type) {
+            case LISTING:
+                return listing;
+            case REPORTING:
+                return reporting;
+            default:
+                return checkout;
+        }
+    }
+
+    @Getter @Setter
+    public static class Pool {
+
+        // 기동 시 maximumPoolSize (adaptive 가 min-size ~ max-size 사이에서 조정)
+        private int maximumPoolSize;
+        private int minSize;
+        private int maxSize;
+
+        // connection 을 기다리는 최대 시간. 넘으면 SQLTransientConnectionException
+        private long connectionTimeoutMillis;
+
+        // 쿼리 하나의 최대 실행 시간 (Statement.setQueryTimeout, 0 이면 제한 없음)
+        private int statementTimeoutSeconds;
+
+        // @Transactional(timeout) 을 지정하지 않은 트랜잭션의 timeout (0 이면 spring.transaction.default-timeout)
+        private int transactionTimeoutSeconds;
+
+        public Pool() {
+        }
+
+        Pool(int maximumPoolSize, int minSize, int maxSize, long connectionTimeoutMillis,
+             int statementTimeoutSeconds, int transactionTimeoutSeconds) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.connectionTimeoutMillis = connectionTimeoutMillis;
+            this.statementTimeoutSeconds = statementTimeoutSeconds;
+            this.transactionTimeoutSeconds = transactionTimeoutSeconds;
+        }
+    }
+
+    @Getter @Setter
+    public static class Adaptive {
+
+        // false 이면 pool 크기는 maximum-pool-size 로 고정
+        private boolean enabled = true;
+
+        private long intervalMillis = 5000;
+
+        // 주기 동안 connection 획득 평균 대기가 이 값 이상이거나 대기 중인 스레드가 있으면 pool 을 늘린다.
+        private long targetWaitMillis = 5;
+
+        // 쿼리 평균 실행 시간이 이 값을 넘으면 DB 가 포화된 것으로 보고 pool 을 늘리지 않고 하나씩 줄인다.
+        private long maxDbLatencyMillis = 50;
+
+        // 한 번에 늘리는 connection 수
+        private int growStep = 2;
+
+        // 사용 중 connection 최대값이 pool 크기보다 grow-step 이상 작은 상태가 이 횟수만큼 이어지면 하나 줄인다.
+        private int shrinkAfterIntervals = 6;
+    }
+}
@@ -0,0 +1,27 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 워크로드별 connection pool 보관 (close 도 여기서 한다. ReplicationDataSources 참고)
+ */
+public class WorkloadPools implements AutoCloseable {
+
+    private final Map<WorkloadType, HikariDataSource> pools;
+
+    public WorkloadPools(Map<WorkloadType, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+    }
+
+    public HikariDataSource get(WorkloadType type) {
+        return pools.get(type);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 현재 스레드의 워크로드(WorkloadContext) pool 에서 connection 을 가져온다.
+ *
+ * ** ReplicationRoutingDataSource 와 마찬가지로 LazyConnectionDataSourceProxy 로 감싸서 사용할 것.
+ * (connection 획득을 첫 쿼리 실행 시점까지 미뤄야 트랜잭션 시작 전에 정해진 워크로드로 라우팅 된다.)
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<WorkloadType, DataSource> pools;
+    private final WorkloadPoolProperties properties;
+    private final WorkloadPoolMetrics metrics;
+
+    public WorkloadRoutingDataSource(Map<WorkloadType, DataSource> pools, WorkloadPoolProperties properties,
+                                     WorkloadPoolMetrics metrics) {
+        this.pools = new EnumMap<>(pools);
+        this.properties = properties;
+        this.metrics = metrics;
+
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadType.DEFAULT));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        WorkloadType type = WorkloadContext.current();
+        long start = System.nanoTime();
+        Connection connection = pools.get(type).getConnection();
+        metrics.recordAcquire(type, System.nanoTime() - start);
+        return WorkloadConnections.wrap(connection, type,
+                properties.get(type).getStatementTimeoutSeconds(), metrics);
+    }
+}
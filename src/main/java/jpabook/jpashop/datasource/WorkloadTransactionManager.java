@@ -0,0 +1,29 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * timeout 을 지정하지 않은 트랜잭션에 현재 워크로드 pool 의 transaction-timeout-seconds 를 적용한다.
+ *
+ * 트랜잭션 시작 시점의 WorkloadContext 기준이므로 WorkloadPoolAspect 는 @Transactional 보다 바깥에서 실행된다.
+ * 쿼리는 남은 시간으로 setQueryTimeout 되고, 시간이 지난 뒤의 쿼리는 TransactionTimedOutException (Spring)
+ * 또는 TransactionException(transaction timeout expired, Hibernate) 으로 실패한다.
+ */
+public class WorkloadTransactionManager extends JpaTransactionManager {
+
+    private final WorkloadPoolProperties properties;
+
+    public WorkloadTransactionManager(WorkloadPoolProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+            return definition.getTimeout();
+        }
+        int timeout = properties.get(WorkloadContext.current()).getTransactionTimeoutSeconds();
+        return timeout > 0 ? timeout : super.determineTimeout(definition);
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.datasource;
+
+/**
+ * connection pool 을 나누는 워크로드 종류 (jpashop.datasource.workload-pools.*)
+ *
+ * CHECKOUT: 주문/취소 같은 짧은 쓰기 트랜잭션. @WorkloadPool 이 없는 작업도 이 pool 을 사용한다.
+ * LISTING: 목록/검색 조회
+ * REPORTING: 통계, 아카이브 같은 오래 걸리는 조회/배치
+ */
+public enum WorkloadType {
+    CHECKOUT, LISTING, REPORTING;
+
+    public static final WorkloadType DEFAULT = CHECKOUT;
+
+    // pool 이름, metrics tag
+    public String key() {
+        return name().toLowerCase();
+    }
+}
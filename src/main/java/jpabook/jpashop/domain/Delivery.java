@@ -3,6 +3,8 @@ package jpabook.jpashop.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
 
 import javax.persistence.*;
 
@@ -14,8 +16,10 @@ public class Delivery {
     @Column(name = "delivery_id")
     private Long id;
 
+    // mappedBy 쪽은 FK 가 없어서 프록시를 만들 수 없다. -> bytecode enhancement + NO_PROXY 로 실제 지연 로딩
     @JsonIgnore
     @OneToOne(mappedBy = "delivery", fetch = FetchType.LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
     private Order order;
 
     @Embedded
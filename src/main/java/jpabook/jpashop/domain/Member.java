@@ -9,10 +9,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Member.UK_NAME, columnNames = "name"))
 @Getter @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    // 회원 이름 중복은 unique 제약조건으로 보장한다. (동시 가입 race condition 방지)
+    public static final String UK_NAME = "uk_member_name";
+
+    /**
+     * 회원 전용 sequence (pooled, allocationSize 만큼 메모리에서 id 할당)
+     * -> 대량 가입 시 회원마다 sequence 를 조회하지 않는다.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name="member_id")
     private Long id;
 
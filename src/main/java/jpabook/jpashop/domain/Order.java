@@ -12,7 +12,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name="orders")
+@Table(name="orders", indexes = @Index(name = "idx_orders_cancel_date", columnList = "cancelDate"))
+// fetch profile 정의 (OrderFetchProfile)
+@NamedEntityGraph(name = "Order.summary", attributeNodes = {
+        @NamedAttributeNode("member"),
+        @NamedAttributeNode("delivery")
+})
+@NamedEntityGraph(name = "Order.withLines", attributeNodes = {
+        @NamedAttributeNode("member"),
+        @NamedAttributeNode("delivery"),
+        @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")
+}, subgraphs = @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode("item")))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
@@ -57,6 +67,8 @@ public class Order {
 
     private LocalDateTime orderDate; // 주문 시간
 
+    private LocalDateTime cancelDate; // 취소 시간 (주문 통계가 새로 취소된 주문만 읽는 데 사용)
+
     @Enumerated(EnumType.STRING)
     private OrderStatus status; // 주문 상태 [ORDER, CANCEL]
 
@@ -112,6 +124,7 @@ public class Order {
         }
 
         this.setStatus(OrderStatus.CANCEL);
+        this.setCancelDate(LocalDateTime.now());
         for(OrderItem orderItem : orderItems) {
             orderItem.cancel();
         }
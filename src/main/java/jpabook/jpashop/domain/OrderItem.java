@@ -42,6 +42,17 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고를 이미 차감한 경우 (재고 bucket 분할 상품 - StockBucketService.decrease)
+     */
+    public static OrderItem createOrderItemWithoutStock(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //== 비즈니스 로직 ==//
     public void cancel() {
         // 재고수량 원복
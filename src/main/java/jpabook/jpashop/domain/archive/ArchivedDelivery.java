@@ -0,0 +1,26 @@
+package jpabook.jpashop.domain.archive;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "delivery_archive")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedDelivery {
+
+    @Id
+    @Column(name = "delivery_id")
+    private Long id;
+
+    @Embedded
+    private Address address;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus status;
+}
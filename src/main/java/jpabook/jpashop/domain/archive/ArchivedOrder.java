@@ -0,0 +1,42 @@
+package jpabook.jpashop.domain.archive;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보관(archive)된 주문
+ * 완료/취소 후 일정 기간이 지난 주문은 orders 테이블에서 이 테이블로 옮긴다.
+ * 연관관계 없이 id 만 보관한다. (읽기 전용, insert-select 로만 채워짐)
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_date_id", columnList = "order_date, order_id"),
+        @Index(name = "idx_orders_archive_member", columnList = "member_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "delivery_id")
+    private Long deliveryId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime archivedAt; // 보관 시점
+}
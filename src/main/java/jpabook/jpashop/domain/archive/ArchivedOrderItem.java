@@ -0,0 +1,28 @@
+package jpabook.jpashop.domain.archive;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "order_item_archive", indexes = @Index(name = "idx_order_item_archive_order", columnList = "order_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedOrderItem {
+
+    @Id
+    @Column(name = "order_item_id")
+    private Long id;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int orderPrice;
+
+    private int count;
+}
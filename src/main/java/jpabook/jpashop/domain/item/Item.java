@@ -14,6 +14,8 @@ import java.util.List;
  */
 @BatchSize(size = 100)
 @Entity
+// 상품 목록(ItemRepository.findCatalog): dtype 조건 + item_id keyset 순서 그대로 읽고, 목록 컬럼을 모두 포함해서 테이블을 읽지 않는다. (covering index)
+@Table(indexes = @Index(name = "idx_item_catalog", columnList = "dtype, item_id, price, stockQuantity, stockBucketCount, name"))
 @Getter @Setter
 public abstract class Item {
 
@@ -25,12 +27,48 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    /**
+     * 재고 bucket 수 (0 이면 stockQuantity 하나로 관리)
+     * K > 0 이면 재고는 item_stock_bucket K 개에 나뉘어 있고, stockQuantity 는 아직 bucket 에 나누지 않은 재고(취소 반환분 등)다.
+     */
+    private int stockBucketCount;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
+    @BatchSize(size = 100)
+    @OrderBy("bucketNo")
+    @OneToMany(mappedBy = "item")
+    private List<StockBucket> stockBuckets = new ArrayList<>();
+
+    /**
+     * 전체 재고 (bucket 분할 상품은 bucket 합계 + 미분배 재고)
+     */
+    public int getStockQuantity() {
+        if (!isStockBucketed()) {
+            return stockQuantity;
+        }
+        int total = stockQuantity;
+        for (StockBucket bucket : stockBuckets) {
+            total += bucket.getQuantity();
+        }
+        return total;
+    }
+
+    public boolean isStockBucketed() {
+        return stockBucketCount > 0;
+    }
+
+    /**
+     * bucket 분할 상품의 미분배 재고 (분할하지 않은 상품은 0)
+     */
+    public int getUnallocatedStock() {
+        return isStockBucketed() ? stockQuantity : 0;
+    }
+
     //== 비즈니스 로직 ==//
     /**
-    * stock 증가
+    * stock 증가 (bucket 분할 상품은 미분배 재고에 더하고, 재분배 때 bucket 으로 옮긴다.)
      */
     public void addStock(int quantity) {
         this.stockQuantity += quantity;
@@ -40,6 +78,9 @@ public abstract class Item {
      * stock 감소
      */
     public void removeStock(int quantity) {
+        if (isStockBucketed()) {
+            throw new IllegalStateException("재고 bucket 으로 분할된 상품은 StockBucketService 로 차감해야 합니다. itemId = " + id);
+        }
         int restStock = this.stockQuantity - quantity;
         if(restStock < 0) {
             throw new NotEnoughStockException("need more stock");
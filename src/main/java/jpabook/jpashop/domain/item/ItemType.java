@@ -0,0 +1,28 @@
+package jpabook.jpashop.domain.item;
+
+/**
+ * 상품 종류 (SINGLE_TABLE dtype 과 매핑되는 하위 클래스)
+ */
+public enum ItemType {
+
+    BOOK(Book.class), ALBUM(Album.class), MOVIE(Movie.class);
+
+    private final Class<? extends Item> entityClass;
+
+    ItemType(Class<? extends Item> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public Class<? extends Item> getEntityClass() {
+        return entityClass;
+    }
+
+    public static ItemType of(Class<?> entityClass) {
+        for (ItemType type : values()) {
+            if (type.entityClass == entityClass) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("unknown item type: " + entityClass);
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.domain.item;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 상품 재고 분할 행 (item_stock_bucket)
+ * 주문이 몰리는 상품의 재고를 bucket K 개로 나눠서 주문마다 bucket 하나만 잠그도록 한다. (inventory.StockBucketService)
+ * 주문 차감은 엔티티 변경 감지가 아니라 StockBucketRepository 의 조건부 update 로 한다.
+ */
+@Entity
+@Table(name = "item_stock_bucket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_item_stock_bucket", columnNames = {"item_id", "bucketNo"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockBucket {
+
+    @Id @GeneratedValue
+    @Column(name = "stock_bucket_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    private int bucketNo; // 0 ~ K-1
+
+    private int quantity;
+
+    public static StockBucket create(Item item, int bucketNo, int quantity) {
+        StockBucket bucket = new StockBucket();
+        bucket.item = item;
+        bucket.bucketNo = bucketNo;
+        bucket.quantity = quantity;
+        item.getStockBuckets().add(bucket);
+        return bucket;
+    }
+
+    /**
+     * 재분배 (item 과 bucket 을 모두 잠근 상태에서만 호출)
+     */
+    public void changeQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
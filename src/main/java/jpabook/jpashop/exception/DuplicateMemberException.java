@@ -0,0 +1,16 @@
+package jpabook.jpashop.exception;
+
+/**
+ * 이미 같은 이름의 회원이 존재하는 경우
+ * 기존 코드와 호환되도록 IllegalStateException 을 상속한다.
+ */
+public class DuplicateMemberException extends IllegalStateException {
+
+    public DuplicateMemberException() {
+        super("이미 존재하는 회원입니다.");
+    }
+
+    public DuplicateMemberException(Throwable cause) {
+        super("이미 존재하는 회원입니다.", cause);
+    }
+}
@@ -0,0 +1,241 @@
+package jpabook.jpashop.groupcommit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.sharding.ShardedOrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 주문 group commit (jpashop.group-commit.enabled=true)
+ *
+ * 주문마다 트랜잭션을 커밋하면 주문 수만큼 commit(로그 flush) 왕복이 생긴다.
+ * 동시에 들어온 주문을 window-millis 동안 모아서 트랜잭션 하나로 커밋한다.
+ * committers 개 스레드가 각자 묶음을 만들고, 주문은 상품 id 로 committer 를 정한다.
+ * - 주문마다 savepoint -> 재고 부족 등으로 실패한 주문만 되돌리고 나머지는 커밋 (실패한 주문의 호출자만 예외)
+ * - 커밋 자체가 실패하면 묶인 주문을 하나씩 각자 트랜잭션으로 다시 실행한다.
+ * 대가: 주문 응답시간이 최대 window-millis 만큼 늘어나고, 한 트랜잭션이 여러 상품 행을 커밋까지 잠근다.
+ *
+ * 종료(stop) 후의 주문은 받지 않는다. 주문 요청 스레드는 최대 wait-millis 만 기다린다. (committer 가 멈춰도 요청 스레드가 묶이지 않도록)
+ *
+ * 묶음 크기, 대기 시간은 jpashop.group-commit.size, jpashop.group-commit.wait 로 기록한다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "jpashop.group-commit", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(GroupCommitProperties.class)
+public class GroupCommitOrderService {
+
+    private final OrderService orderService;
+    private final ObjectProvider<ShardedOrderService> shardedOrderService;
+    private final EntityManager em;
+    private final GroupCommitProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final List<BlockingQueue<OrderRequest>> queues = new ArrayList<>();
+    private final DistributionSummary batchSizes;
+    private final Timer waitTimer;
+
+    private static final String STOPPED = "group commit 이 종료되었습니다.";
+
+    private volatile boolean running = true;
+    private final List<Thread> committers = new ArrayList<>();
+
+    public GroupCommitOrderService(OrderService orderService, ObjectProvider<ShardedOrderService> shardedOrderService,
+                                   EntityManager em, GroupCommitProperties properties,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.shardedOrderService = shardedOrderService;
+        this.em = em;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int committers = Math.max(properties.getCommitters(), 1);
+        for (int i = 0; i < committers; i++) {
+            queues.add(new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity() / committers, 1)));
+        }
+        this.batchSizes = DistributionSummary.builder("jpashop.group-commit.size")
+                .description("트랜잭션 하나에 묶인 주문 수")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("jpashop.group-commit.wait")
+                .description("주문 요청부터 group commit 완료까지 시간")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<OrderRequest> queue = queues.get(i);
+            Thread committer = new Thread(() -> run(queue), "order-group-commit-" + i);
+            committer.setDaemon(true);
+            committer.start();
+            committers.add(committer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread committer : committers) {
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        for (BlockingQueue<OrderRequest> queue : queues) {
+            OrderRequest request;
+            while ((request = queue.poll()) != null) {
+                request.result.completeExceptionally(new IllegalStateException(STOPPED));
+            }
+        }
+    }
+
+    /**
+     * 주문 (group commit 트랜잭션이 커밋된 뒤 반환)
+     * @throws IllegalStateException 종료된 뒤의 요청이거나 wait-millis 안에 결과를 받지 못한 경우
+     */
+    public Long order(Long memberId, Long itemId, int count) {
+        if (shardedOrderService.getIfAvailable() != null) {
+            // sharding 모드는 주문이 shard 트랜잭션에 저장되므로 묶지 않는다.
+            return orderService.order(memberId, itemId, count);
+        }
+        if (!running) {
+            throw new IllegalStateException(STOPPED);
+        }
+        OrderRequest request = new OrderRequest(memberId, itemId, count);
+        // 같은 상품 주문은 항상 같은 committer 로 -> 서로 다른 group commit 트랜잭션이 같은 상품 재고를 동시에 변경하지 않는다.
+        BlockingQueue<OrderRequest> queue = queues.get(Math.floorMod(itemId.hashCode(), queues.size()));
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getWaitMillis());
+        try {
+            if (!queue.offer(request, waitNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("group commit 대기열이 가득 차서 주문하지 않았습니다.");
+            }
+            if (!running && queue.remove(request)) {
+                // stop() 이 대기열을 비운 뒤에 들어간 주문
+                throw new IllegalStateException(STOPPED);
+            }
+            return request.result.get(waitNanos - (System.nanoTime() - request.enqueuedNanos), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (queue.remove(request)) {
+                throw new IllegalStateException("group commit 이 " + properties.getWaitMillis() + "ms 안에 처리하지 않아 주문하지 않았습니다.");
+            }
+            // committer 가 이미 가져간 주문 -> 나중에 커밋될 수도 있다.
+            throw new IllegalStateException("group commit 결과를 " + properties.getWaitMillis() + "ms 안에 받지 못했습니다. 주문이 커밋되었을 수 있습니다.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void run(BlockingQueue<OrderRequest> queue) {
+        List<OrderRequest> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getWindowMillis());
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    OrderRequest next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(request -> request.result.completeExceptionally(new IllegalStateException(STOPPED)));
+                return;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<OrderRequest> batch) {
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Session session = em.unwrap(Session.class);
+                for (OrderRequest request : batch) {
+                    Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+                    try {
+                        request.orderId = orderService.placeOrder(request.memberId, request.itemId, request.count);
+                        em.flush();
+                        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+                        // flush 한 엔티티를 계속 들고 있으면 다음 주문의 flush 마다 dirty checking 대상이 늘어난다.
+                        em.clear();
+                    } catch (RuntimeException e) {
+                        session.doWork(connection -> connection.rollback(savepoint));
+                        // 되돌린 주문의 엔티티/재고 변경이 영속성 컨텍스트에 남지 않도록
+                        em.clear();
+                        request.orderId = null;
+                        request.failure = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("group commit failed, retrying {} orders one by one", batch.size(), e);
+            for (OrderRequest request : batch) {
+                if (request.failure == null) {
+                    retryAlone(request);
+                }
+            }
+        }
+        for (OrderRequest request : batch) {
+            waitTimer.record(System.nanoTime() - request.enqueuedNanos, TimeUnit.NANOSECONDS);
+            if (request.failure != null) {
+                request.result.completeExceptionally(request.failure);
+            } else {
+                request.result.complete(request.orderId);
+            }
+        }
+    }
+
+    private void retryAlone(OrderRequest request) {
+        try {
+            request.orderId = orderService.order(request.memberId, request.itemId, request.count);
+        } catch (RuntimeException e) {
+            request.failure = e;
+        }
+    }
+
+    private static final class OrderRequest {
+
+        private final Long memberId;
+        private final Long itemId;
+        private final int count;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private Long orderId;
+        private RuntimeException failure;
+
+        private OrderRequest(Long memberId, Long itemId, int count) {
+            this.memberId = memberId;
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.groupcommit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.group-commit.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.group-commit")
+public class GroupCommitProperties {
+
+    private boolean enabled = false;
+
+    // 첫 주문이 들어온 뒤 같은 트랜잭션에 묶을 주문을 기다리는 시간 (주문 응답시간이 최대 이만큼 늘어난다.)
+    private long windowMillis = 2;
+
+    // 트랜잭션 하나에 묶는 최대 주문 수 (차면 window 가 끝나기 전에 커밋)
+    private int maxBatchSize = 100;
+
+    // 동시에 group commit 하는 트랜잭션(스레드) 수 - 한 트랜잭션 안의 주문은 순서대로 실행되므로 1 이면 주문 처리가 직렬화된다.
+    // 같은 상품의 주문은 항상 같은 committer 가 처리한다.
+    private int committers = 2;
+
+    // 대기 중인 주문 최대 개수, committer 마다 나눠 가진다. (차면 주문 요청 스레드가 기다린다.)
+    private int queueCapacity = 10_000;
+
+    // 주문 요청 스레드가 대기열에 넣고 커밋 결과를 받기까지 기다리는 최대 시간 (넘으면 예외)
+    private long waitMillis = 10_000;
+}
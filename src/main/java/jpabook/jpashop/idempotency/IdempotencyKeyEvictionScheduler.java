@@ -0,0 +1,24 @@
+package jpabook.jpashop.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * jpashop.idempotency.eviction-interval-millis 주기로 만료된 idempotency key 정리
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyKeyEvictionScheduler {
+
+    private final IdempotentOrderService idempotentOrderService;
+
+    @Scheduled(fixedDelayString = "${jpashop.idempotency.eviction-interval-millis:60000}")
+    public void evict() {
+        idempotentOrderService.evictExpired();
+    }
+}
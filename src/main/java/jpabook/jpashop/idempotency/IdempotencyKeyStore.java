@@ -0,0 +1,125 @@
+package jpabook.jpashop.idempotency;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 메모리 idempotency key 저장소
+ *
+ * key 문자열 대신 128bit 해시(UUID, long 2 개)를 보관해서 key 길이와 상관없이 항목 크기가 일정하다.
+ * TTL 이 모두 같으므로 등록 순서 = 만료 순서 -> 등록 순서 큐의 앞에서부터 만료/초과분을 제거한다.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private final IdempotencyProperties properties;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<UUID> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyKeyStore(IdempotencyProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * key 를 처리 중으로 등록
+     * @return null 이면 호출한 쪽이 처리하고 complete/fail 을 호출해야 한다. 아니면 먼저 등록된 요청
+     */
+    public Entry putIfAbsent(String key, int requestHash) {
+        UUID id = hash(key);
+        Entry entry = new Entry(requestHash, System.currentTimeMillis() + properties.getTtlSeconds() * 1000);
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, entry);
+            if (existing == null) {
+                insertionOrder.add(id);
+                if (entries.size() > properties.getMaxKeys()) {
+                    evictExpired();
+                }
+                return null;
+            }
+            if (!existing.isExpired()) {
+                return existing;
+            }
+            entries.remove(id, existing); // 만료됐지만 아직 정리되지 않은 key
+        }
+    }
+
+    public void complete(String key, Long orderId) {
+        Entry entry = entries.get(hash(key));
+        if (entry != null) {
+            entry.orderId.complete(orderId);
+        }
+    }
+
+    /**
+     * 주문이 실패한 경우 -> key 를 지워서 재요청이 다시 주문할 수 있게 한다. (기다리던 요청은 같은 예외)
+     */
+    public void fail(String key, RuntimeException cause) {
+        Entry entry = entries.remove(hash(key));
+        if (entry != null) {
+            entry.orderId.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 만료된 key 와 maxKeys 초과분 제거 (처리 중인 key 는 남긴다.)
+     * @return 제거한 key 수
+     */
+    public int evictExpired() {
+        int evicted = 0;
+        UUID id;
+        while ((id = insertionOrder.peek()) != null) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                insertionOrder.poll(); // 실패로 이미 지워진 key
+                continue;
+            }
+            if (!entry.orderId.isDone() || (!entry.isExpired() && entries.size() <= properties.getMaxKeys())) {
+                break;
+            }
+            insertionOrder.poll();
+            if (entries.remove(id, entry)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static UUID hash(String key) {
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static final class Entry {
+
+        private final int requestHash;
+        private final long expiresAtMillis;
+        private final CompletableFuture<Long> orderId = new CompletableFuture<>();
+
+        private Entry(int requestHash, long expiresAtMillis) {
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public int getRequestHash() {
+            return requestHash;
+        }
+
+        public CompletableFuture<Long> getOrderId() {
+            return orderId;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMillis;
+        }
+    }
+}
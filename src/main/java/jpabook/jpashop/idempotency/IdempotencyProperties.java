@@ -0,0 +1,30 @@
+package jpabook.jpashop.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.idempotency.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    // 같은 key 의 재요청에 처음 주문 id 를 돌려주는 기간
+    private long ttlSeconds = 24 * 60 * 60;
+
+    // 메모리에 보관하는 key 최대 개수 (넘으면 오래된 key 부터 제거)
+    private int maxKeys = 100_000;
+
+    // true 이면 key 를 주문과 같은 트랜잭션에서 order_request_key 테이블에도 저장한다. (재기동/다른 서버의 재요청)
+    private boolean persistent = false;
+
+    // 같은 key 의 주문이 처리 중일 때 결과를 기다리는 시간
+    private long inFlightWaitMillis = 10_000;
+
+    // 만료 key 정리 간격
+    private long evictionIntervalMillis = 60_000;
+}
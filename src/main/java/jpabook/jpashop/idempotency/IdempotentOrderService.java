@@ -0,0 +1,168 @@
+package jpabook.jpashop.idempotency;
+
+import jpabook.jpashop.groupcommit.GroupCommitOrderService;
+import jpabook.jpashop.idempotency.IdempotencyKeyStore.Entry;
+import jpabook.jpashop.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * idempotency key 로 주문 (타임아웃 후 클라이언트 재시도로 같은 주문이 중복 생성되는 것을 막는다.)
+ *
+ * 같은 key 의 재요청은 트랜잭션을 다시 실행하지 않고 처음 주문 id 를 돌려준다.
+ * - 처음 요청이 아직 처리 중이면 그 결과를 기다린다. (jpashop.idempotency.in-flight-wait-millis)
+ * - 처음 요청이 실패했으면 key 가 지워지므로 재요청은 다시 주문한다.
+ * - 같은 key 로 다른 회원/상품/수량을 요청하면 IllegalArgumentException
+ *
+ * persistent=true 이면 key 를 주문과 같은 트랜잭션에서 DB 에도 저장한다. (재기동/다른 서버로 들어온 재요청)
+ * sharding 모드에서는 주문이 shard 트랜잭션에서 먼저 커밋되므로 DB key 저장은 주문과 원자적이지 않다.
+ * jpashop.group-commit.enabled=true 이면 주문은 group commit 으로 한다. (persistent=true 이면 key 와 같은 트랜잭션이어야 하므로 묶지 않는다.)
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotentOrderService {
+
+    static final int MAX_KEY_LENGTH = 64;
+
+    private final OrderService orderService;
+    private final ObjectProvider<GroupCommitOrderService> groupCommitOrderService; // jpashop.group-commit.enabled=true 인 경우에만 존재
+    private final IdempotencyKeyStore keyStore;
+    private final OrderRequestKeyRepository orderRequestKeyRepository;
+    private final IdempotencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransaction;
+
+    public IdempotentOrderService(OrderService orderService, ObjectProvider<GroupCommitOrderService> groupCommitOrderService,
+                                  IdempotencyKeyStore keyStore,
+                                  OrderRequestKeyRepository orderRequestKeyRepository, IdempotencyProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.orderService = orderService;
+        this.groupCommitOrderService = groupCommitOrderService;
+        this.keyStore = keyStore;
+        this.orderRequestKeyRepository = orderRequestKeyRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param key null/빈 문자열이면 key 없이 주문
+     * @return 주문 id (같은 key 의 재요청이면 처음 주문 id)
+     */
+    public Long order(String key, Long memberId, Long itemId, int count) {
+        if (!properties.isEnabled() || key == null || key.isBlank()) {
+            return order(memberId, itemId, count);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("idempotency key 는 " + MAX_KEY_LENGTH + "자 이하여야 합니다.");
+        }
+
+        int requestHash = Objects.hash(memberId, itemId, count);
+        Entry existing = keyStore.putIfAbsent(key, requestHash);
+        if (existing != null) {
+            checkSameRequest(key, existing.getRequestHash(), requestHash);
+            log.debug("idempotent order replayed. key = {}", key);
+            return await(existing);
+        }
+
+        try {
+            Long orderId = properties.isPersistent() ? findPersisted(key, requestHash) : null;
+            if (orderId == null) {
+                orderId = placeOrder(key, requestHash, memberId, itemId, count);
+            }
+            keyStore.complete(key, orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            keyStore.fail(key, e);
+            throw e;
+        }
+    }
+
+    private Long placeOrder(String key, int requestHash, Long memberId, Long itemId, int count) {
+        if (!properties.isPersistent()) {
+            return order(memberId, itemId, count);
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                // 만료됐지만 아직 정리(evictExpired)되지 않은 key 는 같은 트랜잭션에서 지우고 새로 저장한다.
+                orderRequestKeyRepository.deleteIfCreatedBefore(key, expiredBefore());
+                Long orderId = orderService.order(memberId, itemId, count);
+                orderRequestKeyRepository.save(new OrderRequestKey(key, orderId, requestHash, LocalDateTime.now()));
+                return orderId;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 다른 서버가 같은 key 로 먼저 커밋 -> 이 주문은 롤백됐으므로 먼저 커밋된 주문 id
+            Long orderId = findPersisted(key, requestHash);
+            if (orderId == null) {
+                throw e;
+            }
+            return orderId;
+        }
+    }
+
+    private Long order(Long memberId, Long itemId, int count) {
+        GroupCommitOrderService groupCommit = groupCommitOrderService.getIfAvailable();
+        return groupCommit != null ? groupCommit.order(memberId, itemId, count) : orderService.order(memberId, itemId, count);
+    }
+
+    private Long findPersisted(String key, int requestHash) {
+        OrderRequestKey persisted = readTransaction.execute(status -> orderRequestKeyRepository.findOne(key));
+        if (persisted == null || persisted.getCreatedAt().isBefore(expiredBefore())) {
+            return null;
+        }
+        checkSameRequest(key, persisted.getRequestHash(), requestHash);
+        return persisted.getOrderId();
+    }
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minusSeconds(properties.getTtlSeconds());
+    }
+
+    private Long await(Entry existing) {
+        try {
+            return existing.getOrderId().get(properties.getInFlightWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("같은 idempotency key 의 주문을 처리 중입니다.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void checkSameRequest(String key, int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalArgumentException("다른 주문 요청에 사용된 idempotency key 입니다. key = " + key);
+        }
+    }
+
+    /**
+     * 만료된 key 정리 (메모리, persistent 이면 DB)
+     * @return 정리한 key 수
+     */
+    public int evictExpired() {
+        int evicted = keyStore.evictExpired();
+        if (properties.isPersistent()) {
+            LocalDateTime before = expiredBefore();
+            evicted += transactionTemplate.execute(status -> orderRequestKeyRepository.deleteCreatedBefore(before));
+        }
+        return evicted;
+    }
+}
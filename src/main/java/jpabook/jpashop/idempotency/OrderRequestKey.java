@@ -0,0 +1,42 @@
+package jpabook.jpashop.idempotency;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 요청 idempotency key (jpashop.idempotency.persistent=true)
+ * 주문과 같은 트랜잭션에서 insert 되므로 커밋된 주문에는 항상 key 가 남는다.
+ * 여러 서버가 같은 key 를 동시에 처리하면 primary key 제약조건으로 한 쪽만 커밋된다.
+ */
+@Entity
+@Table(name = "order_request_key", indexes = {
+        @Index(name = "idx_order_request_key_created_at", columnList = "created_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderRequestKey {
+
+    @Id
+    @Column(name = "request_key", length = IdempotentOrderService.MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "request_hash", nullable = false)
+    private int requestHash; // 같은 key 로 다른 주문을 요청했는지 확인
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public OrderRequestKey(String key, Long orderId, int requestHash, LocalDateTime createdAt) {
+        this.key = key;
+        this.orderId = orderId;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+    }
+}
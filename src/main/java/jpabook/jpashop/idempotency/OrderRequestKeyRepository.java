@@ -0,0 +1,43 @@
+package jpabook.jpashop.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderRequestKeyRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderRequestKey requestKey) {
+        em.persist(requestKey);
+    }
+
+    public OrderRequestKey findOne(String key) {
+        return em.find(OrderRequestKey.class, key);
+    }
+
+    /**
+     * key 가 만료됐으면 삭제 (벌크 연산) - 주기적인 정리 전에 같은 key 로 다시 들어온 요청이 insert 할 수 있도록
+     * @return 삭제된 row 수 (0 또는 1)
+     */
+    public int deleteIfCreatedBefore(String key, LocalDateTime before) {
+        return em.createQuery("delete from OrderRequestKey k where k.key = :key and k.createdAt < :before")
+                .setParameter("key", key)
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+    /**
+     * 만료된 key 삭제 (벌크 연산)
+     * @return 삭제된 row 수
+     */
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return em.createQuery("delete from OrderRequestKey k where k.createdAt < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.inventory;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.stock-buckets.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.stock-buckets")
+public class StockBucketProperties {
+
+    // 분할 시 bucket 수를 지정하지 않은 경우
+    private int defaultBuckets = 8;
+
+    private int maxBuckets = 64;
+
+    // 재분배 대상 확인 간격 (fallback 발생, 미분배 재고, 가장 적은 bucket < 가장 많은 bucket / 2)
+    private boolean autoRebalance = true;
+    private long rebalanceIntervalMillis = 1000;
+}
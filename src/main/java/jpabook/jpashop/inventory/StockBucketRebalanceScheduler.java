@@ -0,0 +1,24 @@
+package jpabook.jpashop.inventory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * jpashop.stock-buckets.rebalance-interval-millis 주기로 재고 bucket 재분배
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.stock-buckets", name = "auto-rebalance", havingValue = "true", matchIfMissing = true)
+public class StockBucketRebalanceScheduler {
+
+    private final StockBucketService stockBucketService;
+
+    @Scheduled(fixedDelayString = "${jpashop.stock-buckets.rebalance-interval-millis:1000}")
+    public void rebalance() {
+        stockBucketService.rebalancePending();
+    }
+}
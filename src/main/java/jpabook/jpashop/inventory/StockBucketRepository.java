@@ -0,0 +1,74 @@
+package jpabook.jpashop.inventory;
+
+import jpabook.jpashop.domain.item.StockBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StockBucketRepository {
+
+    private final EntityManager em;
+
+    public void save(StockBucket bucket) {
+        em.persist(bucket);
+    }
+
+    public void delete(StockBucket bucket) {
+        em.remove(bucket);
+    }
+
+    /**
+     * bucket 하나에서 count 만큼 차감 (재고가 부족하면 변경하지 않는다.)
+     * 해당 bucket 행만 잠근다. -> 같은 상품의 다른 bucket 주문과 경합하지 않는다.
+     * @return 1: 차감, 0: 재고 부족
+     */
+    public int decrease(Long itemId, int bucketNo, int count) {
+        return em.createQuery(
+                        "update StockBucket b set b.quantity = b.quantity - :count" +
+                                " where b.item.id = :itemId and b.bucketNo = :bucketNo and b.quantity >= :count")
+                .setParameter("count", count)
+                .setParameter("itemId", itemId)
+                .setParameter("bucketNo", bucketNo)
+                .executeUpdate();
+    }
+
+    /**
+     * 상품의 bucket 전체를 bucketNo 순서로 잠그고 최신 값으로 조회 (재분배용)
+     * 이미 영속성 컨텍스트에 있는 bucket 은 조건부 update 이전 값일 수 있으므로 refresh 한다.
+     */
+    public List<StockBucket> findAllForUpdate(Long itemId) {
+        List<StockBucket> buckets = em.createQuery(
+                        "select b from StockBucket b where b.item.id = :itemId order by b.bucketNo", StockBucket.class)
+                .setParameter("itemId", itemId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        for (StockBucket bucket : buckets) {
+            em.refresh(bucket);
+        }
+        return buckets;
+    }
+
+    /**
+     * 재분배가 필요한 bucket 분할 상품 id
+     * - 미분배 재고(item.stockQuantity) 가 있거나
+     * - 가장 적은 bucket 이 가장 많은 bucket 의 절반 미만
+     */
+    public List<Long> findUnbalancedItemIds(int limit) {
+        List<Long> ids = em.createQuery(
+                        "select i.id from Item i where i.stockBucketCount > 0 and i.stockQuantity > 0", Long.class)
+                .setMaxResults(limit)
+                .getResultList();
+        ids.addAll(em.createQuery(
+                        "select b.item.id from StockBucket b" +
+                                " group by b.item.id" +
+                                " having min(b.quantity) * 2 < max(b.quantity)", Long.class)
+                .setMaxResults(limit)
+                .getResultList());
+        return ids;
+    }
+}
@@ -0,0 +1,235 @@
+package jpabook.jpashop.inventory;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.StockBucket;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 상품 재고 bucket 분할 (flash sale 처럼 한 상품에 주문이 몰리는 경우)
+ *
+ * 주문: 임의의 bucket 하나를 조건부 update 로 차감 -> 실패하면 다음 bucket 순서로 시도
+ *       -> 주문 트랜잭션은 item 행이 아니라 bucket 행 하나만 잠근다. (bucket K 개 = 동시에 K 개 주문)
+ * 모든 bucket 이 부족하면 item, bucket 을 모두 잠그고 남은 재고 전체에서 차감한 뒤 재분배한다.
+ * 취소로 돌아온 재고는 item.stockQuantity(미분배 재고) 에 쌓이고 재분배 때 bucket 으로 옮겨진다.
+ *
+ * 잠금 순서는 항상 item -> bucket (bucketNo 순서) 이다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@EnableConfigurationProperties(StockBucketProperties.class)
+public class StockBucketService {
+
+    private final ItemRepository itemRepository;
+    private final StockBucketRepository stockBucketRepository;
+    private final EntityManager em;
+    private final StockBucketProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    // fallback 이 발생한 상품 -> 다음 재분배 대상
+    private final Set<Long> pendingRebalance = ConcurrentHashMap.newKeySet();
+
+    public StockBucketService(ItemRepository itemRepository, StockBucketRepository stockBucketRepository, EntityManager em,
+                              StockBucketProperties properties, PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.stockBucketRepository = stockBucketRepository;
+        this.em = em;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 재고를 bucket 수 만큼 나눈다. (이미 분할된 상품은 bucket 수 변경, 0 이면 merge)
+     */
+    @Transactional
+    public StockBucketStatus split(Long itemId, int buckets) {
+        if (buckets < 0 || buckets > properties.getMaxBuckets()) {
+            throw new IllegalArgumentException("bucket 수는 0 ~ " + properties.getMaxBuckets() + " 이어야 합니다. buckets = " + buckets);
+        }
+        Item item = lockItem(itemId);
+        List<StockBucket> current = stockBucketRepository.findAllForUpdate(itemId);
+        redistribute(item, current, buckets, total(item, current));
+        return status(item);
+    }
+
+    /**
+     * bucket 을 없애고 재고를 item.stockQuantity 하나로 합친다.
+     */
+    @Transactional
+    public StockBucketStatus merge(Long itemId) {
+        return split(itemId, 0);
+    }
+
+    /**
+     * 주문 재고 차감 (주문 트랜잭션 안에서 호출)
+     * 재고 부족은 변경 없이 끝나므로 바깥 트랜잭션을 rollback-only 로 표시하지 않는다. (group commit 의 다른 주문은 커밋)
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = NotEnoughStockException.class)
+    public void decrease(Item item, int count) {
+        int buckets = item.getStockBucketCount();
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        // 다른 트랜잭션이 잠근 bucket 에 대한 update 는 조건이 맞지 않아도 그 bucket 을 잠근 채로 끝난다. (H2, InnoDB)
+        // -> 실패한 bucket 잠금을 쥔 채로 다음 bucket/item 을 기다리면 교착되므로 시도마다 savepoint 로 되돌린다.
+        // (JpaTransactionManager 는 savepoint 를 지원하지 않으므로 JDBC savepoint 를 직접 사용한다.)
+        Session session = em.unwrap(Session.class);
+        for (int i = 0; i < buckets; i++) {
+            Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+            if (stockBucketRepository.decrease(item.getId(), (start + i) % buckets, count) == 1) {
+                session.doWork(connection -> connection.releaseSavepoint(savepoint));
+                if (i > 0) {
+                    pendingRebalance.add(item.getId());
+                }
+                return;
+            }
+            session.doWork(connection -> connection.rollback(savepoint));
+        }
+
+        // bucket 마다 count 보다 적게 남은 경우 -> 전체를 잠그고 합계에서 차감
+        Item locked = lockItem(item.getId());
+        List<StockBucket> current = stockBucketRepository.findAllForUpdate(item.getId());
+        int total = total(locked, current);
+        if (total < count) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        redistribute(locked, current, locked.getStockBucketCount(), total - count);
+    }
+
+    /**
+     * 미분배 재고를 bucket 으로 옮기고 bucket 재고를 고르게 맞춘다.
+     */
+    @Transactional
+    public StockBucketStatus rebalance(Long itemId) {
+        Item item = lockItem(itemId);
+        List<StockBucket> current = stockBucketRepository.findAllForUpdate(itemId);
+        if (item.isStockBucketed()) {
+            redistribute(item, current, item.getStockBucketCount(), total(item, current));
+        }
+        return status(item);
+    }
+
+    /**
+     * 전체 재고를 quantity 로 변경 (상품 수정 화면)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changeTotal(Item item, int quantity) {
+        Item locked = lockItem(item.getId());
+        List<StockBucket> current = stockBucketRepository.findAllForUpdate(item.getId());
+        redistribute(locked, current, locked.getStockBucketCount(), quantity);
+    }
+
+    /**
+     * 전체 재고를 delta 만큼 변경 (상품 일괄 변경, 0 미만이면 0)
+     * 잠근 뒤의 bucket 합계 + 미분배 재고에서 계산하므로 동시에 들어온 주문 차감분을 덮어쓰지 않는다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changeTotalBy(Long itemId, int delta) {
+        Item locked = lockItem(itemId);
+        List<StockBucket> current = stockBucketRepository.findAllForUpdate(itemId);
+        redistribute(locked, current, locked.getStockBucketCount(), Math.max(total(locked, current) + delta, 0));
+    }
+
+    /**
+     * 주문 취소 전에 호출 (주문 트랜잭션 안에서)
+     * 취소 수량은 미분배 재고(item.stockQuantity) 에 더해지므로, 동시에 재분배가 미분배 재고를 bucket 으로 옮기는 경우
+     * 이전 값에 더해서 덮어쓰지 않도록 item 을 잠그고 최신 값으로 다시 읽는다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForCancel(Item item) {
+        lockItem(item.getId());
+    }
+
+    /**
+     * fallback 이 발생했거나 재고가 한쪽으로 치우친 상품 재분배 (상품마다 별도 트랜잭션)
+     * @return 재분배한 상품 수
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebalancePending() {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (Long itemId : pendingRebalance) {
+            pendingRebalance.remove(itemId);
+            itemIds.add(itemId);
+        }
+        itemIds.addAll(stockBucketRepository.findUnbalancedItemIds(100));
+        for (Long itemId : itemIds) {
+            transactionTemplate.executeWithoutResult(status -> rebalance(itemId));
+        }
+        if (!itemIds.isEmpty()) {
+            log.debug("stock buckets rebalanced. items = {}", itemIds.size());
+        }
+        return itemIds.size();
+    }
+
+    public StockBucketStatus status(Long itemId) {
+        return status(itemRepository.findOne(itemId));
+    }
+
+    private Item lockItem(Long itemId) {
+        Item item = itemRepository.findOne(itemId);
+        if (item == null) {
+            throw new IllegalArgumentException("상품이 존재하지 않습니다. itemId = " + itemId);
+        }
+        // 조건부 update/다른 트랜잭션의 취소 반영분을 읽도록 잠그면서 다시 조회
+        em.refresh(item, LockModeType.PESSIMISTIC_WRITE);
+        return item;
+    }
+
+    private static int total(Item item, List<StockBucket> buckets) {
+        return item.isStockBucketed() ? item.getUnallocatedStock() + sum(buckets) : item.getStockQuantity();
+    }
+
+    private static int sum(List<StockBucket> buckets) {
+        int sum = 0;
+        for (StockBucket bucket : buckets) {
+            sum += bucket.getQuantity();
+        }
+        return sum;
+    }
+
+    /**
+     * total 을 bucket K 개에 고르게 나눈다. (앞 bucket 부터 나머지 1 개씩) K = 0 이면 item.stockQuantity 로
+     */
+    private void redistribute(Item item, List<StockBucket> current, int buckets, int total) {
+        for (int no = 0; no < buckets; no++) {
+            int quantity = total / buckets + (no < total % buckets ? 1 : 0);
+            if (no < current.size()) {
+                current.get(no).changeQuantity(quantity);
+            } else {
+                stockBucketRepository.save(StockBucket.create(item, no, quantity));
+            }
+        }
+        for (StockBucket removed : new ArrayList<>(current.subList(Math.min(buckets, current.size()), current.size()))) {
+            item.getStockBuckets().remove(removed);
+            stockBucketRepository.delete(removed);
+        }
+        item.setStockQuantity(buckets == 0 ? total : 0);
+        item.setStockBucketCount(buckets);
+    }
+
+    private StockBucketStatus status(Item item) {
+        List<Integer> quantities = new ArrayList<>();
+        for (StockBucket bucket : item.getStockBuckets()) {
+            quantities.add(bucket.getQuantity());
+        }
+        return new StockBucketStatus(item.getId(), item.getStockQuantity(), item.getUnallocatedStock(), quantities);
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class StockBucketStatus {
+
+    private Long itemId;
+    private int stockQuantity; // 전체 재고
+    private int unallocated; // bucket 에 나누지 않은 재고
+    private List<Integer> buckets; // bucketNo 순서
+}
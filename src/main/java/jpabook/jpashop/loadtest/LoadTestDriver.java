@@ -0,0 +1,190 @@
+package jpabook.jpashop.loadtest;
+
+import jpabook.jpashop.groupcommit.GroupCommitOrderService;
+import jpabook.jpashop.loadtest.LoadTestReport.OperationReport;
+import jpabook.jpashop.metrics.LatencyHistogram;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderQueryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 내장 부하 테스트 드라이버
+ *
+ * threads 개 스레드가 durationSeconds 동안 주문/취소/목록 조회를 가중치 비율로 섞어서 서비스 계층을 직접 호출한다.
+ * - 주문: 회원은 균등, 상품은 Zipf 분포 (SyntheticDataGenerator 와 같은 인기도)
+ * - 취소: 이번 실행에서 주문한 것 중 하나 (없으면 주문으로 대체)
+ * - 목록: order-summary profile 로 임의 offset 의 한 페이지
+ * HTTP/직렬화 비용은 포함되지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.loadtest", name = "enabled", havingValue = "true")
+public class LoadTestDriver {
+
+    public enum Operation {
+        ORDER, CANCEL, LIST
+    }
+
+    private final OrderService orderService;
+    private final ObjectProvider<GroupCommitOrderService> groupCommitOrderService; // jpashop.group-commit.enabled=true 인 경우에만 존재
+    private final OrderQueryService orderQueryService;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final LoadTestProperties properties;
+    private final TransactionTemplate readTransaction;
+
+    public LoadTestDriver(OrderService orderService, ObjectProvider<GroupCommitOrderService> groupCommitOrderService,
+                          OrderQueryService orderQueryService,
+                          MemberRepository memberRepository, ItemRepository itemRepository,
+                          LoadTestProperties properties, PlatformTransactionManager transactionManager) {
+        this.orderService = orderService;
+        this.groupCommitOrderService = groupCommitOrderService;
+        this.orderQueryService = orderQueryService;
+        this.memberRepository = memberRepository;
+        this.itemRepository = itemRepository;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param threads null 이면 설정값, 1 ~ maxThreads
+     * @param durationSeconds null 이면 설정값, 1 ~ maxDurationSeconds
+     * @throws IllegalArgumentException threads / durationSeconds 가 범위를 벗어난 경우
+     */
+    public synchronized LoadTestReport run(Integer threads, Integer durationSeconds) throws InterruptedException {
+        int threadCount = threads != null ? threads : properties.getThreads();
+        int seconds = durationSeconds != null ? durationSeconds : properties.getDurationSeconds();
+        checkRange("threads", threadCount, properties.getMaxThreads());
+        checkRange("durationSeconds", seconds, properties.getMaxDurationSeconds());
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Long> memberIds = readTransaction.execute(status ->
+                memberRepository.findIdsAfter(0L, PageRequest.of(0, properties.getMaxTargets())));
+        List<Long> itemIds = readTransaction.execute(status ->
+                itemRepository.findIdsAfter(null, null, 0L, properties.getMaxTargets()));
+        if (memberIds.isEmpty() || itemIds.isEmpty()) {
+            throw new IllegalStateException("주문할 회원/상품이 없습니다. 먼저 데이터를 생성하세요.");
+        }
+        ZipfSampler popularity = new ZipfSampler(itemIds.size(), properties.getPopularitySkew());
+
+        Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+        Queue<Long> placed = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = pick(random);
+                        Long cancelTarget = operation == Operation.CANCEL ? placed.poll() : null;
+                        if (operation == Operation.CANCEL && cancelTarget == null) {
+                            operation = Operation.ORDER;
+                        }
+
+                        long begin = System.nanoTime();
+                        try {
+                            switch (operation) {
+                                case ORDER:
+                                    Long memberId = memberIds.get(random.nextInt(memberIds.size()));
+                                    Long itemId = itemIds.get(popularity.sample(random.nextDouble()));
+                                    placed.add(order(memberId, itemId, 1 + random.nextInt(3)));
+                                    break;
+                                case CANCEL:
+                                    orderService.cancelOrder(cancelTarget);
+                                    break;
+                                default:
+                                    orderQueryService.orderSummaries(new OrderSearch(),
+                                            random.nextInt(properties.getListMaxOffset() + 1), properties.getListPageSize());
+                            }
+                            latencies.get(operation).record(System.nanoTime() - begin);
+                        } catch (RuntimeException e) {
+                            errors.get(operation).increment();
+                            log.debug("load test {} failed", operation, e);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("부하 테스트 실행 중 오류", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+
+        List<OperationReport> results = new ArrayList<>();
+        long operations = 0;
+        long errorCount = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long failed = errors.get(operation).sum();
+            results.add(new OperationReport(operation, histogram.getCount(), failed,
+                    histogram.meanMillis(), histogram.percentileMillis(50), histogram.percentileMillis(90),
+                    histogram.percentileMillis(99), histogram.percentileMillis(99.9), histogram.maxMillis()));
+            operations += histogram.getCount() + failed;
+            errorCount += failed;
+        }
+        LoadTestReport report = new LoadTestReport(threadCount, elapsedMillis, operations, errorCount,
+                operations * 1000 / elapsedMillis, results);
+        log.info("load test: {}", report);
+        return report;
+    }
+
+    private static void checkRange(String name, int value, int max) {
+        if (value < 1 || value > max) {
+            throw new IllegalArgumentException(name + " 는 1 ~ " + max + " 사이여야 합니다. " + name + " = " + value);
+        }
+    }
+
+    private Long order(Long memberId, Long itemId, int count) {
+        GroupCommitOrderService groupCommit = groupCommitOrderService.getIfAvailable();
+        return groupCommit != null ? groupCommit.order(memberId, itemId, count) : orderService.order(memberId, itemId, count);
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int total = properties.getOrderWeight() + properties.getCancelWeight() + properties.getListWeight();
+        int value = random.nextInt(total);
+        if (value < properties.getOrderWeight()) {
+            return Operation.ORDER;
+        }
+        if (value < properties.getOrderWeight() + properties.getCancelWeight()) {
+            return Operation.CANCEL;
+        }
+        return Operation.LIST;
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.loadtest.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.loadtest")
+public class LoadTestProperties {
+
+    private boolean enabled = false;
+
+    // 같은 seed 면 같은 분포의 데이터를 만든다.
+    private long seed = 42;
+
+    //== 데이터 생성 ==//
+    private int members = 10_000;
+    private int itemsPerType = 1_000; // Book, Album, Movie 각각
+    private int categories = 50;
+    private int itemsPerCategory = 20;
+    private int orders = 100_000;
+    private int maxLinesPerOrder = 3;
+    private int orderDays = 365; // 주문일은 최근 orderDays 일 안에서 랜덤
+    private double cancelRatio = 0.1;
+    // 상품 인기도 Zipf 지수 (0 이면 균등, 클수록 소수 상품에 주문이 몰린다.)
+    private double popularitySkew = 1.0;
+    // 트랜잭션 하나에 넣을 row 수 (JDBC batch 크기는 jpashop.batch-writer.batch-size)
+    private int chunkSize = 10_000;
+
+    //== 부하 테스트 ==//
+    private int threads = 8;
+    private int durationSeconds = 30;
+    // 요청으로 받는 threads / durationSeconds 의 상한 (스레드 수만큼 pool 을 만들고 실행 중에는 다른 실행이 대기한다.)
+    private int maxThreads = 256;
+    private int maxDurationSeconds = 600;
+    // 요청 비율 (가중치)
+    private int orderWeight = 60;
+    private int cancelWeight = 10;
+    private int listWeight = 30;
+    private int listPageSize = 50;
+    private int listMaxOffset = 1_000;
+    // 주문 대상으로 불러올 회원/상품 최대 수
+    private int maxTargets = 100_000;
+}
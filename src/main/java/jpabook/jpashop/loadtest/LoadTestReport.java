@@ -0,0 +1,35 @@
+package jpabook.jpashop.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LoadTestReport {
+
+    private int threads;
+    private long elapsedMillis;
+    private long operations;
+    private long errors;
+    private long operationsPerSecond;
+    private List<OperationReport> results;
+
+    /**
+     * 요청 종류별 응답시간 (ms, 성공한 요청만)
+     */
+    @Data
+    @AllArgsConstructor
+    public static class OperationReport {
+        private LoadTestDriver.Operation operation;
+        private long count;
+        private long errors;
+        private double meanMillis;
+        private double p50Millis;
+        private double p90Millis;
+        private double p99Millis;
+        private double p999Millis;
+        private double maxMillis;
+    }
+}
@@ -0,0 +1,294 @@
+package jpabook.jpashop.loadtest;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemType;
+import jpabook.jpashop.domain.item.Movie;
+import jpabook.jpashop.repository.batch.StatelessBatchWriter;
+import jpabook.jpashop.service.MemberNameFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * 성능 측정용 합성 데이터 생성
+ *
+ * 회원, 상품(Book/Album/Movie), 카테고리, 주문을 StatelessBatchWriter 로 chunkSize 건씩 트랜잭션을 나눠 넣는다.
+ * - 주문 상품은 Zipf 분포로 골라서 소수 인기 상품에 주문이 몰린다. (popularitySkew)
+ * - 회원/상품은 id 와 가격만 메모리에 남기고, 주문은 필요할 때 하나씩 만든다. -> 수백만 건도 힙 사용량이 일정하다.
+ * - 생성한 주문은 상품 재고를 차감하지 않는다. (상품 재고를 크게 잡아서 넣는다.)
+ *
+ * 기존 데이터는 지우지 않고 추가한다. 회원 이름은 실행마다 다른 prefix 를 붙여서 중복되지 않는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(LoadTestProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.loadtest", name = "enabled", havingValue = "true")
+public class SyntheticDataGenerator {
+
+    static final int ITEM_STOCK = 1_000_000;
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산"};
+
+    private final StatelessBatchWriter writer;
+    private final MemberNameFilter memberNameFilter;
+    private final LoadTestProperties properties;
+    private final TransactionTemplate chunkTransaction;
+
+    public SyntheticDataGenerator(StatelessBatchWriter writer, MemberNameFilter memberNameFilter,
+                                  LoadTestProperties properties, PlatformTransactionManager transactionManager) {
+        this.writer = writer;
+        this.memberNameFilter = memberNameFilter;
+        this.properties = properties;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized SyntheticDataResult generate() {
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        String runId = Long.toString(start, 36);
+
+        long[] memberIds = insertMembers(runId, random);
+        ItemRefs items = insertItems(runId, random);
+        long categories = insertCategories(runId, items, random);
+        long[] orders = insertOrders(memberIds, items, random);
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        long rows = memberIds.length + items.size() + categories + orders[0] * 2 + orders[1];
+        log.info("synthetic data: members={}, items={}, categories={}, orders={}, orderItems={}, {}ms",
+                memberIds.length, items.size(), categories, orders[0], orders[1], elapsed);
+        return new SyntheticDataResult(memberIds.length, items.size(), categories, orders[0], orders[1],
+                elapsed, rows * 1000 / elapsed);
+    }
+
+    private long[] insertMembers(String runId, SplittableRandom random) {
+        long[] ids = new long[properties.getMembers()];
+        for (int from = 0; from < ids.length; from += properties.getChunkSize()) {
+            List<Member> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + properties.getChunkSize(), ids.length); i++) {
+                Member member = new Member();
+                member.setName("synthetic-" + runId + "-" + i);
+                member.setAddress(address(random));
+                chunk.add(member);
+            }
+            chunkTransaction.executeWithoutResult(status -> writer.insertAll(chunk));
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[from + i] = chunk.get(i).getId();
+                memberNameFilter.put(chunk.get(i).getName());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 종류를 번갈아 만들어서 인기 순위 상위에 세 종류가 섞이게 한다.
+     */
+    private ItemRefs insertItems(String runId, SplittableRandom random) {
+        ItemType[] types = ItemType.values();
+        ItemRefs refs = new ItemRefs(properties.getItemsPerType() * types.length);
+        for (int from = 0; from < refs.size(); from += properties.getChunkSize()) {
+            List<Item> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + properties.getChunkSize(), refs.size()); i++) {
+                Item item = newItem(types[i % types.length], runId, i);
+                item.setPrice(1_000 * (1 + random.nextInt(50)));
+                item.setStockQuantity(ITEM_STOCK);
+                chunk.add(item);
+            }
+            chunkTransaction.executeWithoutResult(status -> writer.insertAll(chunk));
+            for (int i = 0; i < chunk.size(); i++) {
+                refs.set(from + i, types[(from + i) % types.length], chunk.get(i).getId(), chunk.get(i).getPrice());
+            }
+        }
+        return refs;
+    }
+
+    private Item newItem(ItemType type, String runId, int index) {
+        String name = type.name().toLowerCase() + "-" + runId + "-" + index;
+        switch (type) {
+            case BOOK:
+                Book book = new Book();
+                book.setName(name);
+                book.setAuthor("author-" + index % 100);
+                book.setIsbn(String.valueOf(9_780_000_000_000L + index));
+                return book;
+            case ALBUM:
+                Album album = new Album();
+                album.setName(name);
+                album.setArtist("artist-" + index % 100);
+                return album;
+            default:
+                Movie movie = new Movie();
+                movie.setName(name);
+                movie.setDirector("director-" + index % 100);
+                movie.setActor("actor-" + index % 300);
+                return movie;
+        }
+    }
+
+    /**
+     * 10% 는 최상위 카테고리, 나머지는 최상위 중 하나의 하위 카테고리
+     */
+    private long insertCategories(String runId, ItemRefs items, SplittableRandom random) {
+        int count = properties.getCategories();
+        if (count == 0) {
+            return 0;
+        }
+        int roots = Math.max(1, count / 10);
+        int perCategory = Math.min(properties.getItemsPerCategory(), items.size());
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Category category = new Category();
+            category.setName("category-" + runId + "-" + i);
+            if (i >= roots) {
+                category.setParent(categories.get(random.nextInt(roots)));
+            }
+            Set<Integer> picked = new HashSet<>();
+            while (picked.size() < perCategory) {
+                picked.add(random.nextInt(items.size()));
+            }
+            for (int index : picked) {
+                category.getItems().add(items.reference(index));
+            }
+            categories.add(category);
+        }
+        return chunkTransaction.execute(status -> writer.insertCategories(categories));
+    }
+
+    /**
+     * @return {주문 수, 주문상품 수}
+     */
+    private long[] insertOrders(long[] memberIds, ItemRefs items, SplittableRandom random) {
+        ZipfSampler popularity = new ZipfSampler(items.size(), properties.getPopularitySkew());
+        LocalDateTime now = LocalDateTime.now();
+        long minutes = properties.getOrderDays() * 24L * 60;
+        long[] orderItems = new long[1];
+
+        long orders = 0;
+        for (int from = 0; from < properties.getOrders(); from += properties.getChunkSize()) {
+            int size = Math.min(properties.getChunkSize(), properties.getOrders() - from);
+            Iterable<Order> chunk = () -> new Iterator<>() {
+                int created = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return created < size;
+                }
+
+                @Override
+                public Order next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    created++;
+                    Order order = newOrder(memberIds[random.nextInt(memberIds.length)], items, popularity, random);
+                    order.setOrderDate(now.minusMinutes(random.nextLong(minutes)));
+                    orderItems[0] += order.getOrderItems().size();
+                    return order;
+                }
+            };
+            orders += chunkTransaction.execute(status -> writer.insertOrders(chunk));
+        }
+        return new long[]{orders, orderItems[0]};
+    }
+
+    private Order newOrder(long memberId, ItemRefs items, ZipfSampler popularity, SplittableRandom random) {
+        Member member = new Member();
+        member.setId(memberId);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(address(random));
+
+        OrderItem[] orderItems = new OrderItem[1 + random.nextInt(properties.getMaxLinesPerOrder())];
+        for (int i = 0; i < orderItems.length; i++) {
+            int index = popularity.sample(random.nextDouble());
+            orderItems[i] = OrderItem.createOrderItem(items.reference(index), items.price(index), 1 + random.nextInt(3));
+        }
+
+        Order order = Order.createOrder(member, delivery, orderItems);
+        boolean cancelled = random.nextDouble() < properties.getCancelRatio();
+        if (cancelled) {
+            order.setStatus(OrderStatus.CANCEL);
+        }
+        delivery.setStatus(!cancelled && random.nextBoolean() ? DeliveryStatus.COMP : DeliveryStatus.READY);
+        return order;
+    }
+
+    private Address address(SplittableRandom random) {
+        return new Address(CITIES[random.nextInt(CITIES.length)], "street-" + random.nextInt(1_000),
+                String.valueOf(10_000 + random.nextInt(90_000)));
+    }
+
+    /**
+     * 저장한 상품의 id / 종류 / 가격 (엔티티는 메모리에 남기지 않는다.)
+     */
+    private static class ItemRefs {
+
+        private final ItemType[] types;
+        private final long[] ids;
+        private final int[] prices;
+
+        ItemRefs(int size) {
+            types = new ItemType[size];
+            ids = new long[size];
+            prices = new int[size];
+        }
+
+        void set(int index, ItemType type, long id, int price) {
+            types[index] = type;
+            ids[index] = id;
+            prices[index] = price;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int price(int index) {
+            return prices[index];
+        }
+
+        /**
+         * FK 저장용 참조 (id 만 있는 준영속 객체)
+         * OrderItem.createOrderItem 의 재고 차감은 이 객체에만 반영되므로 재고를 수량만큼 채워둔다.
+         */
+        Item reference(int index) {
+            Item item;
+            switch (types[index]) {
+                case BOOK:
+                    item = new Book();
+                    break;
+                case ALBUM:
+                    item = new Album();
+                    break;
+                default:
+                    item = new Movie();
+            }
+            item.setId(ids[index]);
+            item.setStockQuantity(ITEM_STOCK);
+            return item;
+        }
+    }
+}
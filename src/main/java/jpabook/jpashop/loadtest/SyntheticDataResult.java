@@ -0,0 +1,17 @@
+package jpabook.jpashop.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyntheticDataResult {
+
+    private long members;
+    private long items;
+    private long categories;
+    private long orders;
+    private long orderItems;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 0 ~ size-1 순위를 Zipf 분포로 뽑는다. (순위 k 의 확률 ∝ 1 / (k+1)^skew)
+ * 누적 분포를 미리 만들어 두고 이진 탐색 -> 뽑기는 O(log n), thread-safe
+ */
+class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int size, double skew) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("대상이 없습니다.");
+        }
+        cdf = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    /**
+     * @param uniform [0, 1) 균등 난수
+     */
+    int sample(double uniform) {
+        int index = Arrays.binarySearch(cdf, uniform);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cdf.length - 1);
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 응답시간 히스토그램 (마이크로초, log-linear bucket)
+ *
+ * 2^k ~ 2^(k+1) 구간을 SUB_BUCKETS 개로 나눈다. -> 값 크기와 관계없이 오차 1/64 (약 1.6%) 이내
+ * 여러 스레드에서 record() 해도 lock 없이 동작한다.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long elapsedNanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 0), MAX_MICROS);
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double meanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / (double) n / 1000;
+    }
+
+    public double totalMillis() {
+        return totalMicros.get() / 1000.0;
+    }
+
+    public double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     * @return 해당 percentile 이 속한 bucket 의 상한 (ms)
+     */
+    public double percentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(lowerBound(i + 1) - 1, maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int sub = (int) (micros >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서비스 메서드 실행 시간 (jpashop.service timer)
+ *
+ * tag: service, method, exception (정상 종료면 none)
+ * @Transactional 보다 바깥에서 측정하므로 트랜잭션 시작/커밋 시간까지 포함된다.
+ * API 응답시간은 Spring Boot 가 http.server.requests 로 측정한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "jpashop.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * jpabook.jpashop.service.OrderService.*(..))"
+            + " || execution(public * jpabook.jpashop.service.MemberService.*(..))"
+            + " || execution(public * jpabook.jpashop.service.ItemService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("서비스 메서드 실행 시간")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 파일 sink - 이벤트를 한 줄에 하나씩 JSON 으로 append 한다. (JSON Lines)
+ * 배치 단위로 한번에 쓰고 force 해서 디스크에 반영된 뒤에만 published 처리되도록 한다.
+ */
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxEventSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void send(List<OutboxMessage> messages) {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxMessage message : messages) {
+            try {
+                lines.append(objectMapper.writeValueAsString(message)).append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("outbox 이벤트 직렬화 실패. eventId = " + message.getEventId(), e);
+            }
+        }
+
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 메모리 큐 sink (브로커 대용, 로컬/테스트용)
+ * 소비자는 drain() 으로 쌓인 이벤트를 가져간다.
+ */
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final List<OutboxMessage> queue = new ArrayList<>();
+
+    @Override
+    public synchronized void send(List<OutboxMessage> messages) {
+        queue.addAll(messages);
+    }
+
+    public synchronized List<OutboxMessage> drain() {
+        List<OutboxMessage> drained = new ArrayList<>(queue);
+        queue.clear();
+        return drained;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 주문 이벤트를 outbox 테이블에 기록한다.
+ * 반드시 주문/취소 트랜잭션 안에서 호출한다. (MANDATORY)
+ * -> 주문이 롤백되면 이벤트도 함께 롤백, 주문이 커밋되면 이벤트도 반드시 남는다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.outbox", name = "enabled", havingValue = "true")
+public class OrderEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Long orderId, Long memberId, Long itemId, int count) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId);
+        payload.put("memberId", memberId);
+        payload.put("itemId", itemId);
+        payload.put("count", count);
+        append(orderId, OrderEventType.ORDER_PLACED, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCancelled(Long orderId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId);
+        append(orderId, OrderEventType.ORDER_CANCELLED, payload);
+    }
+
+    private void append(Long orderId, OrderEventType eventType, Map<String, Object> payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            outboxEventRepository.save(new OutboxEvent(orderId, eventType, json, LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 이벤트 직렬화 실패. orderId = " + orderId, e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package jpabook.jpashop.outbox;
+
+public enum OrderEventType {
+    ORDER_PLACED, ORDER_CANCELLED
+}
@@ -0,0 +1,33 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxEventSink outboxEventSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        if ("file".equalsIgnoreCase(properties.getSink())) {
+            return new FileOutboxEventSink(Paths.get(properties.getFilePath()), objectMapper);
+        }
+        if ("memory".equalsIgnoreCase(properties.getSink())) {
+            return new InMemoryOutboxEventSink();
+        }
+        throw new IllegalArgumentException("지원하지 않는 outbox sink 입니다. sink = " + properties.getSink());
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventSink outboxEventSink,
+                                   OutboxProperties properties, PlatformTransactionManager transactionManager) {
+        return new OutboxRelay(outboxEventRepository, outboxEventSink, properties, transactionManager);
+    }
+}
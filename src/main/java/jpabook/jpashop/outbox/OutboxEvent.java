@@ -0,0 +1,48 @@
+package jpabook.jpashop.outbox;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 이벤트 outbox
+ * 주문/취소와 같은 트랜잭션에서 insert 되고, relay 가 sink 로 전달한 뒤 published_at 을 채운다.
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_published_id", columnList = "published_at, outbox_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    @Id @GeneratedValue
+    @Column(name = "outbox_id")
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private OrderEventType eventType;
+
+    @Column(length = 1000)
+    private String payload; // JSON
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt; // null 이면 아직 전달되지 않은 이벤트
+
+    public OutboxEvent(Long orderId, OrderEventType eventType, String payload, LocalDateTime createdAt) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxEventRepository {
+
+    private final EntityManager em;
+
+    public void save(OutboxEvent event) {
+        em.persist(event);
+    }
+
+    /**
+     * 아직 전달되지 않은 이벤트를 id 순서로 조회 (idx_order_outbox_published_id 사용)
+     */
+    public List<OutboxMessage> findUnpublished(int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.outbox.OutboxMessage(e.id, e.orderId, e.eventType, e.payload, e.createdAt)" +
+                                " from OutboxEvent e" +
+                                " where e.publishedAt is null" +
+                                " order by e.id", OutboxMessage.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int markPublished(List<Long> ids, LocalDateTime publishedAt) {
+        return em.createQuery(
+                        "update OutboxEvent e set e.publishedAt = :publishedAt" +
+                                " where e.id in :ids")
+                .setParameter("publishedAt", publishedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * 전달 완료 후 보관 기간이 지난 이벤트 삭제
+     */
+    public int deletePublishedBefore(LocalDateTime before) {
+        return em.createQuery(
+                        "delete from OutboxEvent e" +
+                                " where e.publishedAt is not null and e.publishedAt < :before")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+    public long countUnpublished() {
+        return em.createQuery("select count(e) from OutboxEvent e where e.publishedAt is null", Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * 가장 오래된 미전달 이벤트의 생성 시각 (없으면 null)
+     */
+    public LocalDateTime findOldestUnpublishedCreatedAt() {
+        return em.createQuery("select min(e.createdAt) from OutboxEvent e where e.publishedAt is null", LocalDateTime.class)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashop.outbox;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 받아갈 외부 시스템 (메시지 브로커, 파일 등)
+ *
+ * send 가 정상 반환되면 전달 완료로 보고 published 처리한다.
+ * 예외가 발생하면 배치 전체를 다음 relay 에서 다시 보낸다. (일부만 전달된 경우 중복 발생 가능)
+ */
+public interface OutboxEventSink {
+
+    void send(List<OutboxMessage> messages);
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * sink 로 전달되는 이벤트 (엔티티 대신 값만 전달)
+ * 같은 eventId 가 두 번 이상 전달될 수 있으므로(at-least-once) 수신측은 eventId 로 중복을 걸러야 한다.
+ */
+@Data
+@AllArgsConstructor
+public class OutboxMessage {
+
+    private Long eventId;
+    private Long orderId;
+    private OrderEventType eventType;
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.outbox.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = false;
+
+    // memory | file
+    private String sink = "memory";
+
+    // sink=file 일 때 JSON Lines 파일 경로
+    private String filePath = "outbox/order-events.jsonl";
+
+    // sink 한번 호출에 보낼 이벤트 수
+    private int batchSize = 500;
+
+    // relay 실행 간격
+    private long pollIntervalMillis = 1000;
+
+    // 전달 완료된 이벤트 보관 기간
+    private int retentionHours = 24;
+}
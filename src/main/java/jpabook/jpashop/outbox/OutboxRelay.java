@@ -0,0 +1,109 @@
+package jpabook.jpashop.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * outbox 테이블을 batchSize 단위로 읽어 sink 로 전달한다.
+ *
+ * 1. 미전달 이벤트를 id 순서로 조회 (트랜잭션 1)
+ * 2. sink.send (트랜잭션 밖)
+ * 3. 전달된 이벤트 published 처리 (트랜잭션 2)
+ *
+ * 2 와 3 사이에 장애가 나면 같은 이벤트를 다시 보낸다. (at-least-once)
+ * 전송이 실패하면 그 배치부터 이번 relay 를 중단한다.
+ * -> 실패한 이벤트를 건너뛰고 뒤의 이벤트를 먼저 보내지 않으므로 같은 주문의 이벤트 순서가 유지된다.
+ *
+ * relay 는 한 번에 하나만 실행된다. (synchronized, 인스턴스 1개 기준)
+ */
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventSink sink;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transaction;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile double eventsPerSecond;
+    private volatile LocalDateTime lastRelayAt;
+    private volatile long lastRelayMillis;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventSink sink,
+                       OutboxProperties properties, PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.properties = properties;
+        // readOnly 로 두면 replica 로 라우팅되어 이미 전달한 이벤트를 다시 읽을 수 있으므로 primary 트랜잭션 사용
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 미전달 이벤트를 모두 전달
+     * @return 이번 실행에서 전달한 이벤트 수
+     */
+    public synchronized int relay() {
+        long start = System.currentTimeMillis();
+        int relayed = 0;
+
+        while (true) {
+            List<OutboxMessage> batch = transaction.execute(status ->
+                    outboxEventRepository.findUnpublished(properties.getBatchSize()));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+
+            try {
+                sink.send(batch);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                log.warn("outbox relay failed. retry from eventId = {}", batch.get(0).getEventId(), e);
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (OutboxMessage message : batch) {
+                ids.add(message.getEventId());
+            }
+            LocalDateTime now = LocalDateTime.now();
+            transaction.executeWithoutResult(status -> outboxEventRepository.markPublished(ids, now));
+
+            relayed += batch.size();
+            published.addAndGet(batch.size());
+            batches.incrementAndGet();
+            if (batch.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+
+        lastRelayAt = LocalDateTime.now();
+        lastRelayMillis = System.currentTimeMillis() - start;
+        eventsPerSecond = relayed == 0 ? 0 : relayed * 1000.0 / Math.max(lastRelayMillis, 1);
+        return relayed;
+    }
+
+    /**
+     * 보관 기간이 지난 전달 완료 이벤트 삭제
+     */
+    public int purge() {
+        LocalDateTime before = LocalDateTime.now().minusHours(properties.getRetentionHours());
+        return transaction.execute(status -> outboxEventRepository.deletePublishedBefore(before));
+    }
+
+    public OutboxStats stats() {
+        long pending = transaction.execute(status -> outboxEventRepository.countUnpublished());
+        LocalDateTime oldest = transaction.execute(status -> outboxEventRepository.findOldestUnpublishedCreatedAt());
+        long lagMillis = oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis();
+        return new OutboxStats(pending, lagMillis, published.get(), batches.get(), failures.get(),
+                eventsPerSecond, lastRelayAt, lastRelayMillis);
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * jpashop.outbox.poll-interval-millis 주기로 relay, 1시간마다 전달 완료 이벤트 정리
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelayScheduler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "${jpashop.outbox.poll-interval-millis:1000}")
+    public void relay() {
+        outboxRelay.relay();
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 60 * 60 * 1000)
+    public void purge() {
+        outboxRelay.purge();
+    }
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class OutboxStats {
+
+    private long pending; // 미전달 이벤트 수
+    private long lagMillis; // 가장 오래된 미전달 이벤트가 기다린 시간
+
+    private long published; // 기동 후 전달한 이벤트 수
+    private long batches;
+    private long failures;
+    private double eventsPerSecond; // 마지막 relay 처리량
+
+    private LocalDateTime lastRelayAt;
+    private long lastRelayMillis;
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.ItemType;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class ItemCatalogSearch {
+
+    private ItemType type; // 상품 종류 [BOOK, ALBUM, MOVIE]
+    private Integer minPrice; // 최소 가격 (이상)
+    private Integer maxPrice; // 최대 가격 (이하)
+    private boolean inStock; // 재고 있는 상품만
+}
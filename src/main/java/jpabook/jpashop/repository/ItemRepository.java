@@ -1,16 +1,35 @@
 package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemType;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    public static final int CATALOG_MAX_PAGE_SIZE = 1000;
+
+    /**
+     * 상품 목록 한 페이지 크기 (1 ~ CATALOG_MAX_PAGE_SIZE)
+     * 다음 페이지 여부를 판단하는 쪽(ItemApiController)도 이 값과 비교해야 한다.
+     */
+    public static int catalogPageSize(int limit) {
+        return Math.min(Math.max(limit, 1), CATALOG_MAX_PAGE_SIZE);
+    }
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -43,4 +62,162 @@ public class ItemRepository {
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
     }
+
+    /**
+     * 상품 목록 (id 순 keyset, lastId 가 null 이면 처음부터)
+     * 조건이 null/false 이면 적용하지 않는다. limit 은 catalogPageSize() 로 제한한다.
+     *
+     * 종류 조건은 type(i) = :type 대신 하위 엔티티(Book, Album, Movie)를 직접 조회한다.
+     * -> JOINED: item + 해당 하위 테이블만 inner join, TABLE_PER_CLASS: union 없이 하위 테이블 하나만 조회
+     *    SINGLE_TABLE: dtype 조건. 정렬에 dtype 을 포함해야 (dtype, item_id) 인덱스 순서로 읽는다. (H2 는 정렬을 생략하지 못함)
+     * 재고 bucket 분할 상품은 페이지 안의 해당 상품만 bucket 합계를 추가로 조회한다.
+     */
+    public List<ItemCatalogDto> findCatalog(ItemCatalogSearch search, Long lastId, int limit) {
+        ItemType type = search.getType();
+        String jpql = type == null
+                ? "select new jpabook.jpashop.repository.item.ItemCatalogDto(i.id, type(i), i.name, i.price, i.stockQuantity, i.stockBucketCount) from Item i"
+                : "select new jpabook.jpashop.repository.item.ItemCatalogDto(i.id, i.name, i.price, i.stockQuantity, i.stockBucketCount) from " + type.getEntityClass().getSimpleName() + " i";
+        jpql += " where 1 = 1";
+        if (lastId != null) {
+            jpql += " and i.id > :lastId";
+        }
+        if (search.getMinPrice() != null) {
+            jpql += " and i.price >= :minPrice";
+        }
+        if (search.getMaxPrice() != null) {
+            jpql += " and i.price <= :maxPrice";
+        }
+        if (search.isInStock()) {
+            jpql += " and (i.stockQuantity > 0 or (i.stockBucketCount > 0" +
+                    " and exists (select b.id from StockBucket b where b.item.id = i.id and b.quantity > 0)))";
+        }
+        jpql += type != null && isSingleTable() ? " order by type(i), i.id" : " order by i.id";
+
+        TypedQuery<ItemCatalogDto> query = em.createQuery(jpql, ItemCatalogDto.class)
+                .setMaxResults(catalogPageSize(limit));
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        if (search.getMinPrice() != null) {
+            query.setParameter("minPrice", search.getMinPrice());
+        }
+        if (search.getMaxPrice() != null) {
+            query.setParameter("maxPrice", search.getMaxPrice());
+        }
+        List<ItemCatalogDto> result = query.getResultList();
+        if (type != null) {
+            result.forEach(row -> row.setType(type));
+        }
+        addBucketStock(result);
+        return result;
+    }
+
+    private void addBucketStock(List<ItemCatalogDto> rows) {
+        Map<Long, ItemCatalogDto> bucketed = new HashMap<>();
+        for (ItemCatalogDto row : rows) {
+            if (row.isStockBucketed()) {
+                bucketed.put(row.getId(), row);
+            }
+        }
+        if (bucketed.isEmpty()) {
+            return;
+        }
+        List<Object[]> sums = em.createQuery(
+                        "select b.item.id, sum(b.quantity) from StockBucket b where b.item.id in :ids group by b.item.id", Object[].class)
+                .setParameter("ids", bucketed.keySet())
+                .getResultList();
+        for (Object[] sum : sums) {
+            ItemCatalogDto row = bucketed.get((Long) sum[0]);
+            row.setStockQuantity(row.getStockQuantity() + ((Number) sum[1]).intValue());
+        }
+    }
+
+    /**
+     * Item 상속 매핑이 SINGLE_TABLE 인지 (spring.jpa.mapping-resources 로 JOINED/TABLE_PER_CLASS 로 바꿀 수 있다.)
+     */
+    private boolean isSingleTable() {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getMetamodel()
+                .entityPersister(Item.class) instanceof SingleTableEntityPersister;
+    }
+
+    /**
+     * 일괄 변경 대상 id 를 id 순서로 limit 개씩 조회 (keyset)
+     * type, categoryId 가 null 이면 조건 없음
+     */
+    public List<Long> findIdsAfter(Class<? extends Item> type, Long categoryId, Long lastId, int limit) {
+        String jpql = categoryId == null
+                ? "select i.id from Item i where i.id > :lastId"
+                : "select i.id from Category c join c.items i where c.id = :categoryId and i.id > :lastId";
+        if (type != null) {
+            jpql += " and type(i) = :type";
+        }
+        jpql += " order by i.id";
+
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class)
+                .setParameter("lastId", lastId)
+                .setMaxResults(limit);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (type != null) {
+            query.setParameter("type", type);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * 가격/재고 일괄 변경 (set-based update, 엔티티를 조회하지 않는다.)
+     * 가격: price + price * pricePercent / 100 + priceDelta, 재고: stockQuantity + stockDelta (0 미만이면 0)
+     * null 인 항목은 변경하지 않는다.
+     * 재고 bucket 분할 상품의 stockQuantity 는 미분배 재고일 뿐이므로 여기서 바꾸지 않는다. -> StockBucketService.changeTotalBy()
+     *
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 호출한 쪽에서 em.clear() 해야 한다.
+     * @return 변경된 row 수
+     */
+    public int bulkUpdate(List<Long> ids, Integer pricePercent, Integer priceDelta, Integer stockDelta) {
+        List<String> sets = new ArrayList<>();
+        if (pricePercent != null || priceDelta != null) {
+            String price = "i.price";
+            if (pricePercent != null) {
+                price += " + i.price * :pricePercent / 100";
+            }
+            if (priceDelta != null) {
+                price += " + :priceDelta";
+            }
+            // HQL 의 then/else 에는 단항식만 올 수 있어서 괄호로 감싼다.
+            sets.add("i.price = case when (" + price + ") < 0 then 0 else (" + price + ") end");
+        }
+        if (stockDelta != null) {
+            sets.add("i.stockQuantity = case when i.stockBucketCount > 0 then i.stockQuantity" +
+                    " when (i.stockQuantity + :stockDelta) < 0 then 0 else (i.stockQuantity + :stockDelta) end");
+        }
+        if (sets.isEmpty() || ids.isEmpty()) {
+            return 0;
+        }
+
+        Query query = em.createQuery("update Item i set " + String.join(", ", sets) + " where i.id in :ids")
+                .setParameter("ids", ids);
+        if (pricePercent != null) {
+            query.setParameter("pricePercent", pricePercent);
+        }
+        if (priceDelta != null) {
+            query.setParameter("priceDelta", priceDelta);
+        }
+        if (stockDelta != null) {
+            query.setParameter("stockDelta", stockDelta);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * ids 중 재고 bucket 으로 분할된 상품 id
+     */
+    public List<Long> findStockBucketedIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery("select i.id from Item i where i.id in :ids and i.stockBucketCount > 0 order by i.id", Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
 }
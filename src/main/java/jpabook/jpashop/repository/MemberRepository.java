@@ -1,12 +1,36 @@
 package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
 
     // select m from Member m where m.name = :name 자동 생성
     List<Member> findByName(String name);
+
+    // 중복 검사용 - 엔티티를 만들지 않고 존재 여부만 조회 (limit 1)
+    boolean existsByName(String name);
+
+    // 대량 가입 시 중복 검사 - 배치 전체를 IN 쿼리 한 번으로 확인
+    @Query("select m.name from Member m where m.name in :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // 이름 필터 warm-up 용 - id 순서로 잘라서 조회
+    @Query("select m.id as id, m.name as name from Member m where m.id > :lastId order by m.id")
+    List<MemberNameView> findNamesAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // 부하 테스트 대상 회원 id (id 순서)
+    @Query("select m.id from Member m where m.id > :lastId order by m.id")
+    List<Long> findIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    interface MemberNameView {
+        Long getId();
+        String getName();
+    }
 }
@@ -1,10 +1,16 @@
 package jpabook.jpashop.repository;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.fetch.BatchFetchPolicy;
+import jpabook.jpashop.repository.fetch.OrderFetchProfile;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
@@ -13,12 +19,41 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    // 2단계 페이징 한 페이지 최대 주문 수
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * offset/limit 페이징 파라미터 검사 (limit 이 MAX_PAGE_SIZE 를 넘는 것은 조회할 때 줄인다.)
+     * @throws IllegalArgumentException offset 이 음수이거나 limit 이 1 미만
+     */
+    public static void checkPage(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset 은 0 이상이어야 합니다. offset = " + offset);
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit 은 1 이상이어야 합니다. limit = " + limit);
+        }
+    }
+
+    // 주문 id 목록에 대해 회원/배송/주문상품/상품 fetch join (주문 id, 주문상품 id 순)
+    private static final String FETCH_WITH_ITEMS_BY_IDS = "select distinct o from Order o" +
+            " join fetch o.member m" +
+            " join fetch o.delivery d" +
+            " join fetch o.orderItems oi" +
+            " join fetch oi.item i" +
+            " where o.id in :ids" +
+            " order by o.id, oi.id";
+
     private final EntityManager em;
+    private final BatchFetchPolicy batchFetchPolicy;
 
     public void save(Order order) {
         em.persist(order);
@@ -116,6 +151,57 @@ public class OrderRepository {
                 .fetch();
     }
 
+    /**
+     * fetch profile 을 지정한 검색 (id 순 페이징)
+     *
+     * 1. 루트 쿼리: Order.summary entity graph (회원/배송 fetch join) + offset/limit
+     * 2. WITH_LINES 이면 BatchFetchPolicy batch size 만큼 id 를 나눠서 Order.withLines entity graph 로 재조회
+     *    -> 이미 영속성 컨텍스트에 있는 주문의 orderItems/item 이 채워진다.
+     * limit 은 MAX_PAGE_SIZE 를 넘지 않는다.
+     */
+    public List<Order> findAll(OrderSearch orderSearch, OrderFetchProfile profile, int offset, int limit) {
+        checkPage(offset, limit);
+        long start = System.currentTimeMillis();
+        QOrder order = QOrder.order;
+        QMember member = QMember.member;
+
+        JPAQuery<Order> query = new JPAQueryFactory(em)
+                .select(order)
+                .from(order);
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.join(order.member, member);
+        }
+        List<Order> orders = query
+                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
+                .orderBy(order.id.asc())
+                .offset(offset)
+                .limit(Math.min(limit, MAX_PAGE_SIZE))
+                .setHint(FETCH_GRAPH, em.getEntityGraph(OrderFetchProfile.SUMMARY_GRAPH))
+                .setHint(QueryHints.HINT_READONLY, true)
+                .fetch();
+
+        int batchQueries = 0;
+        if (profile.loadsLines() && !orders.isEmpty()) {
+            int batchSize = batchFetchPolicy.batchSize(profile);
+            for (int from = 0; from < orders.size(); from += batchSize) {
+                List<Long> ids = new ArrayList<>();
+                for (Order o : orders.subList(from, Math.min(from + batchSize, orders.size()))) {
+                    ids.add(o.getId());
+                }
+                em.createQuery("select distinct o from Order o where o.id in :ids", Order.class)
+                        .setParameter("ids", ids)
+                        .setHint(FETCH_GRAPH, em.getEntityGraph(OrderFetchProfile.LINES_GRAPH))
+                        .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                        .setHint(QueryHints.HINT_READONLY, true)
+                        .getResultList();
+                batchQueries++;
+            }
+        }
+
+        batchFetchPolicy.record(profile, orders.size(), batchQueries, System.currentTimeMillis() - start);
+        return orders;
+    }
+
     private BooleanExpression statusEq(OrderStatus statusCond) {
         if(statusCond == null) {
             return null;
@@ -169,6 +255,7 @@ public class OrderRepository {
          * firstResult/maxResults specified with collection fetch; applying in memory!
          *
          * ** 1대 다 fetch join에서는 페이징을 사용하지 말 것!
+         * -> 페이징이 필요하면 findAllWithItem(lastId, offset, limit) (id 먼저 조회하는 2단계 조회) 사용
          *
          * 컬렉션 fetch join은 1개만 사용할 수 있다. -> (1대 다 관계에 대한 조인은 한번만 사용한다.)
          * 컬렉션 둘 이상에 페치 조인을 사용하면 안된다.
@@ -181,6 +268,87 @@ public class OrderRepository {
                         " join fetch o.orderItems oi", Order.class)
 //                .setFirstResult(1) // start numbered from 0
 //                .setMaxResults(100)
+                .setHint(QueryHints.HINT_READONLY, true) // 조회 전용 - 스냅샷을 만들지 않고 변경 감지 대상에서 제외
+                .getResultList();
+    }
+
+    /**
+     * 조회 전용 fast path - StatelessSession 으로 주문/회원/배송/주문상품/상품 전체를 한번에 조회
+     *
+     * 영속성 컨텍스트(1차 캐시, 스냅샷)를 만들지 않으므로 큰 결과에서 힙 사용량이 줄어든다.
+     * 반환된 엔티티는 준영속 상태이고 fetch join 하지 않은 지연 로딩 연관관계는 사용할 수 없다.
+     * -> 트랜잭션 안에서 DTO 로 변환하는 용도로만 사용할 것 (OrderQueryService)
+     *
+     * 현재 트랜잭션의 커넥션을 그대로 사용한다. (replica 라우팅, 트랜잭션 경계 유지)
+     */
+    public List<Order> findAllWithItemStateless() {
+        return queryStateless(stateless -> stateless.createQuery(
+                "select distinct o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d" +
+                        " join fetch o.orderItems oi" +
+                        " join fetch oi.item i", Order.class)
+                .setReadOnly(true)
+                .list());
+    }
+
+    /**
+     * 주문 id 한 페이지 (id 순)
+     * lastId 가 있으면 keyset 페이징 (id > lastId, offset 무시), 없으면 offset 페이징
+     * limit 은 MAX_PAGE_SIZE 를 넘지 않는다.
+     */
+    public List<Long> findIdsPage(Long lastId, int offset, int limit) {
+        TypedQuery<Long> query = em.createQuery(lastId == null
+                        ? "select o.id from Order o order by o.id"
+                        : "select o.id from Order o where o.id > :lastId order by o.id", Long.class)
+                .setMaxResults(Math.min(limit, MAX_PAGE_SIZE));
+        if (lastId == null) {
+            query.setFirstResult(offset);
+        } else {
+            query.setParameter("lastId", lastId);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * 컬렉션 fetch join 페이징 - 2단계 조회
+     * 1. 주문 id 한 페이지만 조회 (DB 에서 페이징)
+     * 2. 그 id 들만 회원/배송/주문상품/상품 fetch join
+     * -> "applying in memory" 메모리 페이징이 없고, 메모리 사용량은 페이지 크기에 비례한다.
+     * 결과는 주문 id 순, 주문상품은 id 순이다.
+     */
+    public List<Order> findAllWithItem(Long lastId, int offset, int limit) {
+        List<Long> ids = findIdsPage(lastId, offset, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery(FETCH_WITH_ITEMS_BY_IDS, Order.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .setHint(QueryHints.HINT_READONLY, true)
                 .getResultList();
     }
-}
\ No newline at end of file
+
+    /**
+     * findAllWithItem(lastId, offset, limit) 의 StatelessSession 버전 (조회 전용 fast path)
+     */
+    public List<Order> findAllWithItemStateless(Long lastId, int offset, int limit) {
+        List<Long> ids = findIdsPage(lastId, offset, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return queryStateless(stateless -> stateless.createQuery(FETCH_WITH_ITEMS_BY_IDS, Order.class)
+                .setParameter("ids", ids)
+                .setReadOnly(true)
+                .list());
+    }
+
+    private List<Order> queryStateless(Function<StatelessSession, List<Order>> query) {
+        Session session = em.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection)) {
+                return query.apply(stateless);
+            }
+        });
+    }
+}
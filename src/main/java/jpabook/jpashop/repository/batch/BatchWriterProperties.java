@@ -0,0 +1,16 @@
+package jpabook.jpashop.repository.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.batch-writer.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.batch-writer")
+public class BatchWriterProperties {
+
+    // JDBC batch 크기 (= 한번에 executeBatch 할 row 수)
+    private int batchSize = 500;
+}
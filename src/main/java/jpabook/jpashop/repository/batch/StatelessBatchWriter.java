@@ -0,0 +1,186 @@
+package jpabook.jpashop.repository.batch;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Category;
+import jpabook.jpashop.domain.item.Item;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 대량 insert 용 writer (StatelessSession + JDBC batch)
+ *
+ * EntityManager.persist 는 저장한 엔티티를 모두 1차 캐시에 들고 있어서 건수에 비례해 메모리와 flush 비용이 늘어난다.
+ * StatelessSession 은 영속성 컨텍스트가 없으므로 batchSize 만큼 insert 후 executeBatch 하면 writer 는 엔티티를 더 참조하지 않는다.
+ * -> Iterable 을 지연 생성하면 메모리 사용량이 건수와 무관하다.
+ *
+ * 주의
+ * - 호출한 쪽 트랜잭션의 커넥션을 사용한다. (MANDATORY, 롤백도 함께)
+ * - cascade, 변경 감지, 연관관계 편의 메서드, 컬렉션 저장이 동작하지 않는다.
+ *   Order 는 insertOrders() 가 delivery -> orders -> order_item 순서로 직접 저장한다.
+ *   Category 의 다대다 중간 테이블은 insertCategories() 가 직접 저장한다.
+ * - 참조하는 Member/Item 은 이미 저장되어 있어야 하고, 재고 등 그 엔티티의 변경은 저장되지 않는다.
+ * - 예외는 다른 repository 와 같이 DataAccessException 으로 변환된다. (@Repository)
+ * - 저장한 엔티티는 현재 EntityManager 에 없다. (같은 트랜잭션에서 조회하면 DB 에서 새로 읽는다.)
+ */
+@Repository
+@EnableConfigurationProperties(BatchWriterProperties.class)
+public class StatelessBatchWriter {
+
+    private final EntityManager em;
+    private final BatchWriterProperties properties;
+
+    public StatelessBatchWriter(EntityManager em, BatchWriterProperties properties) {
+        this.em = em;
+        this.properties = properties;
+    }
+
+    /**
+     * 단일 엔티티 타입 대량 insert (연관관계는 FK 값만 저장)
+     * @return 저장한 건수
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> long insertAll(Iterable<T> entities) {
+        return write(stateless -> {
+            long count = 0;
+            for (List<T> chunk : chunks(entities.iterator())) {
+                for (T entity : chunk) {
+                    stateless.insert(entity);
+                }
+                executeBatch(stateless);
+                count += chunk.size();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 주문 대량 insert (Order.delivery, Order.orderItems cascade 를 직접 처리)
+     * 청크마다 delivery 전체 -> order 전체 -> orderItem 전체 순서로 넣어서 같은 테이블 insert 끼리 batch 로 묶는다.
+     * @return 저장한 주문 수
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long insertOrders(Iterable<Order> orders) {
+        return write(stateless -> {
+            long count = 0;
+            for (List<Order> chunk : chunks(orders.iterator())) {
+                for (Order order : chunk) {
+                    if (order.getDelivery() != null) {
+                        stateless.insert(order.getDelivery());
+                    }
+                }
+                executeBatch(stateless);
+
+                for (Order order : chunk) {
+                    stateless.insert(order);
+                }
+                executeBatch(stateless);
+
+                for (Order order : chunk) {
+                    for (OrderItem orderItem : order.getOrderItems()) {
+                        stateless.insert(orderItem);
+                    }
+                }
+                executeBatch(stateless);
+                count += chunk.size();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 카테고리 대량 insert (Category.items 다대다 중간 테이블 category_item 을 직접 저장)
+     * StatelessSession 은 컬렉션을 저장하지 않으므로 중간 테이블은 JDBC batch 로 넣는다.
+     * parent 카테고리가 child 보다 먼저 나와야 하고, items 의 상품은 이미 저장되어 있어야 한다.
+     * @return 저장한 카테고리 수
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long insertCategories(Iterable<Category> categories) {
+        return write(stateless -> {
+            long count = 0;
+            for (List<Category> chunk : chunks(categories.iterator())) {
+                for (Category category : chunk) {
+                    stateless.insert(category);
+                }
+                executeBatch(stateless);
+                insertCategoryItems(stateless, chunk);
+                count += chunk.size();
+            }
+            return count;
+        });
+    }
+
+    private void insertCategoryItems(StatelessSession stateless, List<Category> categories) {
+        stateless.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "insert into category_item (category_id, item_id) values (?, ?)")) {
+                int pending = 0;
+                for (Category category : categories) {
+                    for (Item item : category.getItems()) {
+                        ps.setLong(1, category.getId());
+                        ps.setLong(2, item.getId());
+                        ps.addBatch();
+                        if (++pending == properties.getBatchSize()) {
+                            ps.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+            }
+        });
+    }
+
+    private long write(StatelessWork work) {
+        Session session = em.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection)) {
+                stateless.setJdbcBatchSize(properties.getBatchSize());
+                return work.execute(stateless);
+            }
+        });
+    }
+
+    private void executeBatch(StatelessSession stateless) {
+        ((SharedSessionContractImplementor) stateless).getJdbcCoordinator().executeBatch();
+    }
+
+    /**
+     * Iterator 를 batchSize 크기 청크로 나눈다. (청크 하나만 메모리에 유지)
+     */
+    private <T> Iterable<List<T>> chunks(Iterator<T> iterator) {
+        int batchSize = properties.getBatchSize();
+        return () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                List<T> chunk = new ArrayList<>(batchSize);
+                while (iterator.hasNext() && chunk.size() < batchSize) {
+                    chunk.add(iterator.next());
+                }
+                return chunk;
+            }
+        };
+    }
+
+    private interface StatelessWork {
+        long execute(StatelessSession stateless);
+    }
+}
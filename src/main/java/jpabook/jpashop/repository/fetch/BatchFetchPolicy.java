@@ -0,0 +1,78 @@
+package jpabook.jpashop.repository.fetch;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * fetch profile 별 batch size (IN 절 크기) 와 조회 지표
+ *
+ * Hibernate 의 @BatchSize / default_batch_fetch_size 는 SessionFactory 생성 시 고정되므로
+ * profile 조회에서는 이 값으로 직접 나눠서 컬렉션을 채운다. -> 재배포 없이 변경 가능
+ */
+@Component
+@EnableConfigurationProperties(BatchFetchProperties.class)
+public class BatchFetchPolicy {
+
+    // IN 절이 너무 커지지 않도록 제한 (default_batch_fetch_size 권장 범위 100 ~ 1000)
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final Map<OrderFetchProfile, AtomicInteger> batchSizes = new EnumMap<>(OrderFetchProfile.class);
+    private final Map<OrderFetchProfile, Counters> counters = new EnumMap<>(OrderFetchProfile.class);
+
+    public BatchFetchPolicy(BatchFetchProperties properties) {
+        for (OrderFetchProfile profile : OrderFetchProfile.values()) {
+            int size = properties.getBatchSizes().getOrDefault(profile.getProfileName(), properties.getDefaultBatchSize());
+            batchSizes.put(profile, new AtomicInteger(validate(size)));
+            counters.put(profile, new Counters());
+        }
+    }
+
+    public int batchSize(OrderFetchProfile profile) {
+        return batchSizes.get(profile).get();
+    }
+
+    public void setBatchSize(OrderFetchProfile profile, int batchSize) {
+        batchSizes.get(profile).set(validate(batchSize));
+    }
+
+    public void record(OrderFetchProfile profile, int rootEntities, int batchQueries, long millis) {
+        Counters c = counters.get(profile);
+        c.calls.increment();
+        c.rootEntities.add(rootEntities);
+        c.batchQueries.add(batchQueries);
+        c.millis.add(millis);
+    }
+
+    public List<FetchProfileStats> stats() {
+        List<FetchProfileStats> result = new ArrayList<>();
+        for (OrderFetchProfile profile : OrderFetchProfile.values()) {
+            Counters c = counters.get(profile);
+            long calls = c.calls.sum();
+            result.add(new FetchProfileStats(profile.getProfileName(), batchSize(profile),
+                    calls, c.rootEntities.sum(), c.batchQueries.sum(),
+                    calls == 0 ? 0 : (double) c.millis.sum() / calls));
+        }
+        return result;
+    }
+
+    private int validate(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batch size 는 1 ~ " + MAX_BATCH_SIZE + " 사이여야 합니다. batchSize = " + batchSize);
+        }
+        return batchSize;
+    }
+
+    private static class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder rootEntities = new LongAdder();
+        final LongAdder batchQueries = new LongAdder();
+        final LongAdder millis = new LongAdder();
+    }
+}
@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository.fetch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * jpashop.fetch.* 설정 (기동 시 초기값, 운영 중에는 /api/v1/fetch-profiles 로 변경)
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.fetch")
+public class BatchFetchProperties {
+
+    // profile 별 설정이 없을 때 사용 (hibernate.default_batch_fetch_size 와 같은 값)
+    private int defaultBatchSize = 100;
+
+    // profile 이름 -> batch size  ex) order-with-lines: 500
+    private Map<String, Integer> batchSizes = new HashMap<>();
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.fetch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FetchProfileStats {
+
+    private String profile;
+    private int batchSize;
+
+    private long calls; // 조회 횟수
+    private long rootEntities; // 루트 쿼리로 조회한 주문 수
+    private long batchQueries; // 컬렉션을 채우기 위해 실행한 쿼리 수
+    private double avgMillis;
+}
@@ -0,0 +1,45 @@
+package jpabook.jpashop.repository.fetch;
+
+/**
+ * 주문 조회 fetch profile
+ *
+ * order-summary: 주문 + 회원 + 배송 (toOne 만 fetch join, 페이징 가능)
+ * order-with-lines: order-summary + 주문상품 + 상품
+ *   컬렉션은 루트 쿼리에서 fetch join 하지 않고 (페이징 불가),
+ *   BatchFetchPolicy 의 batch size 만큼 나눠서 Order.withLines entity graph 로 따로 채운다.
+ *
+ * entity graph 정의는 Order 의 @NamedEntityGraph 참고
+ */
+public enum OrderFetchProfile {
+
+    SUMMARY("order-summary", false),
+    WITH_LINES("order-with-lines", true);
+
+    public static final String SUMMARY_GRAPH = "Order.summary";
+    public static final String LINES_GRAPH = "Order.withLines";
+
+    private final String profileName;
+    private final boolean loadsLines;
+
+    OrderFetchProfile(String profileName, boolean loadsLines) {
+        this.profileName = profileName;
+        this.loadsLines = loadsLines;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public boolean loadsLines() {
+        return loadsLines;
+    }
+
+    public static OrderFetchProfile of(String profileName) {
+        for (OrderFetchProfile profile : values()) {
+            if (profile.profileName.equals(profileName)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("존재하지 않는 fetch profile 입니다. profile = " + profileName);
+    }
+}
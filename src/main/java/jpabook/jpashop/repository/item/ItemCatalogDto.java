@@ -0,0 +1,41 @@
+package jpabook.jpashop.repository.item;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.domain.item.ItemType;
+import lombok.Data;
+
+/**
+ * 상품 목록 한 줄 (엔티티/categories 를 로딩하지 않는 projection)
+ */
+@Data
+public class ItemCatalogDto {
+
+    private Long id;
+    private ItemType type;
+    private String name;
+    private int price;
+    private int stockQuantity; // bucket 분할 상품은 bucket 합계 포함
+
+    @JsonIgnore
+    private boolean stockBucketed;
+
+    public ItemCatalogDto(Long id, Class<?> type, String name, int price, int stockQuantity, int stockBucketCount) {
+        this.id = id;
+        this.type = ItemType.of(type);
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.stockBucketed = stockBucketCount > 0;
+    }
+
+    /**
+     * 종류 조건으로 하위 엔티티를 조회한 경우 (type 은 조회 후 지정)
+     */
+    public ItemCatalogDto(Long id, String name, int price, int stockQuantity, int stockBucketCount) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.stockBucketed = stockBucketCount > 0;
+    }
+}
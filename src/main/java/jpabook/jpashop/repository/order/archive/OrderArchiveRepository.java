@@ -0,0 +1,161 @@
+package jpabook.jpashop.repository.order.archive;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 보관(archive) 테이블 이동 / 조회
+ *
+ * 이동은 엔티티를 로딩하지 않고 insert-select, bulk delete 로 처리한다.
+ * ** bulk 연산은 영속성 컨텍스트를 무시하므로 호출하는 쪽에서 별도 트랜잭션으로 실행할 것.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 보관 대상 주문 id (취소 또는 배송완료 + before 이전 주문)
+     */
+    public List<Long> findArchivableOrderIds(LocalDateTime before, int limit) {
+        return em.createQuery(
+                        "select o.id from Order o" +
+                                " join o.delivery d" +
+                                " where o.orderDate < :before" +
+                                " and (o.status = :cancel or d.status = :comp)" +
+                                " order by o.id", Long.class)
+                .setParameter("before", before)
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * orders / order_item / delivery -> *_archive 로 이동
+     * @return 이동한 주문 수
+     */
+    public int moveToArchive(List<Long> orderIds, LocalDateTime archivedAt) {
+        em.createNativeQuery(
+                        "insert into delivery_archive (delivery_id, city, street, zipcode, status)" +
+                                " select d.delivery_id, d.city, d.street, d.zipcode, d.status" +
+                                " from delivery d join orders o on o.delivery_id = d.delivery_id" +
+                                " where o.order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        int moved = em.createNativeQuery(
+                        "insert into orders_archive (order_id, member_id, delivery_id, order_date, status, archived_at)" +
+                                " select o.order_id, o.member_id, o.delivery_id, o.order_date, o.status, :archivedAt" +
+                                " from orders o where o.order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .setParameter("archivedAt", archivedAt)
+                .executeUpdate();
+
+        em.createNativeQuery(
+                        "insert into order_item_archive (order_item_id, order_id, item_id, order_price, count)" +
+                                " select oi.order_item_id, oi.order_id, oi.item_id, oi.order_price, oi.count" +
+                                " from order_item oi where oi.order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        // FK 순서: order_item -> orders -> delivery
+        em.createNativeQuery("delete from order_item where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        em.createNativeQuery("delete from orders where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        em.createNativeQuery(
+                        "delete from delivery where delivery_id in" +
+                                " (select a.delivery_id from orders_archive a where a.order_id in (:orderIds))")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        return moved;
+    }
+
+    /**
+     * 보관된 주문 DTO 조회 (OrderQueryRepository.findAllByDto_optimization 과 같은 방식: 루트 1번 + 컬렉션 1번)
+     * 주문 id 순, lastId 가 있으면 id > lastId (OrderQueryRepository.search 에서 hot 주문과 id 순으로 병합한다.)
+     */
+    public List<OrderQueryDto> findOrderQueryDtos(OrderSearch orderSearch, Long lastId, int limit) {
+        String jpql = "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                " from ArchivedOrder o" +
+                " join Member m on m.id = o.memberId" +
+                " join ArchivedDelivery d on d.id = o.deliveryId" +
+                " where 1 = 1";
+        if (lastId != null) {
+            jpql += " and o.id > :lastId";
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and o.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and m.name like :name";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<OrderQueryDto> query = em.createQuery(jpql, OrderQueryDto.class)
+                .setMaxResults(limit);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        List<OrderQueryDto> result = query.getResultList();
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<Long> orderIds = result.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.orderId, i.name, oi.orderPrice, oi.count)" +
+                                " from ArchivedOrderItem oi" +
+                                " join Item i on i.id = oi.itemId" +
+                                " where oi.orderId in :orderIds" +
+                                " order by oi.id", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList().stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return result;
+    }
+
+    public long countHotOrders() {
+        return em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+    }
+
+    public long countHotOrderItems() {
+        return em.createQuery("select count(oi) from OrderItem oi", Long.class).getSingleResult();
+    }
+
+    public long countArchivedOrders() {
+        return em.createQuery("select count(o) from ArchivedOrder o", Long.class).getSingleResult();
+    }
+
+    public long countArchivedOrderItems() {
+        return em.createQuery("select count(oi) from ArchivedOrderItem oi", Long.class).getSingleResult();
+    }
+}
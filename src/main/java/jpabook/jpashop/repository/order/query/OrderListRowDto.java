@@ -0,0 +1,44 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면(order/orderList) 한 줄 - 대표상품(첫 번째 주문상품)만 포함
+ */
+@Data
+public class OrderListRowDto {
+
+    private Long orderId;
+    private String memberName;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+    private OrderStatus status;
+    private LocalDateTime orderDate;
+
+    public OrderListRowDto(Long orderId, String memberName, String itemName, int orderPrice, int count, OrderStatus status, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+        this.status = status;
+        this.orderDate = orderDate;
+    }
+
+    /**
+     * 검색 결과(OrderQueryDto) 의 첫 번째 주문상품으로 한 줄을 만든다. (보관 주문 포함 검색, sharding 모드)
+     */
+    public static OrderListRowDto of(OrderQueryDto order) {
+        OrderItemQueryDto first = order.getOrderItems() == null || order.getOrderItems().isEmpty()
+                ? null : order.getOrderItems().get(0);
+        return new OrderListRowDto(order.getOrderId(), order.getName(),
+                first == null ? null : first.getItemName(),
+                first == null ? 0 : first.getOrderPrice(),
+                first == null ? 0 : first.getCount(),
+                order.getOrderStatus(), order.getOrderDate());
+    }
+}
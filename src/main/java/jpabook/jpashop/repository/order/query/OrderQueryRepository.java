@@ -1,9 +1,15 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.archive.OrderArchiveRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -14,6 +20,7 @@ import java.util.stream.Collectors;
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final OrderArchiveRepository orderArchiveRepository;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         // Collection 데이터를 제외하고 가져옴.
@@ -72,12 +79,151 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * 검색 조건 적용 버전 (hot 테이블(orders)만 조회, includeArchived 는 보지 않는다.)
+     * 보관 주문까지 포함하는 검색은 search()
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(OrderSearch orderSearch) {
+        List<OrderQueryDto> result = findOrders(orderSearch);
+        fillOrderItems(result);
+        return result;
+    }
+
+    /**
+     * 주문 검색 공통 경로 (v5, 주문 목록 화면, includeArchived 를 요청한 v3.3 / simple-orders v5) - 주문 id 순 한 페이지
+     * lastId 가 있으면 keyset 페이징 (id > lastId, offset 무시), 없으면 offset 페이징. limit 은 OrderRepository.MAX_PAGE_SIZE 까지
+     *
+     * 보관(archive) 테이블은 includeArchived 를 요청한 경우에만 같은 조건, 같은 페이지 크기(offset + limit)로 조회해서
+     * hot 주문과 id 순으로 병합한다. (보관 주문도 원래 order_id 를 그대로 가진다.)
+     * -> 기본 조회는 hot 테이블(orders)만 스캔한다.
+     */
+    public List<OrderQueryDto> search(OrderSearch orderSearch, Long lastId, int offset, int limit) {
+        int skip = lastId == null ? Math.max(offset, 0) : 0;
+        int size = Math.min(Math.max(limit, 1), OrderRepository.MAX_PAGE_SIZE);
+
+        List<OrderQueryDto> result;
+        if (!orderSearch.isIncludeArchived()) {
+            result = searchQuery(orderSearch, lastId)
+                    .setFirstResult(skip)
+                    .setMaxResults(size)
+                    .getResultList();
+        } else {
+            List<OrderQueryDto> hot = searchQuery(orderSearch, lastId)
+                    .setMaxResults(skip + size)
+                    .getResultList();
+            List<OrderQueryDto> archived = orderArchiveRepository.findOrderQueryDtos(orderSearch, lastId, skip + size);
+            List<OrderQueryDto> merged = mergeById(hot, archived, skip + size);
+            result = new ArrayList<>(merged.subList(Math.min(skip, merged.size()), merged.size()));
+        }
+
+        // 보관 주문은 주문상품까지 채워져 있다.
+        fillOrderItems(result.stream().filter(o -> o.getOrderItems() == null).collect(Collectors.toList()));
+        return result;
+    }
+
+    private static List<OrderQueryDto> mergeById(List<OrderQueryDto> a, List<OrderQueryDto> b, int limit) {
+        List<OrderQueryDto> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && a.get(i).getOrderId() < b.get(j).getOrderId())) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    public List<OrderQueryDto> findOrders(OrderSearch orderSearch) {
+        return searchQuery(orderSearch, null).getResultList();
+    }
+
+    /**
+     * 주문 id 순 검색 쿼리 (lastId 가 있으면 id > lastId)
+     */
+    private TypedQuery<OrderQueryDto> searchQuery(OrderSearch orderSearch, Long lastId) {
+        String jpql = "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.delivery d" +
+                " where 1 = 1";
+        if (lastId != null) {
+            jpql += " and o.id > :lastId";
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and o.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and m.name like :name";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<OrderQueryDto> query = em.createQuery(jpql, OrderQueryDto.class);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        return query;
+    }
+
+    private void fillOrderItems(List<OrderQueryDto> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(orders)).stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+        orders.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), new ArrayList<>())));
+    }
+
+    /**
+     * 주문 목록 화면용 DTO 조회 (id 순 keyset, lastId 가 null 이면 처음부터)
+     * 대표상품은 주문별 가장 작은 order_item_id 한 건 -> 엔티티/지연 로딩 없이 쿼리 1번으로 한 줄을 만든다.
+     */
+    public List<OrderListRowDto> findOrderListRows(OrderSearch orderSearch, Long lastId, int limit) {
+        String jpql = "select new jpabook.jpashop.repository.order.query.OrderListRowDto(o.id, m.name, i.name, oi.orderPrice, oi.count, o.status, o.orderDate)" +
+                " from Order o" +
+                " join o.member m" +
+                " join o.orderItems oi" +
+                " join oi.item i" +
+                " where oi.id = (select min(oi2.id) from OrderItem oi2 where oi2.order = o)";
+        if (lastId != null) {
+            jpql += " and o.id > :lastId";
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and o.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and m.name like :name";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<OrderListRowDto> query = em.createQuery(jpql, OrderListRowDto.class)
+                .setMaxResults(limit);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        return query.getResultList();
+    }
+
     private List<OrderItemQueryDto> findOrderItemMap(List<Long> orderIds) {
         List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, oi.item.name, oi.orderPrice, oi.count)  " +
                                 " from OrderItem oi" +
                                 " join oi.item i" +
-                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                                " where oi.order.id in :orderIds" +
+                                " order by oi.id", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
         return orderItems;
@@ -0,0 +1,21 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 대량 가입 요청 한 건의 결과
+ */
+@Data
+@AllArgsConstructor
+public class BulkJoinResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID,
+        FAILED // DB 오류로 처리하지 못함 (다시 요청하면 된다)
+    }
+
+    private int index; // 요청 배열에서의 위치
+    private Long id; // CREATED 인 경우만
+    private Status status;
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.ItemType;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 상품 일괄 변경 조건/내용
+ *
+ * 대상: itemType, categoryId (null 이면 조건 없음)
+ * 변경: pricePercent -> priceDelta 순서로 적용, stockDelta (null 이면 변경 없음)
+ * 가격/재고는 0 아래로 내려가지 않는다.
+ */
+@Getter @Setter
+public class ItemBulkUpdateCommand {
+
+    private ItemType itemType;
+    private Long categoryId;
+
+    private Integer pricePercent; // 10 -> 10% 인상, -10 -> 10% 인하 (원 단위 미만 버림)
+    private Integer priceDelta; // 가격 증감 (원)
+    private Integer stockDelta; // 재고 증감
+
+    public boolean hasPriceChange() {
+        return pricePercent != null || priceDelta != null;
+    }
+
+    public boolean hasStockChange() {
+        return stockDelta != null;
+    }
+}
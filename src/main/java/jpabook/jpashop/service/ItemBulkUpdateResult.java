@@ -0,0 +1,13 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemBulkUpdateResult {
+
+    private long updated; // 변경된 상품 수
+    private int chunks; // 실행한 update 문 (트랜잭션) 수
+    private long elapsedMillis;
+}
@@ -0,0 +1,98 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 상품 가격/재고 일괄 변경
+ *
+ * updateItem()/change() 처럼 상품마다 조회 + 변경 감지를 하면 상품 수만큼 select/update 가 나간다.
+ * 여기서는 CHUNK_SIZE 개의 id 를 keyset 으로 조회하고 update ... where id in (...) 한 번으로 변경한다.
+ * 청크마다 트랜잭션을 나눠서 lock 을 오래 잡지 않는다.
+ *
+ * 벌크 update 는 영속성 컨텍스트/2차 캐시를 거치지 않으므로 청크마다 em.clear(),
+ * 재고 bucket 분할 상품의 재고는 update 문에서 제외하고 StockBucketService 로 bucket 에 다시 나눈다.
+ *
+ * 끝나면 Item 2차 캐시 영역을 비운다. (OSIV 로 요청 동안 영속성 컨텍스트가 유지되는 경우에도 stale 엔티티가 남지 않도록)
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ItemBulkUpdateService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final StockBucketService stockBucketService;
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+
+    public ItemBulkUpdateService(ItemRepository itemRepository, StockBucketService stockBucketService, EntityManager em,
+                                 PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.stockBucketService = stockBucketService;
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ItemBulkUpdateResult bulkUpdate(ItemBulkUpdateCommand command) {
+        if (!command.hasPriceChange() && !command.hasStockChange()) {
+            throw new IllegalArgumentException("변경할 가격 또는 재고를 입력해야 합니다.");
+        }
+        if (command.getPricePercent() != null && command.getPricePercent() < -100) {
+            throw new IllegalArgumentException("가격 인하율은 100% 를 넘을 수 없습니다.");
+        }
+
+        long start = System.currentTimeMillis();
+        Class<? extends Item> type = command.getItemType() == null ? null : command.getItemType().getEntityClass();
+        long updated = 0;
+        int chunks = 0;
+        Long lastId = 0L;
+
+        while (true) {
+            Long after = lastId;
+            int[] changed = new int[1]; // 청크에서 실제로 변경된 행 수
+            List<Long> ids = chunkTransaction.execute(status -> {
+                List<Long> chunk = itemRepository.findIdsAfter(type, command.getCategoryId(), after, CHUNK_SIZE);
+                if (!chunk.isEmpty()) {
+                    changed[0] = itemRepository.bulkUpdate(chunk, command.getPricePercent(), command.getPriceDelta(), command.getStockDelta());
+                    if (command.hasStockChange()) {
+                        for (Long itemId : itemRepository.findStockBucketedIds(chunk)) {
+                            stockBucketService.changeTotalBy(itemId, command.getStockDelta());
+                        }
+                        em.flush(); // bucket 변경분을 clear 전에 반영
+                    }
+                }
+                em.clear();
+                return chunk;
+            });
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            updated += changed[0];
+            chunks++;
+            if (ids.size() < CHUNK_SIZE) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        em.getEntityManagerFactory().getCache().evict(Item.class);
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("item bulk update finished. updated = {}, chunks = {}, {}ms", updated, chunks, elapsed);
+        return new ItemBulkUpdateResult(updated, chunks, elapsed);
+    }
+}
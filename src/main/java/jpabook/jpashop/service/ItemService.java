@@ -1,7 +1,12 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.repository.ItemCatalogSearch;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +19,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockBucketService stockBucketService;
 
     @Transactional // @Transactional(readOnly = false)
     public void saveItem(Item item) {
@@ -47,15 +53,29 @@ public class ItemService {
     public void change(Long itemId, String name, int price, int stockQuantity) {
         Item findItem = itemRepository.findOne(itemId);
 
+        if (findItem.isStockBucketed()) {
+            // 재고 bucket 분할 상품은 bucket 에 다시 나눈다.
+            stockBucketService.changeTotal(findItem, stockQuantity);
+        } else {
+            findItem.setStockQuantity(stockQuantity);
+        }
         findItem.setName(name);
         findItem.setPrice(price);
-        findItem.setStockQuantity(stockQuantity);
     }
 
+    @WorkloadPool(WorkloadType.LISTING)
     public List<Item> findItems() {
         return itemRepository.findAll();
     }
 
+    /**
+     * 상품 목록 페이지 (전체 조회 findItems 대신 화면/API 에서 사용)
+     */
+    @WorkloadPool(WorkloadType.LISTING)
+    public List<ItemCatalogDto> findCatalog(ItemCatalogSearch search, Long lastId, int limit) {
+        return itemRepository.findCatalog(search, lastId, limit);
+    }
+
     public Item findOne(Long itemId) {
         return itemRepository.findOne(itemId);
     }
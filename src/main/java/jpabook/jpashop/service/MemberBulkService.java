@@ -0,0 +1,185 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.exception.DuplicateMemberException;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.BulkJoinResult.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+
+/**
+ * 회원 대량 가입
+ *
+ * CHUNK_SIZE 단위로 트랜잭션을 나눠서
+ * 1. 청크 전체 이름을 IN 쿼리 한 번으로 중복 검사
+ * 2. persist 후 JDBC batch insert (id 는 member_seq pooled 할당)
+ * 3. flush/clear 로 영속성 컨텍스트를 비운다.
+ *
+ * 동시에 다른 요청이 같은 이름을 가입해서 unique 제약조건에 걸리면
+ * 그 청크만 롤백하고 한 건씩 MemberService.join() 으로 다시 처리한다.
+ * (flush 는 repository 밖이라 Spring 예외 변환이 적용되지 않는다.
+ *  -> flush 의 PersistenceException, commit 의 DataIntegrityViolationException 모두 원인에서 ConstraintViolationException 을 찾는다.)
+ *
+ * 그 밖의 오류로 청크가 실패하면 이미 커밋된 청크의 결과는 그대로 돌려주고,
+ * 실패한 청크와 남은 요청은 FAILED 로 표시한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class MemberBulkService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final MemberRepository memberRepository;
+    private final MemberService memberService;
+    private final MemberNameFilter memberNameFilter;
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+
+    public MemberBulkService(MemberRepository memberRepository, MemberService memberService,
+                             MemberNameFilter memberNameFilter, EntityManager em,
+                             PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.memberService = memberService;
+        this.memberNameFilter = memberNameFilter;
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return 요청 순서대로 결과
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkJoinResult> joinAll(List<String> names) {
+        return joinAll(names.iterator());
+    }
+
+    /**
+     * names 를 CHUNK_SIZE 개씩 읽어서 처리한다. -> 요청 본문을 스트림으로 읽는 경우 전체를 메모리에 올리지 않는다.
+     * 청크가 실패하면 남은 요청은 DB 에 보내지 않고 FAILED 로 표시한다.
+     * @return 요청 순서대로 결과
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkJoinResult> joinAll(Iterator<String> names) {
+        List<BulkJoinResult> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        boolean failed = false;
+
+        while (names.hasNext()) {
+            int from = results.size();
+            // 요청 안에서의 중복/빈 이름은 DB 조회 전에 걸러낸다. (먼저 나온 이름이 우선)
+            Map<Integer, String> candidates = new LinkedHashMap<>();
+            while (results.size() < from + CHUNK_SIZE && names.hasNext()) {
+                int i = results.size();
+                String name = names.next();
+                if (failed) {
+                    results.add(new BulkJoinResult(i, null, Status.FAILED));
+                } else if (name == null || name.isBlank()) {
+                    results.add(new BulkJoinResult(i, null, Status.INVALID));
+                } else if (!seen.add(name)) {
+                    results.add(new BulkJoinResult(i, null, Status.DUPLICATE));
+                } else {
+                    results.add(null);
+                    candidates.put(i, name);
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            try {
+                joinChunk(candidates, results);
+            } catch (RuntimeException e) {
+                log.error("bulk join chunk failed. from = {}", from, e);
+                markFailed(results, from);
+                failed = true;
+            }
+        }
+        return results;
+    }
+
+    private void joinChunk(Map<Integer, String> candidates, List<BulkJoinResult> results) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> insertChunk(candidates, results));
+        } catch (RuntimeException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            log.info("bulk join chunk conflicted with concurrent join. retry one by one. size = {}", candidates.size());
+            for (Map.Entry<Integer, String> candidate : candidates.entrySet()) {
+                results.set(candidate.getKey(), joinOne(candidate.getKey(), candidate.getValue()));
+            }
+        }
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 실패한 청크에서 insertChunk 가 채운 결과는 롤백됐으므로 from 이후는 모두 덮어쓴다.
+     */
+    private static void markFailed(List<BulkJoinResult> results, int from) {
+        for (int i = from; i < results.size(); i++) {
+            if (results.get(i) == null || results.get(i).getStatus() == Status.CREATED) {
+                results.set(i, new BulkJoinResult(i, null, Status.FAILED));
+            }
+        }
+    }
+
+    private void insertChunk(Map<Integer, String> candidates, List<BulkJoinResult> results) {
+        Set<String> existing = new HashSet<>(memberRepository.findExistingNames(candidates.values()));
+
+        // 이 트랜잭션에서만 JDBC batch 사용 (전역 hibernate.jdbc.batch_size 는 건드리지 않음)
+        em.unwrap(Session.class).setJdbcBatchSize(CHUNK_SIZE);
+
+        List<Member> created = new ArrayList<>();
+        List<Integer> createdIndexes = new ArrayList<>();
+        for (Map.Entry<Integer, String> candidate : candidates.entrySet()) {
+            if (existing.contains(candidate.getValue())) {
+                results.set(candidate.getKey(), new BulkJoinResult(candidate.getKey(), null, Status.DUPLICATE));
+                continue;
+            }
+            Member member = new Member();
+            member.setName(candidate.getValue());
+            em.persist(member);
+            created.add(member);
+            createdIndexes.add(candidate.getKey());
+        }
+        em.flush();
+        em.clear();
+
+        for (int i = 0; i < created.size(); i++) {
+            Member member = created.get(i);
+            memberNameFilter.put(member.getName());
+            results.set(createdIndexes.get(i), new BulkJoinResult(createdIndexes.get(i), member.getId(), Status.CREATED));
+        }
+    }
+
+    private BulkJoinResult joinOne(int index, String name) {
+        Member member = new Member();
+        member.setName(name);
+        try {
+            return new BulkJoinResult(index, memberService.join(member), Status.CREATED);
+        } catch (DuplicateMemberException e) {
+            return new BulkJoinResult(index, null, Status.DUPLICATE);
+        } catch (RuntimeException e) {
+            // 한 건씩 커밋하므로 앞서 가입된 건은 그대로 두고 이 건만 실패로 돌려준다.
+            log.warn("bulk join retry failed. name = {}", name, e);
+            return new BulkJoinResult(index, null, Status.FAILED);
+        }
+    }
+}
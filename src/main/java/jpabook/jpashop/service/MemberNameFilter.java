@@ -0,0 +1,170 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.MemberRepository.MemberNameView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 Bloom filter
+ *
+ * mightExist() 가 false 이면 "확실히 없는 이름" -> 중복 조회 없이 가입 진행
+ * true 이면 있을 수도 있으므로 DB 로 확인한다.
+ *
+ * 필터는 최적화일 뿐이고 정확성은 member.name unique 제약조건이 보장한다.
+ * (다른 서버에서 가입한 이름을 모르는 경우에도 insert 시 제약조건 위반으로 걸러진다.)
+ * 기동 후 warm-up 이 끝나기 전에는 항상 DB 로 확인한다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MemberNameFilterProperties.class)
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final MemberNameFilterProperties properties;
+    private final TransactionTemplate readTransaction;
+
+    private final AtomicLongArray bits;
+    private final int bitSize;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    private final AtomicLong skippedQueries = new AtomicLong();
+    private final AtomicLong checkedQueries = new AtomicLong();
+
+    public MemberNameFilter(MemberRepository memberRepository, MemberNameFilterProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long n = Math.max(1, properties.getExpectedInsertions());
+        double p = properties.getFalsePositiveProbability();
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.bitSize = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitSize + 63) / 64);
+    }
+
+    /**
+     * InitDb 등 기동 시 저장된 회원까지 포함하도록 기동 완료 후 전체 이름 적재
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long count = 0;
+        Long lastId = 0L;
+        try {
+            while (true) {
+                Long after = lastId;
+                List<MemberNameView> chunk = readTransaction.execute(status ->
+                        memberRepository.findNamesAfter(after, PageRequest.of(0, properties.getWarmUpChunkSize())));
+                for (MemberNameView view : chunk) {
+                    put(view.getName());
+                }
+                count += chunk.size();
+                if (chunk.size() < properties.getWarmUpChunkSize()) {
+                    break;
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } catch (RuntimeException e) {
+            // 필터 없이도 동작은 정확하므로 기동은 계속하고 DB 조회로 중복 검사
+            log.warn("member name filter warm-up failed. duplicate check falls back to query", e);
+            return;
+        }
+        ready = true;
+        log.info("member name filter ready. names = {}, bits = {}, hashes = {}, {}ms",
+                count, bitSize, hashCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return false 이면 존재하지 않는 이름이 확실하다.
+     */
+    public boolean mightExist(String name) {
+        if (!ready || name == null) {
+            checkedQueries.incrementAndGet();
+            return true;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                skippedQueries.incrementAndGet();
+                return false;
+            }
+        }
+        checkedQueries.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 가입/이름 변경 시 호출. 트랜잭션이 롤백되어도 남지만 오탐이 하나 늘어날 뿐이다.
+     */
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+            long word;
+            do {
+                word = bits.get(index);
+            } while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 필터만으로 중복 조회를 생략한 횟수
+    public long getSkippedQueries() {
+        return skippedQueries.get();
+    }
+
+    // DB 로 확인한 횟수
+    public long getCheckedQueries() {
+        return checkedQueries.get();
+    }
+
+    /**
+     * UTF-8 바이트에 대한 64bit FNV-1a + murmur3 finalizer (상위/하위 32bit 를 두 개의 해시로 사용)
+     */
+    private static long hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
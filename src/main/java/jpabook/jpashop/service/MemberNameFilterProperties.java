@@ -0,0 +1,25 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.member.name-filter.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.member.name-filter")
+public class MemberNameFilterProperties {
+
+    // false 이면 항상 DB 로 중복 검사
+    private boolean enabled = true;
+
+    // 예상 회원 수 - 넘어서면 오탐률이 올라간다. (오탐이어도 DB 조회만 추가될 뿐 결과는 정확)
+    private int expectedInsertions = 1_000_000;
+
+    // 목표 오탐률
+    private double falsePositiveProbability = 0.01;
+
+    // warm-up 시 한번에 읽을 회원 수
+    private int warmUpChunkSize = 10_000;
+}
@@ -1,8 +1,11 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.exception.DuplicateMemberException;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +21,7 @@ public class MemberService {
 //    private MemberRepository memberRepository;
 
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
 
 //    @Autowired // @Autowired 해결방안 -> setter injection
 //               // 단점: RunTime 시점에 누군가가 변경 가능한 위험 부담.
@@ -39,19 +43,50 @@ public class MemberService {
     public Long join(Member member) {
         // 중복 회원 검증
         validateDuplicateMember(member);
-        memberRepository.save(member);
+        memberNameFilter.put(member.getName());
+        saveAndFlush(member);
         return member.getId();
     }
 
+    /**
+     * 사전 검사 (빠른 실패용)
+     * 동시에 같은 이름으로 가입하는 경우는 여기서 못 막고, insert 시 unique 제약조건으로 막는다.
+     */
     public void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        // 검증 조건인 MEMBER 테이블의 NAME 컬럽은 'UNIQUE' 제약 조건을 추가해놓는 것이 안전하다.
+        if (!memberNameFilter.mightExist(member.getName())) {
+            return; // 확실히 없는 이름 -> 조회 생략
+        }
+//        List<Member> findMembers = memberRepository.findByName(member.getName());
+        // 검증 조건인 MEMBER 테이블의 NAME 컬럽은 'UNIQUE' 제약 조건을 추가해놓는 것이 안전하다. -> uk_member_name
+        // 엔티티 목록 대신 존재 여부만 조회
 
-        if(!findMembers.isEmpty()) {
+        if(memberRepository.existsByName(member.getName())) {
 //      if(findMembers.size() > 0)
             // EXCEPTION
-            throw new IllegalStateException("이미 존재하는 회원입니다.");
+            throw new DuplicateMemberException();
+        }
+    }
+
+    /**
+     * 메서드 안에서 flush 해서 제약조건 위반을 커밋 시점이 아닌 여기서 DuplicateMemberException 으로 변환한다.
+     */
+    private void saveAndFlush(Member member) {
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            if (isNameConstraintViolation(e)) {
+                throw new DuplicateMemberException(e);
+            }
+            throw e;
+        }
+    }
+
+    private boolean isNameConstraintViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
         }
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase().contains(Member.UK_NAME);
     }
 
     /**
@@ -67,6 +102,7 @@ public class MemberService {
         return memberRepository.findById(memberId).get();
     }
 
+    @Transactional // 클래스 레벨 readOnly 가 적용되면 replica 로 라우팅 되고 flush 도 되지 않는다.
     public void update(Long id, String name) {
 //    public member update(Long id, String name) {
         // command와 query 구분하기 위해서 Entity 타입으로 리턴하지 않는다.
@@ -81,5 +117,7 @@ public class MemberService {
          * we need to .get() method to get Entity data.
          */
         member.setName(name);
+        memberNameFilter.put(name);
+        saveAndFlush(member);
     }
 }
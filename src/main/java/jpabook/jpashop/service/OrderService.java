@@ -1,20 +1,24 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
 import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.inventory.StockBucketService;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
-import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.outbox.OrderEventPublisher;
+import jpabook.jpashop.sharding.ShardedOrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
@@ -23,12 +27,33 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final ObjectProvider<ShardedOrderService> shardedOrderService; // jpashop.sharding.enabled=true 인 경우에만 존재
+    private final ObjectProvider<OrderEventPublisher> orderEventPublisher; // jpashop.outbox.enabled=true 인 경우에만 존재
+    private final StockBucketService stockBucketService;
 
     /**
      * 주문
      */
     @Transactional
+    @WorkloadPool(WorkloadType.CHECKOUT)
     public Long order(Long memberId, Long itemId, int count) {
+        ShardedOrderService sharded = shardedOrderService.getIfAvailable();
+        if (sharded != null) {
+            // sharding 모드: 재고는 central, 주문은 member_id 로 결정된 shard 에 저장
+            Long orderId = sharded.order(memberId, itemId, count);
+            orderEventPublisher.ifAvailable(publisher -> publisher.orderPlaced(orderId, memberId, itemId, count));
+            return orderId;
+        }
+        return placeOrder(memberId, itemId, count);
+    }
+
+    /**
+     * 주문 생성 (order() 의 트랜잭션 또는 GroupCommitOrderService 가 여러 주문을 묶은 트랜잭션 안에서 호출)
+     * group commit 은 실패한 주문만 savepoint 로 되돌리므로 예외가 나도 바깥 트랜잭션을 rollback-only 로 표시하지 않는다.
+     * (order() 로 호출한 경우에는 order() 의 트랜잭션이 롤백된다.)
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = RuntimeException.class)
+    public Long placeOrder(Long memberId, Long itemId, int count) {
         // memberId만 받았기 떄문에 MemberRepository 필요
         // itemId만 받았기 떄문에 ItemRepository 필요
         // 엔티티 조회
@@ -42,7 +67,14 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
 
         // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem;
+        if (item.isStockBucketed()) {
+            // 재고 bucket 분할 상품: item 행 대신 bucket 하나만 잠그고 차감
+            stockBucketService.decrease(item, count);
+            orderItem = OrderItem.createOrderItemWithoutStock(item, item.getPrice(), count);
+        } else {
+            orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        }
 //        OrderItem orderItem1 = new OrderItem(); // 생성자 Access protected로 제한해서 제약을 줄 것 -> 유지보수 효율 높이는 방법
 
         // 주문 생성 (일단 단일 상품만 주문 되도록 지정)
@@ -51,6 +83,9 @@ public class OrderService {
         // 주문 저장
         orderRepository.save(order);
         // delivery, orderItem은 cascade = CascadeType.ALL 옵션 설정으로 Order save 실행할 때 자동으로 save 실행 된다.
+
+        // 주문과 같은 트랜잭션에서 outbox 이벤트 기록
+        orderEventPublisher.ifAvailable(publisher -> publisher.orderPlaced(order.getId(), memberId, itemId, count));
         return order.getId();
     }
 
@@ -58,11 +93,25 @@ public class OrderService {
      * 주문 취소
      */
     @Transactional
+    @WorkloadPool(WorkloadType.CHECKOUT)
     public void cancelOrder(Long orderId) {
+        ShardedOrderService sharded = shardedOrderService.getIfAvailable();
+        if (sharded != null) {
+            sharded.cancelOrder(orderId);
+            orderEventPublisher.ifAvailable(publisher -> publisher.orderCancelled(orderId));
+            return;
+        }
+
         // 주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
+        for (OrderItem orderItem : order.getOrderItems()) {
+            if (orderItem.getItem().isStockBucketed()) {
+                stockBucketService.lockForCancel(orderItem.getItem());
+            }
+        }
         // 주문 취소
         order.cancel();
+        orderEventPublisher.ifAvailable(publisher -> publisher.orderCancelled(orderId));
         /**
          * 도메일 모델 패턴의 장점
          * 엔티티에 대해 (단위) 테스트 작성 가능 (핵심 비즈니스 로직이 대부분 엔티티에 포함 되어 있기 때문.)
@@ -73,11 +122,4 @@ public class OrderService {
          * entity 데이터만 변경하면 변경 내역 감지가 일어나면서 변경 내역을 찾아 데이터 베이스에 update 쿼리가 자동으로 전달 된다.
          */
     }
-
-    // 검색
-    public List<Order> findOrders(OrderSearch orderSearch) {
-//        return orderRepository.findAllByString(orderSearch);
-//        return orderRepository.findAllByCriteria(orderSearch);
-        return orderRepository.findAll(orderSearch);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package jpabook.jpashop.service.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ArchiveStats {
+
+    private long hotOrders;
+    private long hotOrderItems;
+    private long archivedOrders;
+    private long archivedOrderItems;
+
+    // 마지막 실행 결과
+    private LocalDateTime lastRunAt;
+    private long lastRunArchived;
+    private long lastRunMillis;
+}
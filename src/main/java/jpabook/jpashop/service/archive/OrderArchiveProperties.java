@@ -0,0 +1,24 @@
+package jpabook.jpashop.service.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.archive.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.archive")
+public class OrderArchiveProperties {
+
+    // 스케줄 실행 여부 (수동 실행 API 는 항상 사용 가능)
+    private boolean enabled = false;
+
+    private String cron = "0 0 4 * * *";
+
+    // 주문일 기준 보관 기간
+    private int retentionDays = 90;
+
+    // 한 트랜잭션에서 옮길 주문 수
+    private int batchSize = 500;
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.service.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * jpashop.archive.enabled=true 이면 jpashop.archive.cron 주기로 보관 작업 실행
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.archive", name = "enabled", havingValue = "true")
+public class OrderArchiveScheduler {
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Scheduled(cron = "${jpashop.archive.cron:0 0 4 * * *}")
+    public void archive() {
+        orderArchiveService.archive();
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.service.archive;
+
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
+import jpabook.jpashop.repository.order.archive.OrderArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 완료/취소된 오래된 주문을 보관 테이블로 옮긴다.
+ *
+ * batchSize 단위로 트랜잭션을 나눠서 커밋한다.
+ * -> 한번에 옮기면 트랜잭션이 길어지고 hot 테이블 lock 을 오래 잡는다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@WorkloadPool(WorkloadType.REPORTING)
+public class OrderArchiveService {
+
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final OrderArchiveProperties properties;
+    private final TransactionTemplate batchTransaction;
+
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunArchived;
+    private volatile long lastRunMillis;
+
+    public OrderArchiveService(OrderArchiveRepository orderArchiveRepository,
+                               OrderArchiveProperties properties,
+                               PlatformTransactionManager transactionManager) {
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * retentionDays 보다 오래된 주문 보관
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long archive() {
+        return archive(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    /**
+     * before 이전의 취소/배송완료 주문 보관
+     * @return 보관된 주문 수
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized long archive(LocalDateTime before) {
+        long start = System.currentTimeMillis();
+        long total = 0;
+
+        while (true) {
+            Integer moved = batchTransaction.execute(status -> {
+                List<Long> orderIds = orderArchiveRepository.findArchivableOrderIds(before, properties.getBatchSize());
+                if (orderIds.isEmpty()) {
+                    return 0;
+                }
+                return orderArchiveRepository.moveToArchive(orderIds, LocalDateTime.now());
+            });
+
+            total += moved;
+            if (moved < properties.getBatchSize()) {
+                break;
+            }
+        }
+
+        lastRunAt = LocalDateTime.now();
+        lastRunArchived = total;
+        lastRunMillis = System.currentTimeMillis() - start;
+        log.info("order archive finished. archived = {}, before = {}, {}ms", total, before, lastRunMillis);
+        return total;
+    }
+
+    public ArchiveStats stats() {
+        return new ArchiveStats(
+                orderArchiveRepository.countHotOrders(),
+                orderArchiveRepository.countHotOrderItems(),
+                orderArchiveRepository.countArchivedOrders(),
+                orderArchiveRepository.countArchivedOrderItems(),
+                lastRunAt, lastRunArchived, lastRunMillis);
+    }
+}
@@ -3,6 +3,7 @@ package jpabook.jpashop.service.query;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
@@ -38,5 +39,19 @@ public class OrderDto {
                 .map(orderItem -> new OrderItemDto(orderItem))
                 .collect(toList());
     }
+
+    /**
+     * sharding 모드 (shard 주문은 엔티티가 아니므로 조회 DTO 에서 변환)
+     */
+    public OrderDto(OrderQueryDto order) {
+        orderId = order.getOrderId();
+        name = order.getName();
+        orderDate = order.getOrderDate();
+        orderStatus = order.getOrderStatus();
+        address = order.getAddress();
+        orderItems = order.getOrderItems().stream()
+                .map(OrderItemDto::new)
+                .collect(toList());
+    }
 }
 
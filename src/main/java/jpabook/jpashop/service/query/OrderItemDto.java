@@ -1,6 +1,7 @@
 package jpabook.jpashop.service.query;
 
 import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import lombok.Getter;
 
 @Getter
@@ -15,4 +16,10 @@ public class OrderItemDto {
         orderPrice = orderItem.getOrderPrice();
         count = orderItem.getCount();
     }
+
+    public OrderItemDto(OrderItemQueryDto orderItem) {
+        itemName = orderItem.getItemName();
+        orderPrice = orderItem.getOrderPrice();
+        count = orderItem.getCount();
+    }
 }
\ No newline at end of file
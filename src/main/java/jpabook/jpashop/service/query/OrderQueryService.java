@@ -1,8 +1,17 @@
 package jpabook.jpashop.service.query;
 
+import jpabook.jpashop.datasource.WorkloadPool;
+import jpabook.jpashop.datasource.WorkloadType;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.fetch.OrderFetchProfile;
+import jpabook.jpashop.repository.order.query.OrderListRowDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.sharding.ShardedOrderQueryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,13 +21,53 @@ import static java.util.stream.Collectors.toList;
 
 @Service
 @Transactional(readOnly = true)
+@WorkloadPool(WorkloadType.LISTING)
 @RequiredArgsConstructor
 public class OrderQueryService {
 
     private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectProvider<ShardedOrderQueryRepository> shardedOrderQueryRepository; // jpashop.sharding.enabled=true 인 경우에만 존재
 
-    public List<OrderDto> ordersV3_osviOff() {
-        List<Order> orders = orderRepository.findAllWithItem();
+    /**
+     * 주문 검색 공통 경로 - 주문 id 순 한 페이지 (lastId 가 있으면 keyset 페이징)
+     * sharding 모드는 shard 전체, 아니면 hot 테이블 + (includeArchived 이면) 보관 테이블을 같은 페이지 크기로 조회한다.
+     */
+    public List<OrderQueryDto> searchOrders(OrderSearch orderSearch, Long lastId, int offset, int limit) {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findPage(orderSearch, lastId, offset, limit);
+        }
+        return orderQueryRepository.search(orderSearch, lastId, offset, limit);
+    }
+
+    /**
+     * 주문 목록 화면 한 chunk (대표상품 한 줄)
+     * hot 테이블만 조회하는 경우는 쿼리 1번으로 한 줄을 만드는 전용 쿼리를 사용한다.
+     */
+    public List<OrderListRowDto> findOrderListRows(OrderSearch orderSearch, Long lastId, int limit) {
+        if (usesSearch(orderSearch)) {
+            return searchOrders(orderSearch, lastId, 0, limit).stream()
+                    .map(OrderListRowDto::of)
+                    .collect(toList());
+        }
+        return orderQueryRepository.findOrderListRows(orderSearch, lastId, limit);
+    }
+
+    /**
+     * 트랜잭션 안에서 DTO 로 변환까지 끝내므로 영속성 컨텍스트가 필요 없다.
+     * -> StatelessSession 조회 (스냅샷/1차 캐시 없음, flush 없음)
+     * 주문 id 한 페이지를 먼저 조회한 뒤 그 주문들만 fetch join 한다. (lastId 가 있으면 keyset 페이징)
+     */
+    public List<OrderDto> ordersV3_osviOff(Long lastId, int offset, int limit) {
+        ShardedOrderQueryRepository sharded = shardedOrderQueryRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.findPage(new OrderSearch(), lastId, offset, limit).stream()
+                    .map(OrderDto::new)
+                    .collect(toList());
+        }
+//        List<Order> orders = orderRepository.findAllWithItem();
+        List<Order> orders = orderRepository.findAllWithItemStateless(lastId, offset, limit);
 
         List<OrderDto> result = orders.stream()
                 .map(o -> new OrderDto(o))
@@ -27,5 +76,41 @@ public class OrderQueryService {
 
         return result;
     }
-}
 
+    /**
+     * order-with-lines profile - 주문상품까지 트랜잭션 안에서 채워서 반환 (OSIV off 에서도 사용 가능)
+     */
+    public List<OrderDto> ordersWithLines(OrderSearch orderSearch, int offset, int limit) {
+        OrderRepository.checkPage(offset, limit);
+        if (usesSearch(orderSearch)) {
+            return searchOrders(orderSearch, null, offset, limit).stream()
+                    .map(OrderDto::new)
+                    .collect(toList());
+        }
+        return orderRepository.findAll(orderSearch, OrderFetchProfile.WITH_LINES, offset, limit).stream()
+                .map(OrderDto::new)
+                .collect(toList());
+    }
+
+    /**
+     * order-summary profile - 주문상품은 조회하지 않는다.
+     */
+    public List<OrderSummaryDto> orderSummaries(OrderSearch orderSearch, int offset, int limit) {
+        OrderRepository.checkPage(offset, limit);
+        if (usesSearch(orderSearch)) {
+            return searchOrders(orderSearch, null, offset, limit).stream()
+                    .map(OrderSummaryDto::new)
+                    .collect(toList());
+        }
+        return orderRepository.findAll(orderSearch, OrderFetchProfile.SUMMARY, offset, limit).stream()
+                .map(OrderSummaryDto::new)
+                .collect(toList());
+    }
+
+    /**
+     * 엔티티 조회(fetch profile, 전용 쿼리) 로 처리할 수 없는 경우 - 보관 주문 포함, sharding 모드
+     */
+    private boolean usesSearch(OrderSearch orderSearch) {
+        return orderSearch.isIncludeArchived() || shardedOrderQueryRepository.getIfAvailable() != null;
+    }
+}
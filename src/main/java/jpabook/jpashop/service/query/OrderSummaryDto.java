@@ -0,0 +1,38 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * order-summary profile 용 DTO (주문상품 제외)
+ */
+@Getter
+public class OrderSummaryDto {
+
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+
+    public OrderSummaryDto(Order order) {
+        orderId = order.getId();
+        name = order.getMember().getName();
+        orderDate = order.getOrderDate();
+        orderStatus = order.getStatus();
+        address = order.getDelivery().getAddress();
+    }
+
+    public OrderSummaryDto(OrderQueryDto order) {
+        orderId = order.getOrderId();
+        name = order.getName();
+        orderDate = order.getOrderDate();
+        orderStatus = order.getOrderStatus();
+        address = order.getAddress();
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * shard 별 connection pool / JdbcTemplate / TransactionTemplate 보관
+ * shard pool 은 JPA 와 무관하므로 DataSource bean 으로 등록하지 않는다.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources;
+    private final List<JdbcTemplate> jdbcTemplates = new ArrayList<>();
+    private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+
+    public ShardDataSources(List<HikariDataSource> dataSources) {
+        this.dataSources = dataSources;
+        for (HikariDataSource dataSource : dataSources) {
+            jdbcTemplates.add(new JdbcTemplate(dataSource));
+            transactionTemplates.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public HikariDataSource dataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public JdbcTemplate jdbcTemplate(int shard) {
+        return jdbcTemplates.get(shard);
+    }
+
+    public TransactionTemplate transactionTemplate(int shard) {
+        return transactionTemplates.get(shard);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
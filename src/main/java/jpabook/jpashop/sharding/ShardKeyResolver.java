@@ -0,0 +1,41 @@
+package jpabook.jpashop.sharding;
+
+/**
+ * shard 결정 규칙
+ *
+ * 주문: member_id 해시 % shard 개수
+ * 주문 id: (shard 내 sequence << SHARD_BITS) | shard 번호
+ * -> 주문 id 만으로 어느 shard 에 있는지 바로 알 수 있다. (취소, 단건 조회시 전체 shard 조회 불필요)
+ */
+public class ShardKeyResolver {
+
+    public static final int SHARD_BITS = 10; // 최대 1024개 shard
+    private static final long SHARD_MASK = (1L << SHARD_BITS) - 1;
+
+    private final int shardCount;
+
+    public ShardKeyResolver(int shardCount) {
+        if (shardCount < 1 || shardCount > (1 << SHARD_BITS)) {
+            throw new IllegalArgumentException("shard 개수는 1 ~ " + (1 << SHARD_BITS) + " 사이여야 합니다.");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardOfMember(Long memberId) {
+        // 순차 증가하는 id 가 한쪽 shard 로 몰리지 않도록 섞어준다.
+        long h = memberId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 32), shardCount);
+    }
+
+    public int shardOfOrder(Long orderId) {
+        return (int) (orderId & SHARD_MASK);
+    }
+
+    public long orderId(long sequence, int shard) {
+        return (sequence << SHARD_BITS) | shard;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
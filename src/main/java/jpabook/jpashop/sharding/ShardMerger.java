@@ -0,0 +1,45 @@
+package jpabook.jpashop.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 각 shard 에서 정렬되어 온 결과를 k-way merge 한다.
+ * 전체를 모아서 다시 정렬하지 않고, 각 목록의 head 만 heap 에 올려서 limit 개만 꺼낸다.
+ */
+public abstract class ShardMerger {
+
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, int limit) {
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(a.value, b.value));
+        for (List<T> list : sortedLists) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> result = new ArrayList<>(Math.min(limit, sortedLists.stream().mapToInt(List::size).sum()));
+        while (!heap.isEmpty() && result.size() < limit) {
+            Head<T> head = heap.poll();
+            result.add(head.value);
+            if (head.rest.hasNext()) {
+                heap.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return result;
+    }
+
+    private static class Head<T> {
+        private final T value;
+        private final Iterator<T> rest;
+
+        private Head(T value, Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * shard 에 저장되는 주문 한 건 (orders + delivery + order_item)
+ * 회원/상품은 central DB 에 있으므로 id 만 가진다.
+ */
+@Getter
+public class ShardOrder {
+
+    private final Long orderId;
+    private final Long memberId;
+    private final LocalDateTime orderDate;
+    private final OrderStatus status;
+    private final Address address;
+    private final DeliveryStatus deliveryStatus;
+    private final List<ShardOrderItem> orderItems = new ArrayList<>();
+
+    public ShardOrder(Long orderId, Long memberId, LocalDateTime orderDate, OrderStatus status,
+                      Address address, DeliveryStatus deliveryStatus) {
+        this.orderId = orderId;
+        this.memberId = memberId;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.address = address;
+        this.deliveryStatus = deliveryStatus;
+    }
+
+    @Getter
+    public static class ShardOrderItem {
+        private final Long itemId;
+        private final int orderPrice;
+        private final int count;
+
+        public ShardOrderItem(Long itemId, int orderPrice, int count) {
+            this.itemId = itemId;
+            this.orderPrice = orderPrice;
+            this.count = count;
+        }
+    }
+}
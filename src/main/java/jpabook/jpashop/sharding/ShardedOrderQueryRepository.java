@@ -0,0 +1,158 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * shard 전체 주문 조회 (scatter-gather)
+ *
+ * 1. 회원 이름 조건이 있으면 central DB 에서 회원 id 를 먼저 찾고, 그 회원들이 있는 shard 만 조회한다.
+ * 2. 대상 shard 에 병렬로 (order_date, order_id) 정렬 조회
+ * 3. k-way merge 후 limit
+ * 4. 회원 이름 / 상품 이름은 central DB 에서 IN 쿼리로 한번에 채운다.
+ *
+ * sharding 모드에서는 주문이 shard 에만 저장되므로 (central orders 테이블은 비어 있다)
+ * 주문 조회 API/화면은 모두 이 repository 를 거친다. 엔티티를 그대로 반환하는 v1 은 지원하지 않는다.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+public class ShardedOrderQueryRepository {
+
+    private static final Comparator<ShardOrder> ORDER_DATE_ID =
+            Comparator.comparing(ShardOrder::getOrderDate).thenComparing(ShardOrder::getOrderId);
+    private static final Comparator<ShardOrder> ORDER_ID = Comparator.comparing(ShardOrder::getOrderId);
+
+    private final EntityManager em;
+    private final ShardedOrderRepository shardedOrderRepository;
+    private final ShardKeyResolver shardKeyResolver;
+    private final ShardingProperties properties;
+    private final ExecutorService executor;
+
+    public ShardedOrderQueryRepository(EntityManager em,
+                                       ShardedOrderRepository shardedOrderRepository,
+                                       ShardKeyResolver shardKeyResolver,
+                                       ShardingProperties properties,
+                                       @Qualifier("shardQueryExecutor") ExecutorService executor) {
+        this.em = em;
+        this.shardedOrderRepository = shardedOrderRepository;
+        this.shardKeyResolver = shardKeyResolver;
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * OrderRepository.findAll(OrderSearch) 의 sharding 버전
+     */
+    public List<OrderQueryDto> findAll(OrderSearch orderSearch) {
+        int limit = properties.getMaxResults();
+        List<List<ShardOrder>> results = scatter(orderSearch,
+                (shard, memberIds) -> shardedOrderRepository.findOrders(shard, orderSearch.getOrderStatus(), memberIds, limit));
+        return toOrderQueryDtos(ShardMerger.merge(results, ORDER_DATE_ID, limit));
+    }
+
+    /**
+     * v5 주문 목록의 sharding 버전
+     */
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        return findAll(new OrderSearch());
+    }
+
+    /**
+     * 주문 id 순 한 페이지 - OrderQueryRepository.search(), OrderRepository.findAllWithItem(lastId, offset, limit) 의 sharding 버전
+     * (보관 테이블은 central 에만 있으므로 includeArchived 는 보지 않는다.)
+     * lastId 가 있으면 keyset 페이징 (id > lastId, offset 무시), 없으면 offset 페이징
+     * offset 페이징은 shard 마다 offset + limit 건을 가져와 병합한 뒤 offset 만큼 버린다. (큰 offset 은 keyset 으로)
+     */
+    public List<OrderQueryDto> findPage(OrderSearch orderSearch, Long lastId, int offset, int limit) {
+        int skip = lastId == null ? Math.max(offset, 0) : 0;
+        int size = skip + Math.min(limit, OrderRepository.MAX_PAGE_SIZE);
+        List<List<ShardOrder>> results = scatter(orderSearch,
+                (shard, memberIds) -> shardedOrderRepository.findOrdersAfter(shard, orderSearch.getOrderStatus(), memberIds, lastId, size));
+        List<ShardOrder> merged = ShardMerger.merge(results, ORDER_ID, size);
+        return toOrderQueryDtos(merged.subList(Math.min(skip, merged.size()), merged.size()));
+    }
+
+    /**
+     * 검색 대상 shard 에 병렬로 query 실행
+     * 회원 이름 조건이 있으면 central DB 에서 회원 id 를 먼저 찾고, 그 회원들이 있는 shard 만 조회한다.
+     * (query 의 두 번째 인자는 shard 의 대상 회원 id, null 이면 조건 없음)
+     */
+    private List<List<ShardOrder>> scatter(OrderSearch orderSearch, BiFunction<Integer, Collection<Long>, List<ShardOrder>> query) {
+        Map<Integer, Collection<Long>> targets = new HashMap<>();
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            List<Long> memberIds = em.createQuery(
+                            "select m.id from Member m where m.name like :name", Long.class)
+                    .setParameter("name", orderSearch.getMemberName())
+                    .getResultList();
+            for (Long memberId : memberIds) {
+                targets.computeIfAbsent(shardKeyResolver.shardOfMember(memberId), k -> new ArrayList<>()).add(memberId);
+            }
+        } else {
+            for (int shard = 0; shard < shardKeyResolver.getShardCount(); shard++) {
+                targets.put(shard, null);
+            }
+        }
+
+        List<CompletableFuture<List<ShardOrder>>> futures = targets.entrySet().stream()
+                .map(e -> CompletableFuture.supplyAsync(() -> query.apply(e.getKey(), e.getValue()), executor))
+                .collect(Collectors.toList());
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private List<OrderQueryDto> toOrderQueryDtos(List<ShardOrder> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> memberIds = orders.stream().map(ShardOrder::getMemberId).collect(Collectors.toSet());
+        Set<Long> itemIds = new HashSet<>();
+        orders.forEach(o -> o.getOrderItems().forEach(oi -> itemIds.add(oi.getItemId())));
+
+        Map<Long, String> memberNames = findNames("select m.id, m.name from Member m where m.id in :ids", memberIds);
+        Map<Long, String> itemNames = findNames("select i.id, i.name from Item i where i.id in :ids", itemIds);
+
+        return orders.stream()
+                .map(o -> new OrderQueryDto(o.getOrderId(), memberNames.get(o.getMemberId()), o.getOrderDate(),
+                        o.getStatus(), o.getAddress(),
+                        o.getOrderItems().stream()
+                                .map(oi -> new OrderItemQueryDto(o.getOrderId(), itemNames.get(oi.getItemId()),
+                                        oi.getOrderPrice(), oi.getCount()))
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, String> findNames(String jpql, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, String> names = new HashMap<>();
+        em.createQuery(jpql, Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        return names;
+    }
+}
@@ -0,0 +1,171 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.sharding.ShardOrder.ShardOrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * shard 하나에 대한 주문 저장/조회 (JDBC)
+ * 모든 메소드는 shard 번호를 받고, 해당 shard 의 트랜잭션 안에서 실행된다.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+public class ShardedOrderRepository {
+
+    private final ShardDataSources shards;
+    private final ShardKeyResolver shardKeyResolver;
+
+    public long nextOrderId(int shard) {
+        Long sequence = shards.jdbcTemplate(shard)
+                .queryForObject("select next value for shard_order_seq", Long.class);
+        return shardKeyResolver.orderId(sequence, shard);
+    }
+
+    public void save(int shard, ShardOrder order) {
+        shards.transactionTemplate(shard).executeWithoutResult(status -> {
+            JdbcTemplate jdbcTemplate = shards.jdbcTemplate(shard);
+            Address address = order.getAddress();
+
+            // delivery 는 주문과 1:1 이므로 주문 id 를 그대로 사용한다.
+            jdbcTemplate.update("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)",
+                    order.getOrderId(),
+                    address == null ? null : address.getCity(),
+                    address == null ? null : address.getStreet(),
+                    address == null ? null : address.getZipcode(),
+                    order.getDeliveryStatus() == null ? null : order.getDeliveryStatus().name());
+
+            jdbcTemplate.update("insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)",
+                    order.getOrderId(), order.getMemberId(), order.getOrderId(),
+                    Timestamp.valueOf(order.getOrderDate()), order.getStatus().name());
+
+            List<Object[]> items = order.getOrderItems().stream()
+                    .map(item -> new Object[]{order.getOrderId(), item.getItemId(), item.getOrderPrice(), item.getCount()})
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate("insert into order_item (order_item_id, order_id, item_id, order_price, count)" +
+                    " values (next value for shard_order_item_seq, ?, ?, ?, ?)", items);
+        });
+    }
+
+    public void delete(int shard, Long orderId) {
+        shards.transactionTemplate(shard).executeWithoutResult(status -> {
+            JdbcTemplate jdbcTemplate = shards.jdbcTemplate(shard);
+            jdbcTemplate.update("delete from order_item where order_id = ?", orderId);
+            jdbcTemplate.update("delete from orders where order_id = ?", orderId);
+            jdbcTemplate.update("delete from delivery where delivery_id = ?", orderId);
+        });
+    }
+
+    public void updateStatus(int shard, Long orderId, OrderStatus orderStatus) {
+        shards.jdbcTemplate(shard)
+                .update("update orders set status = ? where order_id = ?", orderStatus.name(), orderId);
+    }
+
+    public ShardOrder findOne(int shard, Long orderId) {
+        List<ShardOrder> orders = shards.jdbcTemplate(shard).query(
+                "select o.order_id, o.member_id, o.order_date, o.status, d.city, d.street, d.zipcode, d.status as delivery_status" +
+                        " from orders o" +
+                        " join delivery d on d.delivery_id = o.delivery_id" +
+                        " where o.order_id = ?", orderRowMapper(), orderId);
+        if (orders.isEmpty()) {
+            return null;
+        }
+        fillOrderItems(shard, orders);
+        return orders.get(0);
+    }
+
+    /**
+     * (order_date, order_id) 순으로 정렬된 주문 목록
+     * memberIds 가 null 이면 회원 조건 없음.
+     */
+    public List<ShardOrder> findOrders(int shard, OrderStatus orderStatus, Collection<Long> memberIds, int limit) {
+        return findOrders(shard, orderStatus, memberIds, null, "o.order_date, o.order_id", limit);
+    }
+
+    /**
+     * order_id 순으로 정렬된 주문 목록 (lastId 가 있으면 order_id > lastId)
+     */
+    public List<ShardOrder> findOrdersAfter(int shard, OrderStatus orderStatus, Collection<Long> memberIds, Long lastId, int limit) {
+        return findOrders(shard, orderStatus, memberIds, lastId, "o.order_id", limit);
+    }
+
+    private List<ShardOrder> findOrders(int shard, OrderStatus orderStatus, Collection<Long> memberIds,
+                                        Long lastId, String orderBy, int limit) {
+        String sql = "select o.order_id, o.member_id, o.order_date, o.status, d.city, d.street, d.zipcode, d.status as delivery_status" +
+                " from orders o" +
+                " join delivery d on d.delivery_id = o.delivery_id" +
+                " where 1 = 1";
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (orderStatus != null) {
+            sql += " and o.status = :status";
+            params.addValue("status", orderStatus.name());
+        }
+        if (memberIds != null) {
+            sql += " and o.member_id in (:memberIds)";
+            params.addValue("memberIds", memberIds);
+        }
+        if (lastId != null) {
+            sql += " and o.order_id > :lastId";
+            params.addValue("lastId", lastId);
+        }
+        sql += " order by " + orderBy + " limit :limit";
+        params.addValue("limit", limit);
+
+        List<ShardOrder> orders = new NamedParameterJdbcTemplate(shards.jdbcTemplate(shard))
+                .query(sql, params, orderRowMapper());
+        fillOrderItems(shard, orders);
+        return orders;
+    }
+
+    /**
+     * 주문상품은 IN 쿼리 한번으로 가져온다. (v5 와 같은 방식)
+     */
+    private void fillOrderItems(int shard, List<ShardOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, ShardOrder> orderMap = orders.stream()
+                .collect(Collectors.toMap(ShardOrder::getOrderId, o -> o, (a, b) -> a, LinkedHashMap::new));
+
+        new NamedParameterJdbcTemplate(shards.jdbcTemplate(shard)).query(
+                "select order_id, item_id, order_price, count from order_item" +
+                        " where order_id in (:orderIds) order by order_item_id",
+                new MapSqlParameterSource("orderIds", orderMap.keySet()),
+                rs -> {
+                    orderMap.get(rs.getLong("order_id")).getOrderItems().add(
+                            new ShardOrderItem(rs.getLong("item_id"), rs.getInt("order_price"), rs.getInt("count")));
+                });
+    }
+
+    public long count(int shard) {
+        return shards.jdbcTemplate(shard).queryForObject("select count(*) from orders", Long.class);
+    }
+
+    private RowMapper<ShardOrder> orderRowMapper() {
+        return (rs, rowNum) -> {
+            String deliveryStatus = rs.getString("delivery_status");
+            return new ShardOrder(
+                    rs.getLong("order_id"),
+                    rs.getLong("member_id"),
+                    rs.getTimestamp("order_date").toLocalDateTime(),
+                    OrderStatus.valueOf(rs.getString("status")),
+                    new Address(rs.getString("city"), rs.getString("street"), rs.getString("zipcode")),
+                    deliveryStatus == null ? null : DeliveryStatus.valueOf(deliveryStatus));
+        };
+    }
+}
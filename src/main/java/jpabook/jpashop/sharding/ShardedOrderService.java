@@ -0,0 +1,109 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.sharding.ShardOrder.ShardOrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * sharding 모드의 주문/취소
+ *
+ * 1. central DB 트랜잭션(JPA) 안에서 회원/상품 조회, 재고 변경
+ * 2. 주문은 member_id 로 결정된 shard 에 별도 트랜잭션으로 저장
+ * 3. central 트랜잭션이 롤백되면 shard 에 저장한 내용을 보상(삭제/원복)한다.
+ *
+ * shard 저장이 실패하면 예외가 그대로 올라가서 central 트랜잭션(재고 차감)도 롤백된다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+public class ShardedOrderService {
+
+    private final ShardedOrderRepository shardedOrderRepository;
+    private final ShardKeyResolver shardKeyResolver;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final StockBucketService stockBucketService;
+
+    @Transactional
+    public Long order(Long memberId, Long itemId, int count) {
+        Member member = memberRepository.findById(memberId).get();
+        Item item = itemRepository.findOne(itemId);
+
+        // 재고는 central shard 에서 관리
+        if (item.isStockBucketed()) {
+            stockBucketService.decrease(item, count);
+        } else {
+            item.removeStock(count);
+        }
+
+        int shard = shardKeyResolver.shardOfMember(member.getId());
+        long orderId = shardedOrderRepository.nextOrderId(shard);
+
+        ShardOrder order = new ShardOrder(orderId, member.getId(), LocalDateTime.now(), OrderStatus.ORDER,
+                member.getAddress(), DeliveryStatus.READY);
+        order.getOrderItems().add(new ShardOrderItem(item.getId(), item.getPrice(), count));
+
+        shardedOrderRepository.save(shard, order);
+        onRollback(() -> shardedOrderRepository.delete(shard, orderId));
+
+        return orderId;
+    }
+
+    @Transactional
+    public void cancelOrder(Long orderId) {
+        int shard = shardKeyResolver.shardOfOrder(orderId);
+        ShardOrder order = shardedOrderRepository.findOne(shard, orderId);
+        if (order == null) {
+            throw new IllegalArgumentException("주문이 존재하지 않습니다. orderId = " + orderId);
+        }
+        if (order.getDeliveryStatus() == DeliveryStatus.COMP) {
+            throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
+        }
+
+        for (ShardOrderItem orderItem : order.getOrderItems()) {
+            Item item = itemRepository.findOne(orderItem.getItemId());
+            if (item.isStockBucketed()) {
+                stockBucketService.lockForCancel(item);
+            }
+            item.addStock(orderItem.getCount());
+        }
+
+        shardedOrderRepository.updateStatus(shard, orderId, OrderStatus.CANCEL);
+        OrderStatus previous = order.getStatus();
+        onRollback(() -> shardedOrderRepository.updateStatus(shard, orderId, previous));
+    }
+
+    /**
+     * central 트랜잭션 롤백 시 shard 쪽 보상 작업 실행
+     */
+    private void onRollback(Runnable compensation) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    try {
+                        compensation.run();
+                    } catch (RuntimeException e) {
+                        log.error("shard compensation failed", e);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package jpabook.jpashop.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 주문 sharding 설정
+ * jpashop.sharding.enabled=true 인 경우에만 등록된다.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("jpashop.sharding.shards 설정이 필요합니다.");
+        }
+
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i + "-pool");
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setDriverClassName(shard.getDriverClassName());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            // shard pool 은 bean 이 아니라서 자동으로 hikaricp.* metrics 가 등록되지 않는다. (pool 시작 전에 설정해야 함)
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+            // shard 에는 주문 관련 테이블만 존재한다.
+            new ResourceDatabasePopulator(new ClassPathResource("sharding/shard-schema.sql")).execute(dataSource);
+            dataSources.add(dataSource);
+        }
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean
+    public ShardKeyResolver shardKeyResolver(ShardDataSources shardDataSources) {
+        return new ShardKeyResolver(shardDataSources.size());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardQueryExecutor(ShardingProperties properties, ShardDataSources shardDataSources) {
+        int threads = properties.getQueryThreads() > 0 ? properties.getQueryThreads() : shardDataSources.size();
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "shard-query-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.sharding.* 설정
+ * 주문(orders, order_item, delivery)은 member_id 해시로 shard 에 나누어 저장하고,
+ * 회원/상품(재고)은 기존 DataSource(central shard)에 그대로 둔다.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // scatter-gather 조회 스레드 수. 0 이면 shard 개수만큼
+    private int queryThreads = 0;
+
+    // shard 별 / 병합 후 최대 조회 건수
+    private int maxResults = 1000;
+
+    @Getter @Setter
+    public static class Shard {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private String driverClassName = "org.h2.Driver";
+        private int maximumPoolSize = 10;
+    }
+}
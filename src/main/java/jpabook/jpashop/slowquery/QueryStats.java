@@ -0,0 +1,56 @@
+package jpabook.jpashop.slowquery;
+
+import jpabook.jpashop.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * fingerprint 하나의 실행 통계
+ */
+class QueryStats {
+
+    private final String id;
+    private final String sql;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final AtomicLong planCapturedAt = new AtomicLong();
+    private volatile long lastSeenMillis;
+    private volatile String plan;
+
+    QueryStats(String id, String sql) {
+        this.id = id;
+        this.sql = sql;
+    }
+
+    void record(long elapsedNanos, boolean failed, boolean isSlow) {
+        latency.record(elapsedNanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (isSlow) {
+            slow.increment();
+        }
+        lastSeenMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 마지막 EXPLAIN 이후 refreshMillis 가 지났으면 true (여러 스레드 중 하나만 true)
+     */
+    boolean claimPlanCapture(long now, long refreshMillis) {
+        long last = planCapturedAt.get();
+        return (last == 0 || now - last >= refreshMillis) && planCapturedAt.compareAndSet(last, now);
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    SlowQueryDto toDto() {
+        return new SlowQueryDto(id, sql, latency.getCount(), errors.sum(), slow.sum(),
+                latency.totalMillis(), latency.meanMillis(), latency.percentileMillis(50),
+                latency.percentileMillis(95), latency.percentileMillis(99), latency.maxMillis(),
+                lastSeenMillis, plan);
+    }
+}
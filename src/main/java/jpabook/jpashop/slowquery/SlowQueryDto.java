@@ -0,0 +1,26 @@
+package jpabook.jpashop.slowquery;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * fingerprint 별 실행 통계 (시간 단위 ms)
+ */
+@Data
+@AllArgsConstructor
+public class SlowQueryDto {
+
+    private String id;
+    private String sql; // 정규화된 SQL
+    private long count;
+    private long errors;
+    private long slowCount; // threshold 이상 걸린 횟수
+    private double totalMillis;
+    private double meanMillis;
+    private double p50Millis;
+    private double p95Millis;
+    private double p99Millis;
+    private double maxMillis;
+    private long lastSeenEpochMillis;
+    private String plan; // 마지막 slow 실행의 EXPLAIN 결과 (없으면 null)
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.slowquery;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.slow-query.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = false;
+
+    // 이 시간 이상 걸린 쿼리는 slow 로 집계하고 로그/실행 계획을 남긴다.
+    private long thresholdMillis = 100;
+
+    // 보관할 fingerprint 최대 수 (넘으면 나머지는 overflow 한 항목으로 합친다.)
+    private int maxFingerprints = 200;
+
+    // 같은 fingerprint 의 EXPLAIN 을 다시 실행하는 최소 간격
+    private long planRefreshMillis = 600_000;
+}
@@ -0,0 +1,152 @@
+package jpabook.jpashop.slowquery;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * slow query 기록 (p6spy JdbcEventListener)
+ *
+ * p6spy 가 감싼 DataSource 에서 실행되는 모든 statement 를 정규화된 SQL(fingerprint) 별로 집계한다.
+ * - 실행 횟수 / 오류 / 응답시간 히스토그램 (executeQuery 시간, ResultSet 읽는 시간은 제외)
+ * - thresholdMillis 이상이면 slow 로 집계하고 WARN 로그, select 문은 EXPLAIN 결과를 같은 connection 으로 받아둔다.
+ *   (fingerprint 별로 planRefreshMillis 에 한 번만 실행)
+ *   EXPLAIN 은 파라미터(?) 가 남아있는 원래 SQL 로 실행한다. -> 회원 이름, 주소 같은 실제 값이 실행계획에 저장되지 않는다.
+ * - fingerprint 는 maxFingerprints 개까지만 보관하고 넘치면 overflow 항목 하나로 합친다. -> 메모리 사용량이 제한된다.
+ *
+ * p6spy 로 감싸지 않은 DataSource (shard pool 등) 의 쿼리는 기록되지 않는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryRecorder extends SimpleJdbcEventListener {
+
+    static final String OVERFLOW_ID = "overflow";
+
+    // EXPLAIN 실행도 p6spy 를 거치므로 기록하지 않도록 표시
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+
+    private final SlowQueryProperties properties;
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private volatile QueryStats overflow = newOverflow();
+
+    public SlowQueryRecorder(SlowQueryProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (EXPLAINING.get()) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isBlank()) {
+            return;
+        }
+
+        String normalized = SqlFingerprint.normalize(sql);
+        QueryStats queryStats = statsFor(normalized);
+        boolean slow = timeElapsedNanos >= TimeUnit.MILLISECONDS.toNanos(properties.getThresholdMillis());
+        queryStats.record(timeElapsedNanos, e != null, slow);
+
+        if (slow) {
+            log.warn("slow query {}ms: {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), normalized);
+            if (e == null && queryStats != overflow && normalized.startsWith("select")
+                    && queryStats.claimPlanCapture(System.currentTimeMillis(), properties.getPlanRefreshMillis())) {
+                queryStats.setPlan(explain(statementInformation));
+            }
+        }
+    }
+
+    /**
+     * @param limit 1 이상
+     * @param sort total | max | p99 | count | slow
+     * @throws IllegalArgumentException limit 이 1 미만이거나 지원하지 않는 sort
+     */
+    public List<SlowQueryDto> top(int limit, String sort) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다. top = " + limit);
+        }
+        return Stream.concat(stats.values().stream(), Stream.of(overflow))
+                .map(QueryStats::toDto)
+                .filter(dto -> dto.getCount() > 0)
+                .sorted(comparator(sort).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+        overflow = newOverflow();
+    }
+
+    private static QueryStats newOverflow() {
+        return new QueryStats(OVERFLOW_ID, "(maxFingerprints 를 넘은 나머지 쿼리)");
+    }
+
+    private QueryStats statsFor(String normalized) {
+        QueryStats queryStats = stats.get(normalized);
+        if (queryStats != null) {
+            return queryStats;
+        }
+        if (stats.size() >= properties.getMaxFingerprints()) {
+            return overflow;
+        }
+        return stats.computeIfAbsent(normalized, sql -> new QueryStats(SqlFingerprint.id(sql), sql));
+    }
+
+    private String explain(StatementInformation statementInformation) {
+        Connection connection = statementInformation.getConnectionInformation().getConnection();
+        EXPLAINING.set(true);
+        // 바인딩 값 없이 prepare -> H2 는 파라미터를 ?1, ?2 로 표시한 실행계획을 돌려준다.
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + statementInformation.getSql());
+             ResultSet rs = statement.executeQuery()) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString().trim();
+        } catch (SQLException | RuntimeException e) {
+            log.debug("EXPLAIN 실패", e);
+            return "EXPLAIN 실패: " + e.getMessage();
+        } finally {
+            EXPLAINING.remove();
+        }
+    }
+
+    private Comparator<SlowQueryDto> comparator(String sort) {
+        if (sort == null) {
+            throw new IllegalArgumentException("정렬을 입력해야 합니다.");
+        }
+        switch (sort) {
+            case "max":
+                return Comparator.comparingDouble(SlowQueryDto::getMaxMillis);
+            case "p99":
+                return Comparator.comparingDouble(SlowQueryDto::getP99Millis);
+            case "count":
+                return Comparator.comparingLong(SlowQueryDto::getCount);
+            case "slow":
+                return Comparator.comparingLong(SlowQueryDto::getSlowCount);
+            case "total":
+                return Comparator.comparingDouble(SlowQueryDto::getTotalMillis);
+            default:
+                throw new IllegalArgumentException("지원하지 않는 정렬입니다. sort = " + sort);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.slowquery;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 정규화 - 파라미터 값을 지워서 같은 모양의 쿼리를 하나로 묶는다.
+ *
+ * ex) select ... where o.order_id in (1, 2, 3) and m.name = 'userA'
+ *  -> select ... where o.order_id in (?+) and m.name = ?
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    // order0_ 같은 alias 안의 숫자는 제외 (앞이 단어 문자가 아닌 숫자만)
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String normalize(String sql) {
+        String normalized = COMMENT.matcher(sql).replaceAll(" ");
+        normalized = STRING.matcher(normalized).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        // IN 절 파라미터 개수가 달라도 같은 쿼리 (batch fetch size 등)
+        return IN_LIST.matcher(normalized).replaceAll("(?+)");
+    }
+
+    /**
+     * 정규화된 SQL 의 64bit FNV-1a hash (16진수)
+     */
+    public static String id(String normalizedSql) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalizedSql.length(); i++) {
+            hash ^= normalizedSql.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+}
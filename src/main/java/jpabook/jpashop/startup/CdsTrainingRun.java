@@ -0,0 +1,48 @@
+package jpabook.jpashop.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * AppCDS class list 수집용 학습 실행 (jpashop.startup.exit-on-ready=true)
+ *
+ * 기동 후 첫 요청(GET /)까지 처리해야 DispatcherServlet 초기화, Thymeleaf 렌더링 클래스도 archive 에 들어간다.
+ * 그 다음 context 를 닫고 JVM 을 종료한다. (-XX:DumpLoadedClassList 파일은 종료 시점까지 기록된다.)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "jpashop.startup", name = "exit-on-ready", havingValue = "true")
+public class CdsTrainingRun {
+
+    private final ConfigurableApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit() {
+        if (context instanceof WebServerApplicationContext) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/").openConnection();
+                try (InputStream body = connection.getInputStream()) {
+                    body.readAllBytes();
+                }
+                log.info("cds training request finished. status = {}", connection.getResponseCode());
+            } catch (IOException e) {
+                log.warn("cds training request failed", e);
+            }
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
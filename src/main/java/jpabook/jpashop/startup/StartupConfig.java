@@ -0,0 +1,35 @@
+package jpabook.jpashop.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * 기동 시간 단축 (spring.main.lazy-initialization=true 인 fast-startup profile)
+ *
+ * lazy 초기화에서는 다른 bean 이 찾지 않는 bean 은 만들어지지 않는다.
+ * - @Scheduled bean: Spring Boot 가 lazy 대상에서 제외한다. (ScheduledBeanLazyInitializationExcludeFilter)
+ * - @Bean(initMethod = "start") 로 백그라운드 작업을 시작하는 bean (AdaptivePoolSizer 등): 아래 filter 로 제외한다.
+ * - @EventListener(ApplicationReadyEvent) bean: 이벤트 시점에 만들어지므로 그대로 둔다.
+ *
+ * DataSource / EntityManagerFactory 도 제외한다.
+ * -> DB 설정 오류는 첫 요청이 아니라 기동 시점에 드러나고, 첫 주문 요청이 Hibernate 초기화를 기다리지 않는다.
+ *    (deferred bootstrap 으로 EntityManagerFactory 는 별도 스레드에서 만들어진다.)
+ */
+@Configuration
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInfrastructureLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanDefinition.getInitMethodName() != null
+                || (beanType != null && (DataSource.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)));
+    }
+}
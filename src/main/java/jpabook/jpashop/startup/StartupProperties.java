@@ -0,0 +1,19 @@
+package jpabook.jpashop.startup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.startup.* 설정 (fast-startup profile 참고)
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.startup")
+public class StartupProperties {
+
+    // true 이면 InitDb 샘플 데이터를 기동과 별도 스레드에서 넣는다. (기동 완료/첫 요청을 기다리지 않음)
+    private boolean seedAsync = false;
+
+    // CDS class list 수집용 학습 실행 - 기동 후 GET / 한번을 처리하고 종료한다. (./gradlew cdsArchive)
+    private boolean exitOnReady = false;
+}
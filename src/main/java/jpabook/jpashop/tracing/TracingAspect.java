@@ -0,0 +1,94 @@
+package jpabook.jpashop.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * controller / @Transactional 서비스 / repository 메서드 span
+ *
+ * 반환값이 컬렉션이면 result.count 속성을 남긴다.
+ * @Transactional 보다 바깥에서 실행되므로 서비스 span 에는 트랜잭션 시작/커밋 시간이 포함된다.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(jpabook.jpashop..*) && (@within(org.springframework.web.bind.annotation.RestController)"
+            + " || @within(org.springframework.stereotype.Controller))")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "controller");
+    }
+
+    @Around("within(jpabook.jpashop..*) && (@within(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(org.springframework.transaction.annotation.Transactional))"
+            + " && !@within(org.springframework.stereotype.Repository)")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "service");
+    }
+
+    /**
+     * @Repository 클래스와 Spring Data repository (MemberRepository 등)
+     */
+    @Around("(within(jpabook.jpashop..*) && @within(org.springframework.stereotype.Repository))"
+            + " || execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "repository");
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        String type = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Span span = tracer.spanBuilder(type + "." + method)
+                .setAttribute("layer", layer)
+                .setAttribute("code.namespace", joinPoint.getSignature().getDeclaringTypeName())
+                .setAttribute("code.function", method)
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            Object result = joinPoint.proceed();
+            long count = count(result);
+            if (count >= 0) {
+                span.setAttribute("result.count", count);
+            }
+            return result;
+        } catch (Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private long count(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Object[]) {
+            return ((Object[]) result).length;
+        }
+        return -1;
+    }
+}
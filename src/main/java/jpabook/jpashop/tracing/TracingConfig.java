@@ -0,0 +1,96 @@
+package jpabook.jpashop.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 요청 단위 tracing (OpenTelemetry)
+ * jpashop.tracing.enabled=true 인 경우에만 등록된다.
+ *
+ * span 구조
+ * HTTP 요청 (TracingFilter)
+ *  └ controller 메서드 (TracingAspect)
+ *     └ @Transactional 서비스 메서드 (TracingAspect, 트랜잭션 시작/커밋 포함)
+ *        └ repository 메서드 (TracingAspect)
+ *           └ JDBC statement - 실행 + ResultSet 읽기 (TracingJdbcEventListener)
+ *  └ JSON 직렬화 (TracingJackson2HttpMessageConverter, 직렬화 중 지연 로딩 SQL 포함)
+ *
+ * exporter: logging 이면 LoggingSpanExporter, 그 외 SpanExporter bean 은 모두 등록된다. (테스트는 InMemorySpanExporter)
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "jpashop.tracing", name = "enabled", havingValue = "true")
+public class TracingConfig {
+
+    public static final String INSTRUMENTATION_NAME = "jpabook.jpashop";
+
+    @Bean(destroyMethod = "close")
+    public SdkTracerProvider sdkTracerProvider(TracingProperties properties, ObjectProvider<SpanExporter> spanExporters) {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), properties.getServiceName()))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(properties.getSampleRatio())));
+        if ("logging".equalsIgnoreCase(properties.getExporter())) {
+            builder.addSpanProcessor(BatchSpanProcessor.builder(LoggingSpanExporter.create()).build());
+        } else if (!"none".equalsIgnoreCase(properties.getExporter())) {
+            throw new IllegalArgumentException("지원하지 않는 tracing exporter 입니다. exporter = " + properties.getExporter());
+        }
+        spanExporters.orderedStream()
+                .forEach(exporter -> builder.addSpanProcessor(BatchSpanProcessor.builder(exporter).build()));
+        return builder.build();
+    }
+
+    @Bean
+    public OpenTelemetry openTelemetry(SdkTracerProvider sdkTracerProvider) {
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(sdkTracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+
+    @Bean
+    public TracingFilter tracingFilter(OpenTelemetry openTelemetry, Tracer tracer) {
+        return new TracingFilter(openTelemetry, tracer);
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+
+    @Bean
+    public TracingJdbcEventListener tracingJdbcEventListener(Tracer tracer, TracingProperties properties) {
+        return new TracingJdbcEventListener(tracer, properties.getMaxStatementLength());
+    }
+
+    /**
+     * Spring Boot 기본 Jackson converter 대신 등록된다. (같은 ObjectMapper 사용)
+     */
+    @Bean
+    public TracingJackson2HttpMessageConverter tracingJackson2HttpMessageConverter(ObjectMapper objectMapper, Tracer tracer) {
+        return new TracingJackson2HttpMessageConverter(objectMapper, tracer);
+    }
+}
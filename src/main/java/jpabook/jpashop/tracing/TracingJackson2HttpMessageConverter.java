@@ -0,0 +1,87 @@
+package jpabook.jpashop.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON 직렬화 span - response.bytes = 직렬화된 크기
+ * 엔티티를 그대로 반환하는 API 는 직렬화 중 지연 로딩 SQL 이 이 span 아래에 기록된다.
+ */
+public class TracingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Tracer tracer;
+
+    public TracingJackson2HttpMessageConverter(ObjectMapper objectMapper, Tracer tracer) {
+        super(objectMapper);
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Span span = tracer.spanBuilder("json.serialize")
+                .setAttribute("response.type", object == null ? "null" : object.getClass().getSimpleName())
+                .startSpan();
+        CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+        try (Scope scope = span.makeCurrent()) {
+            super.writeInternal(object, type, counting);
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.setAttribute("response.bytes", counting.bytes);
+            span.end();
+        }
+    }
+
+    private static class CountingOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage delegate;
+        private long bytes;
+
+        CountingOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return new FilterOutputStream(delegate.getBody()) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    bytes++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    bytes += len;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // 응답 stream 은 닫지 않는다. (MappingJackson2HttpMessageConverter 와 동일)
+                    flush();
+                }
+            };
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+}
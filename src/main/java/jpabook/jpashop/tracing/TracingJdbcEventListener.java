@@ -0,0 +1,140 @@
+package jpabook.jpashop.tracing;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import jpabook.jpashop.slowquery.SqlFingerprint;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC statement span (p6spy JdbcEventListener)
+ *
+ * - 조회: execute 부터 ResultSet close (또는 statement close) 까지 -> 행을 읽는 시간 포함, db.rows = 읽은 행 수
+ * - 변경: execute 동안, db.rows_affected = 변경된 행 수 (batch 는 합계)
+ * db.statement 는 파라미터 값을 지운 SQL (SqlFingerprint) 이다.
+ * p6spy 로 감싸지 않은 DataSource (shard pool 등) 의 SQL 은 기록되지 않는다.
+ */
+public class TracingJdbcEventListener extends SimpleJdbcEventListener {
+
+    private final Tracer tracer;
+    private final int maxStatementLength;
+
+    // 실행 중이거나 ResultSet 을 읽고 있는 statement (StatementInformation 은 statement 마다 하나)
+    private final Map<StatementInformation, Span> openSpans = new ConcurrentHashMap<>();
+
+    public TracingJdbcEventListener(Tracer tracer, int maxStatementLength) {
+        this.tracer = tracer;
+        this.maxStatementLength = maxStatementLength;
+    }
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        String sql = statementInformation.getSql();
+        String normalized = sql == null ? "" : SqlFingerprint.normalize(sql);
+        int space = normalized.indexOf(' ');
+        String operation = space > 0 ? normalized.substring(0, space) : normalized;
+
+        Span span = tracer.spanBuilder("jdbc " + operation)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("db.operation", operation)
+                .setAttribute("db.statement", normalized.length() > maxStatementLength
+                        ? normalized.substring(0, maxStatementLength) : normalized)
+                .startSpan();
+        Span previous = openSpans.put(statementInformation, span);
+        if (previous != null) {
+            previous.end();
+        }
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                     int rowCount, SQLException e) {
+        setAttribute(statementInformation, "db.rows_affected", rowCount);
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                                     int rowCount, SQLException e) {
+        setAttribute(statementInformation, "db.rows_affected", rowCount);
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos,
+                                    int[] updateCounts, SQLException e) {
+        if (updateCounts != null) {
+            long total = 0;
+            for (int count : updateCounts) {
+                total += Math.max(count, 0);
+            }
+            setAttribute(statementInformation, "db.rows_affected", total);
+            setAttribute(statementInformation, "db.batch_size", updateCounts.length);
+        }
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Span span = openSpans.get(statementInformation);
+        if (span == null) {
+            return;
+        }
+        span.setAttribute("db.execute_ms", TimeUnit.NANOSECONDS.toMicros(timeElapsedNanos) / 1000.0);
+        if (e != null) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+        }
+        // 조회 결과는 ResultSet 을 다 읽은 뒤에 끝낸다.
+        if (e != null || !isQuery(statementInformation)) {
+            end(statementInformation);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+        Span span = openSpans.remove(resultSetInformation.getStatementInformation());
+        if (span != null) {
+            span.setAttribute("db.rows", resultSetInformation.getCurrRow() + 1);
+            span.end();
+        }
+    }
+
+    @Override
+    public void onAfterStatementClose(StatementInformation statementInformation, SQLException e) {
+        end(statementInformation);
+    }
+
+    private boolean isQuery(StatementInformation statementInformation) {
+        String sql = statementInformation.getSql();
+        if (sql == null) {
+            return false;
+        }
+        String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") || trimmed.startsWith("with") || trimmed.startsWith("explain");
+    }
+
+    private void setAttribute(StatementInformation statementInformation, String key, long value) {
+        Span span = openSpans.get(statementInformation);
+        if (span != null) {
+            span.setAttribute(key, value);
+        }
+    }
+
+    private void end(StatementInformation statementInformation) {
+        Span span = openSpans.remove(statementInformation);
+        if (span != null) {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.tracing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * jpashop.tracing.* 설정
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "jpashop.tracing")
+public class TracingProperties {
+
+    private boolean enabled = false;
+
+    private String serviceName = "jpashop";
+
+    // logging: span 을 로그로 출력 | none: SpanExporter bean 으로만 내보낸다.
+    private String exporter = "logging";
+
+    // 새로 시작하는 trace 중 기록할 비율 (traceparent 헤더로 들어온 요청은 상위 결정을 따른다.)
+    private double sampleRatio = 1.0;
+
+    // db.statement 속성 최대 길이
+    private int maxStatementLength = 2000;
+}
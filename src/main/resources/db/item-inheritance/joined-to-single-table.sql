@@ -0,0 +1,17 @@
+-- Item 상속 매핑 JOINED -> SINGLE_TABLE (H2) - single-table-to-joined.sql 되돌리기
+-- 애플리케이션을 멈춘 상태에서 실행하고, spring.jpa.mapping-resources 없이 기동한다.
+
+alter table item add column author varchar(255);
+alter table item add column isbn varchar(255);
+alter table item add column artist varchar(255);
+alter table item add column etc varchar(255);
+alter table item add column actor varchar(255);
+alter table item add column director varchar(255);
+
+update item i set (author, isbn) = (select b.author, b.isbn from book b where b.item_id = i.item_id) where dtype = 'B';
+update item i set (artist, etc) = (select a.artist, a.etc from album a where a.item_id = i.item_id) where dtype = 'A';
+update item i set (actor, director) = (select m.actor, m.director from movie m where m.item_id = i.item_id) where dtype = 'M';
+
+drop table book;
+drop table album;
+drop table movie;
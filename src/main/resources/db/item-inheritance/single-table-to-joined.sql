@@ -0,0 +1,22 @@
+-- Item 상속 매핑 SINGLE_TABLE -> JOINED (H2)
+-- 애플리케이션을 멈춘 상태에서 실행하고, spring.jpa.mapping-resources: META-INF/item-inheritance/joined.xml 로 기동한다.
+-- dtype, idx_item_catalog 는 그대로 사용한다.
+
+create table book (author varchar(255), isbn varchar(255), item_id bigint not null, primary key (item_id));
+create table album (artist varchar(255), etc varchar(255), item_id bigint not null, primary key (item_id));
+create table movie (actor varchar(255), director varchar(255), item_id bigint not null, primary key (item_id));
+
+insert into book (item_id, author, isbn) select item_id, author, isbn from item where dtype = 'B';
+insert into album (item_id, artist, etc) select item_id, artist, etc from item where dtype = 'A';
+insert into movie (item_id, actor, director) select item_id, actor, director from item where dtype = 'M';
+
+alter table book add constraint fk_book_item foreign key (item_id) references item;
+alter table album add constraint fk_album_item foreign key (item_id) references item;
+alter table movie add constraint fk_movie_item foreign key (item_id) references item;
+
+alter table item drop column author;
+alter table item drop column isbn;
+alter table item drop column artist;
+alter table item drop column etc;
+alter table item drop column actor;
+alter table item drop column director;
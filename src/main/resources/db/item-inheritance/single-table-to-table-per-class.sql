@@ -0,0 +1,17 @@
+-- Item 상속 매핑 SINGLE_TABLE -> TABLE_PER_CLASS (H2)
+-- 애플리케이션을 멈춘 상태에서 실행하고, spring.jpa.mapping-resources: META-INF/item-inheritance/table-per-class.xml 로 기동한다.
+-- id 는 hibernate_sequence 를 공유하므로 그대로 옮긴다.
+-- order_item, category_item, item_stock_bucket 의 item_id FK 는 drop table ... cascade 로 함께 삭제된다. (하위 테이블 여러 개를 참조할 수 없음)
+
+create table book (item_id bigint not null, name varchar(255), price integer not null, stock_quantity integer not null, stock_bucket_count integer not null, author varchar(255), isbn varchar(255), primary key (item_id));
+create table album (item_id bigint not null, name varchar(255), price integer not null, stock_quantity integer not null, stock_bucket_count integer not null, artist varchar(255), etc varchar(255), primary key (item_id));
+create table movie (item_id bigint not null, name varchar(255), price integer not null, stock_quantity integer not null, stock_bucket_count integer not null, actor varchar(255), director varchar(255), primary key (item_id));
+
+insert into book (item_id, name, price, stock_quantity, stock_bucket_count, author, isbn)
+    select item_id, name, price, stock_quantity, stock_bucket_count, author, isbn from item where dtype = 'B';
+insert into album (item_id, name, price, stock_quantity, stock_bucket_count, artist, etc)
+    select item_id, name, price, stock_quantity, stock_bucket_count, artist, etc from item where dtype = 'A';
+insert into movie (item_id, name, price, stock_quantity, stock_bucket_count, actor, director)
+    select item_id, name, price, stock_quantity, stock_bucket_count, actor, director from item where dtype = 'M';
+
+drop table item cascade;
@@ -0,0 +1,21 @@
+-- Item 상속 매핑 TABLE_PER_CLASS -> SINGLE_TABLE (H2) - single-table-to-table-per-class.sql 되돌리기
+-- 애플리케이션을 멈춘 상태에서 실행하고, spring.jpa.mapping-resources 없이 기동한다.
+
+create table item (dtype varchar(31) not null, item_id bigint not null, name varchar(255), price integer not null, stock_quantity integer not null, stock_bucket_count integer not null,
+    author varchar(255), isbn varchar(255), artist varchar(255), etc varchar(255), actor varchar(255), director varchar(255), primary key (item_id));
+
+insert into item (dtype, item_id, name, price, stock_quantity, stock_bucket_count, author, isbn)
+    select 'B', item_id, name, price, stock_quantity, stock_bucket_count, author, isbn from book;
+insert into item (dtype, item_id, name, price, stock_quantity, stock_bucket_count, artist, etc)
+    select 'A', item_id, name, price, stock_quantity, stock_bucket_count, artist, etc from album;
+insert into item (dtype, item_id, name, price, stock_quantity, stock_bucket_count, actor, director)
+    select 'M', item_id, name, price, stock_quantity, stock_bucket_count, actor, director from movie;
+
+create index idx_item_catalog on item (dtype, item_id, price, stock_quantity, stock_bucket_count, name);
+alter table order_item add constraint fk_order_item_item foreign key (item_id) references item;
+alter table category_item add constraint fk_category_item_item foreign key (item_id) references item;
+alter table item_stock_bucket add constraint fk_item_stock_bucket_item foreign key (item_id) references item;
+
+drop table book;
+drop table album;
+drop table movie;
@@ -0,0 +1,33 @@
+-- 주문 shard 스키마 (jpashop.sharding.enabled=true)
+-- member, item 은 central DB 에 있으므로 FK 를 두지 않는다.
+create sequence if not exists shard_order_seq;
+create sequence if not exists shard_order_item_seq;
+
+create table if not exists delivery (
+    delivery_id bigint not null primary key,
+    city varchar(255),
+    street varchar(255),
+    zipcode varchar(255),
+    status varchar(255)
+);
+
+create table if not exists orders (
+    order_id bigint not null primary key,
+    member_id bigint not null,
+    delivery_id bigint,
+    order_date timestamp,
+    status varchar(255)
+);
+
+create table if not exists order_item (
+    order_item_id bigint not null primary key,
+    order_id bigint not null,
+    item_id bigint not null,
+    order_price int not null,
+    count int not null
+);
+
+-- 목록 조회 정렬 (order_date, order_id) / 회원 조건 / 주문상품 IN 조회
+create index if not exists idx_orders_date_id on orders (order_date, order_id);
+create index if not exists idx_orders_member on orders (member_id);
+create index if not exists idx_order_item_order on order_item (order_id);
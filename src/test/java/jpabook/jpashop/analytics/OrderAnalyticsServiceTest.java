@@ -0,0 +1,127 @@
+package jpabook.jpashop.analytics;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 스냅샷 갱신은 커밋된 주문만 읽으므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.analytics.enabled=true")
+class OrderAnalyticsServiceTest {
+
+    @Autowired OrderAnalyticsService orderAnalyticsService;
+    @Autowired OrderLineColumnStore orderLineColumnStore;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManager em;
+
+    @Test
+    void 주문과_취소가_스냅샷_통계에_반영된다() {
+        // given
+        Long memberId = createMember("analytics-member");
+        Book book = createBook("analytics-book", 1_000_000, 10);
+        orderService.order(memberId, book.getId(), 3);
+        Long cancelled = orderService.order(memberId, book.getId(), 2);
+        orderLineColumnStore.refresh();
+        LocalDate today = LocalDate.now();
+        OrderLineSnapshot beforeCancel = orderLineColumnStore.snapshot();
+
+        assertEquals(5_000_000, orderAnalyticsService.memberSpend(memberId, today, today));
+
+        // when
+        orderService.cancelOrder(cancelled);
+        orderLineColumnStore.refresh();
+
+        // then
+        assertEquals(3_000_000, orderAnalyticsService.memberSpend(memberId, null, null), "취소된 주문은 제외된다.");
+        assertEquals(0, orderAnalyticsService.memberSpend(memberId, today.plusDays(1), null));
+        assertEquals(5_000_000, beforeCancel.memberSpend(memberId, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                "이미 공개된 스냅샷의 값은 바뀌지 않는다.");
+
+        List<RankDto> topItems = orderAnalyticsService.topItems(1, null, null);
+        assertEquals(book.getId(), topItems.get(0).getId());
+        assertEquals(3_000_000, topItems.get(0).getRevenue());
+
+        List<DailyRevenueDto> daily = orderAnalyticsService.dailyRevenue(today.minusDays(1), today);
+        assertEquals(2, daily.size());
+        assertEquals(today, daily.get(1).getDate());
+        assertTrue(daily.get(1).getRevenue() >= 3_000_000);
+    }
+
+    @Test
+    void 늦게_커밋된_주문도_다음_갱신에_반영된다() throws Exception {
+        // given - 먼저 id 를 받은 주문(late)이 나중에 받은 주문(early)보다 늦게 커밋
+        Long memberId = createMember("analytics-late-member");
+        Book lateBook = createBook("analytics-late-book", 1_000, 10);
+        Book earlyBook = createBook("analytics-early-book", 10, 10);
+
+        CountDownLatch lateOrdered = new CountDownLatch(1);
+        CountDownLatch commitLate = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            orderService.order(memberId, lateBook.getId(), 1);
+            em.flush();
+            lateOrdered.countDown();
+            await(commitLate);
+        }));
+        assertTrue(lateOrdered.await(10, TimeUnit.SECONDS));
+
+        orderService.order(memberId, earlyBook.getId(), 1);
+        orderLineColumnStore.refresh();
+        assertEquals(10, orderAnalyticsService.memberSpend(memberId, null, null));
+
+        // when
+        commitLate.countDown();
+        late.get(10, TimeUnit.SECONDS);
+        orderLineColumnStore.refresh();
+        orderLineColumnStore.refresh();
+
+        // then - 워터마크 뒤에서 다시 읽되 중복으로 더하지 않는다.
+        assertEquals(1_010, orderAnalyticsService.memberSpend(memberId, null, null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
@@ -0,0 +1,113 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.groupcommit.GroupCommitOrderService;
+import jpabook.jpashop.groupcommit.GroupCommitProperties;
+import jpabook.jpashop.metrics.LatencyHistogram;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 주문마다 커밋 vs group commit (window 별) 처리량/응답시간 비교
+ * commit 비용이 있도록 파일 DB (WRITE_DELAY=0: 커밋마다 파일에 기록) 를 사용한다.
+ * 상품 행 잠금 경합이 섞이지 않도록 스레드마다 다른 상품을 주문한다.
+ *
+ * ./gradlew test --tests '*GroupCommitBenchmarkTest' -Dbenchmark=true [-Dbenchmark.threads=16 -Dbenchmark.ordersPerThread=300 -Dbenchmark.committers=2]
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/jpashop-group-commit-benchmark;WRITE_DELAY=0",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.enabled=false",
+        "jpashop.group-commit.enabled=true",
+        "jpashop.group-commit.committers=${benchmark.committers:2}"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GroupCommitBenchmarkTest {
+
+    static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    static final int ORDERS_PER_THREAD = Integer.getInteger("benchmark.ordersPerThread", 300);
+    static final long[] WINDOWS = {1, 2, 5};
+
+    @Autowired OrderService orderService;
+    @Autowired GroupCommitOrderService groupCommitOrderService;
+    @Autowired GroupCommitProperties groupCommitProperties;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    @Test
+    void 개별_커밋과_group_commit_비교() throws Exception {
+        Member member = new Member();
+        member.setName("group-commit-benchmark");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        List<Long> itemIds = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Book book = new Book();
+            book.setName("group-commit-benchmark-" + t);
+            book.setPrice(1000);
+            book.setStockQuantity(Integer.MAX_VALUE);
+            itemService.saveItem(book);
+            itemIds.add(book.getId());
+        }
+
+        for (int round = 0; round < 2; round++) { // 첫 라운드는 warm-up
+            boolean report = round == 1;
+            run("individual", report, thread -> orderService.order(memberId, itemIds.get(thread), 1));
+            for (long window : WINDOWS) {
+                groupCommitProperties.setWindowMillis(window);
+                run("group " + window + "ms", report, thread -> groupCommitOrderService.order(memberId, itemIds.get(thread), 1));
+            }
+        }
+    }
+
+    interface Order {
+        Long place(int thread);
+    }
+
+    private void run(String mode, boolean report, Order order) throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    order.place(thread);
+                    latency.record(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        long millis = Math.max((System.nanoTime() - begin) / 1_000_000, 1);
+        executor.shutdown();
+        if (report) {
+            log.info("group commit benchmark. mode = {}, committers = {}, threads = {}, orders = {}, {}ms, {} orders/s, p50 = {}ms, p99 = {}ms",
+                    mode, groupCommitProperties.getCommitters(), THREADS, latency.getCount(), millis, latency.getCount() * 1000 / millis,
+                    String.format("%.2f", latency.percentileMillis(50)), String.format("%.2f", latency.percentileMillis(99)));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemType;
+import jpabook.jpashop.domain.item.Movie;
+import jpabook.jpashop.repository.ItemCatalogSearch;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.batch.StatelessBatchWriter;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Item 상속 매핑 전략별 비교 (하위 클래스: SINGLE_TABLE / JOINED / TABLE_PER_CLASS)
+ * 상품은 BOOK 80%, ALBUM 10%, MOVIE 10%
+ *
+ * 1. catalog(BOOK): 종류 조건 상품 목록 keyset 페이지 (100건)
+ * 2. catalog(price): 종류 조건 없이 가격 범위 상품 목록 keyset 페이지 (100건) -> 다형성 목록
+ * 3. find: em.find(Item.class, id) (영속성 컨텍스트 비운 상태)
+ * 4. order: OrderService.order (상품 조회 + 재고 감소 + 주문 저장)
+ *
+ * 마지막 라운드만 기록 (warm-up), 전략마다 별도 in-memory DB 를 사용한다.
+ *
+ * ./gradlew test --tests '*ItemInheritanceBenchmarkTest' -Dbenchmark=true [-Dbenchmark.items=100000]
+ */
+@Slf4j
+abstract class ItemInheritanceBenchmarkSupport {
+
+    static final int ITEMS = Integer.getInteger("benchmark.items", 100_000);
+    static final int PAGES = 200;
+    static final int FINDS = 10_000;
+    static final int ORDERS = 2_000;
+    static final int ROUNDS = 3;
+
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired StatelessBatchWriter batchWriter;
+    @Autowired ItemRepository itemRepository;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+
+    @Test
+    void 상속_매핑_전략별_조회와_주문() {
+        String strategy = emf.unwrap(SessionFactoryImplementor.class).getMetamodel()
+                .entityPersister(Item.class).getClass().getSimpleName();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long seedStart = System.nanoTime();
+        tx.executeWithoutResult(status -> batchWriter.insertAll(newItems()));
+        log.info("inheritance benchmark. strategy = {}, seed {} items, {}ms", strategy, ITEMS, (System.nanoTime() - seedStart) / 1_000_000);
+
+        List<Long> itemIds = em.createQuery("select i.id from Item i", Long.class).getResultList();
+        Member member = new Member();
+        member.setName("inheritance-benchmark");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        ItemCatalogSearch books = new ItemCatalogSearch();
+        books.setType(ItemType.BOOK);
+        ItemCatalogSearch priceRange = new ItemCatalogSearch();
+        priceRange.setMinPrice(10_000);
+        priceRange.setMaxPrice(20_000);
+        priceRange.setInStock(true);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean report = round == ROUNDS - 1;
+            Random random = new Random(round);
+            measure(strategy, "catalog(BOOK)", PAGES, report, ops -> readOnly.executeWithoutResult(status -> walk(books, ops)));
+            measure(strategy, "catalog(price)", PAGES, report, ops -> readOnly.executeWithoutResult(status -> walk(priceRange, ops)));
+            measure(strategy, "find", FINDS, report, ops -> readOnly.executeWithoutResult(status -> {
+                for (int i = 0; i < ops; i++) {
+                    em.find(Item.class, itemIds.get(random.nextInt(itemIds.size())));
+                    em.clear();
+                }
+            }));
+            measure(strategy, "order", ORDERS, report, ops -> {
+                for (int i = 0; i < ops; i++) {
+                    orderService.order(memberId, itemIds.get(random.nextInt(itemIds.size())), 1);
+                }
+            });
+        }
+    }
+
+    private void walk(ItemCatalogSearch search, int pages) {
+        Long lastId = null;
+        for (int page = 0; page < pages; page++) {
+            List<ItemCatalogDto> rows = itemRepository.findCatalog(search, lastId, 100);
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    private void measure(String strategy, String workload, int ops, boolean report, IntConsumer body) {
+        long start = System.nanoTime();
+        body.accept(ops);
+        long micros = (System.nanoTime() - start) / 1_000;
+        if (report) {
+            log.info("inheritance benchmark. strategy = {}, workload = {}, ops = {}, {}ms, {}us/op",
+                    strategy, workload, ops, micros / 1_000, micros / ops);
+        }
+    }
+
+    private static List<Item> newItems() {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            int bucket = random.nextInt(10);
+            Item item;
+            if (bucket < 8) {
+                Book book = new Book();
+                book.setAuthor("author-" + i);
+                book.setIsbn("isbn-" + i);
+                item = book;
+            } else if (bucket == 8) {
+                Album album = new Album();
+                album.setArtist("artist-" + i);
+                item = album;
+            } else {
+                Movie movie = new Movie();
+                movie.setDirector("director-" + i);
+                movie.setActor("actor-" + i);
+                item = movie;
+            }
+            item.setName("inheritance-benchmark-" + i);
+            item.setPrice(1_000 + random.nextInt(50) * 1_000);
+            item.setStockQuantity(1_000_000);
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.jpa.mapping-resources=META-INF/item-inheritance/joined.xml",
+        "spring.datasource.url=jdbc:h2:mem:benchmark-joined;DB_CLOSE_DELAY=-1",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.enabled=false"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JoinedItemInheritanceBenchmarkTest extends ItemInheritanceBenchmarkSupport {
+}
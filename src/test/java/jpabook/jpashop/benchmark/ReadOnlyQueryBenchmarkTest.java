@@ -0,0 +1,125 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 전체 조회 (v3.2) 요청 당 힙 사용량 비교
+ * 1. 읽기/쓰기 트랜잭션 + 일반 fetch join 조회 (엔티티 스냅샷 유지)
+ * 2. readOnly 트랜잭션 + org.hibernate.readOnly 힌트 (스냅샷 없음, 1차 캐시는 유지)
+ * 3. StatelessSession (영속성 컨텍스트 없음)
+ *
+ * allocated: 요청 처리 중 할당한 바이트, retained: DTO 변환 직전에 살아있는 힙 (GC 후)
+ *
+ * ./gradlew test --tests '*ReadOnlyQueryBenchmarkTest' -Dbenchmark=true
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.enabled=false"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadOnlyQueryBenchmarkTest {
+
+    static final int ORDERS = Integer.getInteger("benchmark.orders", 5_000);
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 조회_모드별_힙_사용량() {
+        Member member = new Member();
+        member.setName("readonly-benchmark");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        Book book = new Book();
+        book.setName("readonly-benchmark-book");
+        book.setPrice(1000);
+        book.setStockQuantity(ORDERS * 2);
+        itemService.saveItem(book);
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.order(memberId, book.getId(), 1);
+        }
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (int round = 0; round < 3; round++) { // 마지막 라운드만 기록 (warm-up)
+            boolean report = round == 2;
+            measure("read-write", report, () -> readWrite.execute(status -> toDto(em.createQuery(
+                    "select distinct o from Order o" +
+                            " join fetch o.member m" +
+                            " join fetch o.delivery d" +
+                            " join fetch o.orderItems oi" +
+                            " join fetch oi.item i", Order.class)
+                    .getResultList())));
+            measure("read-only hint", report, () -> readOnly.execute(status -> toDto(em.createQuery(
+                    "select distinct o from Order o" +
+                            " join fetch o.member m" +
+                            " join fetch o.delivery d" +
+                            " join fetch o.orderItems oi" +
+                            " join fetch oi.item i", Order.class)
+                    .setHint(org.hibernate.jpa.QueryHints.HINT_READONLY, true)
+                    .getResultList())));
+            measure("stateless", report, () -> readOnly.execute(status ->
+                    toDto(orderRepository.findAllWithItemStateless())));
+        }
+    }
+
+    private List<OrderDto> toDto(List<Order> orders) {
+        retainedBytes = usedAfterGc(); // 트랜잭션 안, 엔티티/영속성 컨텍스트가 살아있는 시점
+        return orders.stream().map(OrderDto::new).collect(Collectors.toList());
+    }
+
+    private long retainedBytes;
+
+    private void measure(String mode, boolean report, Supplier<List<OrderDto>> request) {
+        long baseline = usedAfterGc();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+
+        List<OrderDto> result = request.get();
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        if (report) {
+            log.info("read-only benchmark. mode = {}, orders = {}, {}ms, allocated = {}KB, retained = {}KB",
+                    mode, result.size(), millis, allocated / 1024, (retainedBytes - baseline) / 1024);
+        }
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashop.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark-single-table;DB_CLOSE_DELAY=-1",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.enabled=false"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SingleTableItemInheritanceBenchmarkTest extends ItemInheritanceBenchmarkSupport {
+}
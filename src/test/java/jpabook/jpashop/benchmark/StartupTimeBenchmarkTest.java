@@ -0,0 +1,128 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 기동 시간 비교 - 프로세스 시작부터 첫 요청(GET /) 이 200 으로 응답할 때까지 (time-to-first-request)
+ *
+ * default: 기본 profile (ddl-auto create, InitDb 동기)
+ * fast-startup: lazy 초기화, deferred JPA bootstrap, 스키마 유지, InitDb 비동기
+ * fast-startup + cds: benchmark.cdsArgs 에 ./gradlew cdsArchive 가 만든 build/cds/jpashop.args 를 지정한 경우
+ *   (cdsArchive task 는 미검증 - 지금까지의 cds 측정값은 같은 JVM 옵션으로 손으로 만든 archive 로 잰 것이다.)
+ *
+ * 앱은 별도 JVM 으로 실행한다. (테스트 classpath 에서 테스트 클래스/리소스만 뺀다. -> 테스트 application.yml 이 main 설정을 가리지 않도록)
+ * DB 는 파일 DB 하나를 같이 쓴다. default 가 먼저 스키마와 샘플 데이터를 만든다.
+ *
+ * ./gradlew test --tests '*StartupTimeBenchmarkTest' -Dbenchmark=true [-Dbenchmark.runs=5 -Dbenchmark.cdsArgs=build/cds/jpashop.args]
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupTimeBenchmarkTest {
+
+    static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    static final String CDS_ARGS = System.getProperty("benchmark.cdsArgs");
+    static final long TIMEOUT_MILLIS = 120_000;
+
+    @Test
+    void profile_별_첫_요청까지_걸리는_시간() throws Exception {
+        Path workDir = Files.createTempDirectory("jpashop-startup-benchmark");
+        String url = "jdbc:h2:file:" + workDir.resolve("db").toAbsolutePath().toString().replace('\\', '/');
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<String> plain = List.of(java, "-cp", applicationClasspath(), JpashopApplication.class.getName());
+        measure("default", plain, List.of(), url, workDir);
+        measure("fast-startup", plain, List.of("--spring.profiles.active=fast-startup"), url, workDir);
+        if (CDS_ARGS != null) {
+            List<String> cds = List.of(java, "@" + new File(CDS_ARGS).getAbsolutePath());
+            measure("fast-startup + cds", cds, List.of("--spring.profiles.active=fast-startup"), url, workDir);
+        }
+    }
+
+    private void measure(String name, List<String> command, List<String> args, String url, Path workDir) throws Exception {
+        List<Long> millis = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            int port = freePort();
+            List<String> commandLine = new ArrayList<>(command);
+            commandLine.addAll(args);
+            commandLine.add("--server.port=" + port);
+            commandLine.add("--spring.datasource.url=" + url);
+
+            File output = workDir.resolve(name.replace(' ', '_') + "-" + i + ".log").toFile();
+            long begin = System.nanoTime();
+            Process process = new ProcessBuilder(commandLine)
+                    .redirectErrorStream(true)
+                    .redirectOutput(output)
+                    .start();
+            try {
+                assertTrue(awaitFirstResponse(process, port), name + " 기동 실패 - " + output);
+                millis.add((System.nanoTime() - begin) / 1_000_000);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+        Collections.sort(millis);
+        log.info("startup benchmark. {}: time to first request median = {}ms, min = {}ms, runs = {}",
+                name, millis.get(millis.size() / 2), millis.get(0), millis);
+    }
+
+    private static boolean awaitFirstResponse(Process process, int port) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline && process.isAlive()) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/").openConnection();
+                connection.setConnectTimeout(100);
+                try (InputStream body = connection.getInputStream()) {
+                    body.readAllBytes();
+                }
+                if (connection.getResponseCode() == 200) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // 아직 기동 중
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    private static String applicationClasspath() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> !isTestOutput(entry))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    // gradle: build/classes/java/test, build/resources/test / maven: target/test-classes
+    private static boolean isTestOutput(String entry) {
+        String path = entry.replace('\\', '/');
+        return path.endsWith("/test") || path.endsWith("/test-classes") || path.endsWith("/test/");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 한 상품에 주문이 몰릴 때 재고 bucket 수(K) 별 처리량 비교
+ * 주문 트랜잭션은 재고 차감 후 benchmark.holdMillis 동안 (결제 등 나머지 처리) bucket 잠금을 쥐고 있다.
+ * K = 1 은 분할하지 않은 상품과 같은 hot row 하나
+ *
+ * ./gradlew test --tests '*StockBucketContentionBenchmarkTest' -Dbenchmark=true [-Dbenchmark.threads=8 -Dbenchmark.holdMillis=5]
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "decorator.datasource.enabled=false",
+        "jpashop.stock-buckets.auto-rebalance=false",
+        "spring.datasource.hikari.maximum-pool-size=32"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockBucketContentionBenchmarkTest {
+
+    static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    static final int ORDERS_PER_THREAD = Integer.getInteger("benchmark.ordersPerThread", 100);
+    static final long HOLD_MILLIS = Long.getLong("benchmark.holdMillis", 5);
+    static final int[] BUCKETS = {1, 2, 4, 8, 16};
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired StockBucketService stockBucketService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void bucket_수별_동시_주문_처리량() throws Exception {
+        Member member = new Member();
+        member.setName("stock-bucket-benchmark");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        for (int buckets : BUCKETS) {
+            int stock = THREADS * ORDERS_PER_THREAD * 2;
+            Book book = new Book();
+            book.setName("stock-bucket-benchmark-" + buckets);
+            book.setPrice(1000);
+            book.setStockQuantity(stock);
+            itemService.saveItem(book);
+            stockBucketService.split(book.getId(), buckets);
+
+            AtomicInteger ordered = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        transaction.executeWithoutResult(status -> {
+                            orderService.order(memberId, book.getId(), 1);
+                            sleep(HOLD_MILLIS);
+                        });
+                        ordered.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            long millis = Math.max((System.nanoTime() - begin) / 1_000_000, 1);
+            executor.shutdown();
+
+            int remaining = stockBucketService.status(book.getId()).getStockQuantity();
+            assertEquals(stock - ordered.get(), remaining, "재고 = 초기 재고 - 주문 수");
+            log.info("stock bucket benchmark. buckets = {}, threads = {}, holdMillis = {}, orders = {}, {}ms, {} orders/s",
+                    buckets, THREADS, HOLD_MILLIS, ordered.get(), millis, ordered.get() * 1000L / millis);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
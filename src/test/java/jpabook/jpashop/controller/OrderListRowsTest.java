@@ -0,0 +1,118 @@
+package jpabook.jpashop.controller;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderListRowDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class OrderListRowsTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    void chunk_단위로_조회하고_조회_전에_flush() {
+        // given
+        Long memberId = createMember("streaming-member");
+        Book book = createBook("streaming-book");
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(orderService.order(memberId, book.getId(), 1 + i));
+        }
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("streaming-member");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when - 2건씩
+        List<OrderListRowDto> rows = new ArrayList<>();
+        for (OrderListRowDto row : new OrderListRows(orderQueryRepository::findOrderListRows, orderSearch, response, 2, 1000)) {
+            rows.add(row);
+        }
+
+        // then
+        assertEquals(orderIds, rows.stream().map(OrderListRowDto::getOrderId).collect(Collectors.toList()));
+        assertEquals(3, statistics.getQueryExecutionCount(), "2 + 2 + 1건");
+        assertEquals(0, statistics.getEntityLoadCount(), "DTO 조회 -> 엔티티/지연 로딩 없음");
+        assertTrue(response.isCommitted(), "첫 조회 전에 flush");
+        assertEquals("streaming-book", rows.get(0).getItemName());
+        assertEquals(3, rows.get(2).getCount());
+    }
+
+    @Test
+    void 최대_행_수까지만_조회() {
+        // given
+        Long memberId = createMember("streaming-max-member");
+        Book book = createBook("streaming-max-book");
+        for (int i = 0; i < 3; i++) {
+            orderService.order(memberId, book.getId(), 1);
+        }
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("streaming-max-member");
+
+        // when
+        List<OrderListRowDto> rows = new ArrayList<>();
+        new OrderListRows(orderQueryRepository::findOrderListRows, orderSearch, new MockHttpServletResponse(), 2, 2).forEach(rows::add);
+
+        // then
+        assertEquals(2, rows.size());
+    }
+
+    @Test
+    void 주문_목록_화면() throws Exception {
+        // InitDb: userA - JPA1 BOOK (대표상품), userB - SPRING1 BOOK
+        mockMvc.perform(get("/orders").param("memberName", "userA"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<td>userA</td>")))
+                .andExpect(content().string(containsString("<td>JPA1 BOOK</td>")))
+                .andExpect(content().string(not(containsString("JPA2 BOOK"))))
+                .andExpect(content().string(not(containsString("<td>userB</td>"))));
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(1000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book;
+    }
+}
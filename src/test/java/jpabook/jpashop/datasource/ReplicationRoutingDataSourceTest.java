@@ -0,0 +1,62 @@
+package jpabook.jpashop.datasource;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "jpashop.datasource.replica.enabled=true",
+        "jpashop.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.replica.lag-check-interval-millis=600000"
+})
+class ReplicationRoutingDataSourceTest {
+
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor lagMonitor;
+    @Autowired DataSourceRoutingMetrics metrics;
+
+    @Test
+    void 읽기전용_트랜잭션은_replica() {
+        String url = connectionUrl(true);
+
+        assertTrue(url.contains("replica"), url);
+    }
+
+    @Test
+    void 쓰기_트랜잭션은_primary() {
+        String url = connectionUrl(false);
+
+        assertFalse(url.contains("replica"), url);
+    }
+
+    @Test
+    void replica_장애시_primary_fallback() {
+        // given
+        lagMonitor.markUnavailable();
+        long fallbacks = metrics.getFallbackCount();
+
+        // when
+        String url = connectionUrl(true);
+
+        // then
+        assertFalse(url.contains("replica"), url);
+        assertTrue(metrics.getFallbackCount() > fallbacks);
+
+        lagMonitor.check(); // 원복
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> em.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getURL()));
+    }
+}
@@ -0,0 +1,162 @@
+package jpabook.jpashop.datasource;
+
+import jpabook.jpashop.analytics.OrderAnalyticsService;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 자동 조정은 테스트에서 resize() 를 직접 호출하기 위해 끈다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.datasource.workload-pools.enabled=true",
+        "jpashop.datasource.workload-pools.listing.statement-timeout-seconds=2",
+        "jpashop.datasource.workload-pools.reporting.transaction-timeout-seconds=1",
+        "jpashop.datasource.workload-pools.adaptive.enabled=false",
+        "jpashop.analytics.enabled=true"
+})
+class WorkloadPoolTest {
+
+    @Autowired OrderService orderService;
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+    @Autowired OrderAnalyticsService orderAnalyticsService;
+    @Autowired WorkloadPoolMetrics metrics;
+    @Autowired WorkloadPools pools;
+    @Autowired AdaptivePoolSizer sizer;
+    @Autowired WorkloadPoolProperties properties;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 주문은_checkout_목록은_listing_통계는_reporting_pool() {
+        // given
+        Member member = new Member();
+        member.setName("workload-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123"));
+        Long memberId = memberService.join(member);
+        Book book = new Book();
+        book.setName("workload-book");
+        book.setPrice(1000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        long checkout = metrics.getRoutedCount(WorkloadType.CHECKOUT);
+        long listing = metrics.getRoutedCount(WorkloadType.LISTING);
+        long reporting = metrics.getRoutedCount(WorkloadType.REPORTING);
+
+        // when
+        orderService.order(memberId, book.getId(), 1);
+        itemService.findItems();
+        orderAnalyticsService.refresh();
+
+        // then
+        assertTrue(metrics.getRoutedCount(WorkloadType.CHECKOUT) > checkout);
+        assertTrue(metrics.getRoutedCount(WorkloadType.LISTING) > listing);
+        assertTrue(metrics.getRoutedCount(WorkloadType.REPORTING) > reporting);
+        assertEquals(0, metrics.getInUse(WorkloadType.LISTING), "트랜잭션이 끝나면 connection 은 반환된다.");
+    }
+
+    @Test
+    void statement_timeout_보다_긴_query_timeout_은_줄어든다() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        int[] timeouts = WorkloadContext.call(WorkloadType.LISTING, () -> transaction.execute(status ->
+                em.unwrap(Session.class).doReturningWork(connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        int initial = statement.getQueryTimeout();
+                        statement.setQueryTimeout(100);
+                        return new int[]{initial, statement.getQueryTimeout()};
+                    }
+                })));
+
+        assertEquals(2, timeouts[0]);
+        assertEquals(2, timeouts[1]);
+    }
+
+    @Test
+    void 워크로드의_transaction_timeout_이_지나면_다음_쿼리가_실패한다() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> WorkloadContext.call(WorkloadType.REPORTING,
+                () -> transaction.execute(status -> {
+                    em.createQuery("select count(o) from Order o").getSingleResult();
+                    sleep(1100);
+                    return em.createQuery("select count(o) from Order o").getSingleResult();
+                })));
+        // 남은 시간을 먼저 확인하는 쪽에 따라 Spring 또는 Hibernate 가 실패시킨다.
+        assertTrue(e instanceof TransactionTimedOutException
+                || (e instanceof PersistenceException && e.getMessage().contains("transaction timeout expired")), e.toString());
+
+        // timeout 을 지정하지 않은 checkout 트랜잭션 (10초) 은 영향 없음
+        assertNotNull(transaction.execute(status -> {
+            em.createQuery("select count(o) from Order o").getSingleResult();
+            sleep(1100);
+            return em.createQuery("select count(o) from Order o").getSingleResult();
+        }));
+    }
+
+    @Test
+    void connection_대기가_있으면_pool_을_늘린다() {
+        // given - 직전 주기에 평균 20ms 씩 기다렸다.
+        int before = pools.get(WorkloadType.LISTING).getHikariConfigMXBean().getMaximumPoolSize();
+        metrics.recordAcquire(WorkloadType.LISTING, 20_000_000);
+        metrics.recordRelease(WorkloadType.LISTING);
+
+        // when
+        int after = sizer.resize(WorkloadType.LISTING);
+
+        // then
+        assertEquals(before + properties.getAdaptive().getGrowStep(), after);
+        assertEquals(after, pools.get(WorkloadType.LISTING).getHikariConfigMXBean().getMaximumPoolSize());
+    }
+
+    @Test
+    void DB_지연이_크면_늘리지_않고_줄인다() {
+        // 대기 중이지만 쿼리 평균 200ms (max-db-latency-millis 50 초과)
+        WorkloadPoolMetrics.Window saturated = new WorkloadPoolMetrics.Window(100, 30, 100, 200, 10);
+
+        assertEquals(9, sizer.nextSize(WorkloadType.CHECKOUT, 10, saturated, 5));
+        assertEquals(4, sizer.nextSize(WorkloadType.CHECKOUT, 4, saturated, 5), "min-size 아래로는 줄이지 않는다.");
+    }
+
+    @Test
+    void 한가한_주기가_이어지면_하나씩_줄이고_max_size_를_넘지_않는다() {
+        WorkloadPoolMetrics.Window idle = new WorkloadPoolMetrics.Window(10, 0, 10, 1, 2);
+        int shrinkAfter = properties.getAdaptive().getShrinkAfterIntervals();
+
+        for (int i = 1; i < shrinkAfter; i++) {
+            assertEquals(10, sizer.nextSize(WorkloadType.CHECKOUT, 10, idle, 0));
+        }
+        assertEquals(9, sizer.nextSize(WorkloadType.CHECKOUT, 10, idle, 0));
+
+        WorkloadPoolMetrics.Window waiting = new WorkloadPoolMetrics.Window(10, 100, 10, 1, 4);
+        int maxSize = properties.getReporting().getMaxSize();
+        assertEquals(maxSize, sizer.nextSize(WorkloadType.REPORTING, maxSize, waiting, 3));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
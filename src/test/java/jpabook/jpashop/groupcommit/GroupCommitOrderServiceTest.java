@@ -0,0 +1,188 @@
+package jpabook.jpashop.groupcommit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.sharding.ShardedOrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * group commit 트랜잭션은 별도 스레드에서 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ * 동시 주문이 한 트랜잭션에 묶이도록 window 를 넉넉히 잡는다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.group-commit.enabled=true",
+        "jpashop.group-commit.window-millis=50",
+        "jpashop.stock-buckets.auto-rebalance=false"
+})
+class GroupCommitOrderServiceTest {
+
+    @Autowired GroupCommitOrderService groupCommitOrderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+    @Autowired StockBucketService stockBucketService;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired OrderService orderService;
+    @Autowired ObjectProvider<ShardedOrderService> shardedOrderService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 동시_주문을_한_트랜잭션으로_커밋한다() throws Exception {
+        // given
+        Long memberId = member();
+        Book book = book(100);
+        DistributionSummary sizes = meterRegistry.get("jpashop.group-commit.size").summary();
+        double maxBefore = sizes.max();
+
+        // when
+        List<Object> results = concurrently(16, () -> groupCommitOrderService.order(memberId, book.getId(), 2));
+
+        // then
+        for (Object result : results) {
+            assertTrue(result instanceof Long, "모든 주문 성공: " + result);
+            assertNotNull(orderRepository.findOne((Long) result));
+        }
+        assertEquals(100 - 16 * 2, itemService.findOne(book.getId()).getStockQuantity());
+        assertTrue(sizes.max() > 1 || maxBefore > 1, "여러 주문이 한 트랜잭션에 묶인다.");
+    }
+
+    @Test
+    void 재고가_부족한_주문만_실패하고_나머지는_커밋된다() throws Exception {
+        // given - 재고 3 개인 상품을 8 명이 동시에 1 개씩
+        Long memberId = member();
+        Book scarce = book(3);
+
+        // when
+        List<Object> results = concurrently(8, () -> groupCommitOrderService.order(memberId, scarce.getId(), 1));
+
+        // then
+        long ordered = results.stream().filter(result -> result instanceof Long).count();
+        long notEnough = results.stream().filter(result -> result instanceof NotEnoughStockException).count();
+        assertEquals(3, ordered);
+        assertEquals(5, notEnough);
+        assertEquals(0, itemService.findOne(scarce.getId()).getStockQuantity());
+        results.stream().filter(result -> result instanceof Long)
+                .forEach(orderId -> assertNotNull(orderRepository.findOne((Long) orderId)));
+    }
+
+    @Test
+    void bucket_분할_상품의_재고_부족도_자기_주문만_실패한다() throws Exception {
+        // given
+        Long memberId = member();
+        Book bucketed = book(4);
+        stockBucketService.split(bucketed.getId(), 2);
+
+        // when - 4 개 중 3 개씩 두 번 (한 주문만 가능)
+        List<Object> results = concurrently(2, () -> groupCommitOrderService.order(memberId, bucketed.getId(), 3));
+
+        // then
+        assertEquals(1, results.stream().filter(result -> result instanceof Long).count());
+        assertEquals(1, results.stream().filter(result -> result instanceof NotEnoughStockException).count());
+        assertEquals(1, stockBucketService.status(bucketed.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 종료된_뒤의_주문은_거절한다() throws Exception {
+        // given
+        GroupCommitOrderService service = newService(10_000);
+        service.start();
+        service.stop();
+
+        // when
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.order(member(), book(10).getId(), 1));
+
+        // then
+        assertEquals("group commit 이 종료되었습니다.", e.getMessage());
+    }
+
+    @Test
+    void committer_가_처리하지_않으면_wait_millis_뒤에_실패한다() {
+        // given - committer 를 시작하지 않은 인스턴스 (멈춘 committer)
+        GroupCommitOrderService service = newService(100);
+        Long memberId = member();
+        Book book = book(10);
+
+        // when
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> service.order(memberId, book.getId(), 1)));
+
+        // then - 대기열에서 빼냈으므로 주문되지 않는다.
+        assertTrue(e.getMessage().contains("주문하지 않았습니다"), e.getMessage());
+        assertEquals(10, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    private GroupCommitOrderService newService(long waitMillis) {
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setWaitMillis(waitMillis);
+        return new GroupCommitOrderService(orderService, shardedOrderService, em, properties, transactionManager,
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * @return 결과 (주문 id 또는 예외)
+     */
+    private List<Object> concurrently(int threads, Supplier<Long> order) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return order.get();
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private Book book(int stockQuantity) {
+        Book book = new Book();
+        book.setName("group-commit-book");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+
+    private Long member() {
+        Member member = new Member();
+        member.setName("group-commit-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123"));
+        return memberService.join(member);
+    }
+}
@@ -0,0 +1,207 @@
+package jpabook.jpashop.idempotency;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 주문이 각자 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest(properties = "jpashop.idempotency.persistent=true")
+class IdempotentOrderServiceTest {
+
+    @Autowired IdempotentOrderService idempotentOrderService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderRequestKeyRepository orderRequestKeyRepository;
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 같은_key_로_재요청하면_처음_주문_id_를_돌려준다() {
+        // given
+        Long memberId = member();
+        Book book = book(10);
+        String key = UUID.randomUUID().toString();
+
+        // when
+        Long first = idempotentOrderService.order(key, memberId, book.getId(), 2);
+        Long retried = idempotentOrderService.order(key, memberId, book.getId(), 2);
+
+        // then
+        assertEquals(first, retried);
+        assertEquals(8, itemService.findOne(book.getId()).getStockQuantity(), "재고는 한 번만 차감");
+        assertNotEquals(first, idempotentOrderService.order(UUID.randomUUID().toString(), memberId, book.getId(), 2), "다른 key 는 새 주문");
+    }
+
+    @Test
+    void 동시에_들어온_같은_key_는_한_번만_주문한다() throws Exception {
+        // given
+        Long memberId = member();
+        Book book = book(100);
+        String key = UUID.randomUUID().toString();
+        int threads = 8;
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotentOrderService.order(key, memberId, book.getId(), 1);
+            }));
+        }
+        start.countDown();
+        Set<Long> orderIds = new HashSet<>();
+        for (Future<Long> future : futures) {
+            orderIds.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, orderIds.size());
+        assertEquals(99, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 같은_key_로_다른_주문을_요청하면_예외() {
+        Long memberId = member();
+        Book book = book(10);
+        String key = UUID.randomUUID().toString();
+        idempotentOrderService.order(key, memberId, book.getId(), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> idempotentOrderService.order(key, memberId, book.getId(), 3));
+    }
+
+    @Test
+    void 실패한_주문의_key_는_다시_주문할_수_있다() {
+        // given
+        Long memberId = member();
+        Book book = book(1);
+        String key = UUID.randomUUID().toString();
+        assertThrows(NotEnoughStockException.class, () -> idempotentOrderService.order(key, memberId, book.getId(), 2));
+
+        // when
+        itemService.updateItem(book.getId(), book.getName(), book.getPrice(), 5);
+        Long orderId = idempotentOrderService.order(key, memberId, book.getId(), 2);
+
+        // then
+        assertNotNull(orderRepository.findOne(orderId));
+        assertEquals(3, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 메모리에_없는_key_는_DB_에_저장된_주문_id_를_돌려준다() {
+        // given - 재기동 전/다른 서버에서 처리된 요청
+        Long memberId = member();
+        Book book = book(10);
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> orderRequestKeyRepository.save(
+                new OrderRequestKey(key, orderId, Objects.hash(memberId, book.getId(), 1), LocalDateTime.now())));
+
+        // when
+        Long replayed = idempotentOrderService.order(key, memberId, book.getId(), 1);
+
+        // then
+        assertEquals(orderId, replayed);
+        assertEquals(9, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 만료됐지만_아직_정리되지_않은_key_로_재요청하면_다시_주문한다() {
+        // given - TTL 이 지난 key (정리 스케줄러가 아직 지우지 않음)
+        Long memberId = member();
+        Book book = book(10);
+        Long expiredOrderId = orderService.order(memberId, book.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> orderRequestKeyRepository.save(
+                new OrderRequestKey(key, expiredOrderId, Objects.hash(memberId, book.getId(), 1),
+                        LocalDateTime.now().minusDays(2))));
+
+        // when
+        Long orderId = idempotentOrderService.order(key, memberId, book.getId(), 1);
+
+        // then
+        assertNotEquals(expiredOrderId, orderId);
+        assertNotNull(orderRepository.findOne(orderId));
+        assertEquals(8, itemService.findOne(book.getId()).getStockQuantity());
+        OrderRequestKey persisted = new TransactionTemplate(transactionManager)
+                .execute(status -> orderRequestKeyRepository.findOne(key));
+        assertEquals(orderId, persisted.getOrderId(), "만료된 key 는 새 주문으로 바뀐다.");
+    }
+
+    @Test
+    void 주문과_함께_key_가_DB_에_저장된다() {
+        Long memberId = member();
+        Book book = book(10);
+        String key = UUID.randomUUID().toString();
+
+        Long orderId = idempotentOrderService.order(key, memberId, book.getId(), 1);
+
+        OrderRequestKey persisted = new TransactionTemplate(transactionManager)
+                .execute(status -> orderRequestKeyRepository.findOne(key));
+        assertEquals(orderId, persisted.getOrderId());
+    }
+
+    @Test
+    void 만료되거나_최대_개수를_넘은_key_는_제거된다() throws Exception {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxKeys(2);
+        IdempotencyKeyStore store = new IdempotencyKeyStore(properties);
+        for (int i = 0; i < 3; i++) {
+            assertNull(store.putIfAbsent("key-" + i, i));
+            store.complete("key-" + i, (long) i);
+        }
+        assertNull(store.putIfAbsent("key-3", 3));
+        assertEquals(2, store.size(), "최대 개수를 넘으면 완료된 오래된 key 부터 제거");
+        assertNull(store.putIfAbsent("key-0", 0), "제거된 key 는 다시 주문할 수 있다.");
+
+        properties.setTtlSeconds(0);
+        IdempotencyKeyStore expiring = new IdempotencyKeyStore(properties);
+        expiring.putIfAbsent("key", 1);
+        expiring.complete("key", 1L);
+        Thread.sleep(5);
+        assertEquals(1, expiring.evictExpired());
+        assertEquals(0, expiring.size());
+    }
+
+    private Book book(int stockQuantity) {
+        Book book = new Book();
+        book.setName("idempotency-book");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+
+    private Long member() {
+        Member member = new Member();
+        member.setName("idempotency-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123"));
+        return memberService.join(member);
+    }
+}
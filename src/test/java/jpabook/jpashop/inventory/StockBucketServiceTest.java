@@ -0,0 +1,179 @@
+package jpabook.jpashop.inventory;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 여러 스레드가 각자 트랜잭션으로 주문하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ * 재분배 시점을 테스트에서 정하기 위해 자동 재분배는 끈다.
+ */
+@SpringBootTest(properties = "jpashop.stock-buckets.auto-rebalance=false")
+class StockBucketServiceTest {
+
+    @Autowired StockBucketService stockBucketService;
+    @Autowired OrderService orderService;
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+
+    @Test
+    void 분할하고_합쳐도_전체_재고는_같다() {
+        // given
+        Book book = book(10);
+
+        // when
+        StockBucketStatus split = stockBucketService.split(book.getId(), 4);
+
+        // then
+        assertEquals(Arrays.asList(3, 3, 2, 2), split.getBuckets());
+        assertEquals(0, split.getUnallocated());
+        assertEquals(10, split.getStockQuantity());
+        assertEquals(10, stockBucketService.status(book.getId()).getStockQuantity());
+
+        StockBucketStatus merged = stockBucketService.merge(book.getId());
+        assertTrue(merged.getBuckets().isEmpty());
+        assertEquals(10, merged.getStockQuantity());
+        assertFalse(itemService.findOne(book.getId()).isStockBucketed());
+    }
+
+    @Test
+    void 동시_주문은_재고만큼만_성공한다() throws Exception {
+        // given - 재고 200, bucket 8 개, 8 스레드가 30 번씩 (240 번) 주문
+        Book book = book(200);
+        stockBucketService.split(book.getId(), 8);
+        Long memberId = member();
+        int threads = 8;
+        int ordersPerThread = 30;
+
+        // when
+        AtomicInteger ordered = new AtomicInteger();
+        AtomicInteger notEnough = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    try {
+                        orderService.order(memberId, book.getId(), 1);
+                        ordered.incrementAndGet();
+                    } catch (NotEnoughStockException e) {
+                        notEnough.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(200, ordered.get(), "재고 만큼은 모두 성공해야 한다. (lost update, 초과 판매 없음)");
+        assertEquals(threads * ordersPerThread - 200, notEnough.get());
+        StockBucketStatus status = stockBucketService.status(book.getId());
+        assertEquals(0, status.getStockQuantity());
+        assertEquals(8, status.getBuckets().size());
+    }
+
+    @Test
+    void 모든_bucket_이_부족해도_합계가_충분하면_주문된다() {
+        // given - bucket 4 개에 2 개씩
+        Book book = book(8);
+        stockBucketService.split(book.getId(), 4);
+        Long memberId = member();
+
+        // when
+        orderService.order(memberId, book.getId(), 3);
+
+        // then - 남은 재고 5 개를 다시 나눈다.
+        StockBucketStatus status = stockBucketService.status(book.getId());
+        assertEquals(Arrays.asList(2, 1, 1, 1), status.getBuckets());
+        assertEquals(5, status.getStockQuantity());
+
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, book.getId(), 6));
+        assertEquals(5, stockBucketService.status(book.getId()).getStockQuantity(), "실패한 주문은 재고를 바꾸지 않는다.");
+    }
+
+    @Test
+    void 취소_재고는_미분배_재고로_돌아오고_재분배된다() {
+        // given
+        Book book = book(8);
+        stockBucketService.split(book.getId(), 4);
+        Long memberId = member();
+        Long orderId = orderService.order(memberId, book.getId(), 2);
+
+        // when
+        orderService.cancelOrder(orderId);
+
+        // then
+        StockBucketStatus cancelled = stockBucketService.status(book.getId());
+        assertEquals(2, cancelled.getUnallocated());
+        assertEquals(8, cancelled.getStockQuantity());
+
+        assertTrue(stockBucketService.rebalancePending() >= 1, "미분배 재고가 있는 상품은 재분배 대상");
+        StockBucketStatus rebalanced = stockBucketService.status(book.getId());
+        assertEquals(0, rebalanced.getUnallocated());
+        assertEquals(Arrays.asList(2, 2, 2, 2), rebalanced.getBuckets());
+    }
+
+    @Test
+    void 상품_목록은_bucket_합계를_재고로_보여준다() {
+        // given
+        Book book = book(10);
+        stockBucketService.split(book.getId(), 4);
+
+        // when
+        ItemCatalogSearch search = new ItemCatalogSearch();
+        search.setInStock(true);
+        List<ItemCatalogDto> rows = itemService.findCatalog(search, book.getId() - 1, 1);
+
+        // then
+        assertEquals(1, rows.size());
+        assertEquals(book.getId(), rows.get(0).getId());
+        assertEquals(10, rows.get(0).getStockQuantity());
+    }
+
+    @Test
+    void bucket_수는_최대값을_넘을_수_없다() {
+        Book book = book(10);
+        assertThrows(IllegalArgumentException.class, () -> stockBucketService.split(book.getId(), 65));
+    }
+
+    private Book book(int stockQuantity) {
+        Book book = new Book();
+        book.setName("bucket-book");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+
+    private Long member() {
+        Member member = new Member();
+        member.setName("bucket-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123"));
+        return memberService.join(member);
+    }
+}
@@ -0,0 +1,124 @@
+package jpabook.jpashop.loadtest;
+
+import jpabook.jpashop.loadtest.LoadTestDriver.Operation;
+import jpabook.jpashop.loadtest.LoadTestReport.OperationReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 데이터 생성/부하 실행은 직접 커밋하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.loadtest.enabled=true",
+        "jpashop.loadtest.members=300",
+        "jpashop.loadtest.items-per-type=40",
+        "jpashop.loadtest.categories=10",
+        "jpashop.loadtest.items-per-category=5",
+        "jpashop.loadtest.orders=1000",
+        "jpashop.loadtest.chunk-size=400",
+        "jpashop.batch-writer.batch-size=100",
+        "jpashop.loadtest.max-threads=16",
+        "jpashop.loadtest.max-duration-seconds=60"
+})
+@AutoConfigureMockMvc
+class LoadTestDriverTest {
+
+    @Autowired SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired LoadTestDriver loadTestDriver;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void 설정한_건수만큼_데이터가_생성된다() {
+        // given
+        long membersBefore = count("select count(m) from Member m");
+        long ordersBefore = count("select count(o) from Order o");
+        long categoryItemsBefore = count("select count(i) from Category c join c.items i");
+
+        // when
+        SyntheticDataResult result = syntheticDataGenerator.generate();
+
+        // then
+        assertEquals(300, result.getMembers());
+        assertEquals(120, result.getItems());
+        assertEquals(10, result.getCategories());
+        assertEquals(1000, result.getOrders());
+        assertEquals(membersBefore + 300, count("select count(m) from Member m"));
+        assertEquals(ordersBefore + 1000, count("select count(o) from Order o"));
+        assertEquals(3, count("select count(distinct type(i)) from Item i where i.stockQuantity = "
+                + SyntheticDataGenerator.ITEM_STOCK));
+        assertEquals(categoryItemsBefore + 10 * 5, count("select count(i) from Category c join c.items i"));
+        assertTrue(result.getOrderItems() >= 1000);
+    }
+
+    @Test
+    void 인기상품에_주문이_몰린다() {
+        // given
+        ZipfSampler sampler = new ZipfSampler(100, 1.0);
+        int[] hits = new int[100];
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            hits[sampler.sample(Math.random())]++;
+        }
+
+        // then - 1위 상품 확률 1/H(100) ≈ 19%, 100위는 약 0.2%
+        assertTrue(hits[0] > 15_000, "hits[0] = " + hits[0]);
+        assertTrue(hits[99] < 1_000, "hits[99] = " + hits[99]);
+    }
+
+    @Test
+    void 부하실행_결과에_요청종류별_응답시간이_있다() throws InterruptedException {
+        // given
+        syntheticDataGenerator.generate();
+
+        // when
+        LoadTestReport report = loadTestDriver.run(4, 2);
+
+        // then
+        assertTrue(report.getOperations() > 0);
+        List<OperationReport> results = report.getResults();
+        assertEquals(Operation.values().length, results.size());
+        for (OperationReport result : results) {
+            assertTrue(result.getCount() > 0, result.getOperation() + " 가 실행되지 않았다.");
+            assertTrue(result.getP50Millis() <= result.getP99Millis());
+            assertTrue(result.getP99Millis() <= result.getMaxMillis());
+        }
+        assertEquals(0, report.getErrors());
+    }
+
+    @Test
+    void 부하실행_threads나_durationSeconds가_범위를_벗어나면_400() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> loadTestDriver.run(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> loadTestDriver.run(17, 1));
+        assertThrows(IllegalArgumentException.class, () -> loadTestDriver.run(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> loadTestDriver.run(1, 61));
+
+        mockMvc.perform(post("/api/v1/loadtest/run").param("threads", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/loadtest/run").param("threads", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/loadtest/run").param("durationSeconds", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/loadtest/run").param("durationSeconds", "86400"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long count(String jpql) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                em.createQuery(jpql, Long.class).getSingleResult());
+    }
+}
@@ -0,0 +1,33 @@
+package jpabook.jpashop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void 히스토그램_percentile_오차는_bucket_크기_이내() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when - 1ms ~ 1000ms 균등
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        // then
+        assertEquals(500, histogram.percentileMillis(50), 500 / 64.0);
+        assertEquals(990, histogram.percentileMillis(99), 990 / 64.0);
+        assertEquals(1000, histogram.maxMillis());
+        assertEquals(500.5, histogram.meanMillis(), 0.001);
+    }
+
+    @Test
+    void bucket_경계는_연속된다() {
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i)));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i + 1) - 1));
+        }
+    }
+}
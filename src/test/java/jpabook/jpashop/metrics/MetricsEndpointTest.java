@@ -0,0 +1,81 @@
+package jpabook.jpashop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.exception.DuplicateMemberException;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 테스트에서는 기본적으로 metrics export 가 꺼져 있으므로 @AutoConfigureMetrics 로 prometheus registry 를 켠다.
+ * test/resources/application.yml 이 main 설정을 덮으므로 management 설정을 여기서 지정한다.
+ */
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.tags.application=jpashop",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "management.metrics.distribution.percentiles-histogram.jpashop.service=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+class MetricsEndpointTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberService memberService;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    void 서비스_호출시간이_결과별로_기록된다() {
+        // given
+        Member member = new Member();
+        member.setName("metrics-member");
+        memberService.join(member);
+
+        Member duplicate = new Member();
+        duplicate.setName("metrics-member");
+
+        // when
+        assertThrows(DuplicateMemberException.class, () -> memberService.join(duplicate));
+
+        // then
+        Timer ok = meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("service", "MemberService", "method", "join", "exception", "none").timer();
+        Timer failed = meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("service", "MemberService", "method", "join", "exception", "DuplicateMemberException").timer();
+        assertNotNull(ok);
+        assertNotNull(failed);
+        assertTrue(ok.count() >= 1);
+        assertEquals(1, failed.count());
+    }
+
+    @Test
+    void prometheus_endpoint에_pool_hibernate_api_지표가_있다() throws Exception {
+        // given - API 호출 한 번
+        mockMvc.perform(get("/api/v2/members")).andExpect(status().isOk());
+
+        // when, then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total")))
+                .andExpect(content().string(containsString("hibernate_flushes_total")))
+                .andExpect(content().string(containsString("hibernate_query_executions_max_seconds")))
+                .andExpect(content().string(containsString("hibernate_cache_query_requests_total")))
+                .andExpect(content().string(containsString("jpashop_service_seconds_bucket")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{application=\"jpashop\"")));
+    }
+}
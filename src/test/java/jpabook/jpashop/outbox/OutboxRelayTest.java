@@ -0,0 +1,92 @@
+package jpabook.jpashop.outbox;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * relay 는 별도 트랜잭션으로 커밋된 이벤트만 읽으므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.outbox.enabled=true",
+        "jpashop.outbox.batch-size=2",
+        "jpashop.outbox.poll-interval-millis=600000"
+})
+class OutboxRelayTest {
+
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired InMemoryOutboxEventSink sink;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    @Test
+    void 주문_취소_이벤트가_순서대로_한번씩_전달된다() {
+        // given
+        outboxRelay.relay();
+        sink.drain();
+
+        Long memberId = createMember("outbox-member");
+        Book book = createBook("outbox-book", 1000, 10);
+        Long first = orderService.order(memberId, book.getId(), 1);
+        Long second = orderService.order(memberId, book.getId(), 2);
+        orderService.cancelOrder(first);
+
+        // when
+        int relayed = outboxRelay.relay();
+
+        // then
+        assertEquals(3, relayed, "batch-size 보다 많아도 한번에 모두 전달된다.");
+        List<OutboxMessage> messages = sink.drain();
+        assertEquals(List.of(first, second, first),
+                messages.stream().map(OutboxMessage::getOrderId).collect(Collectors.toList()));
+        assertEquals(OrderEventType.ORDER_PLACED, messages.get(0).getEventType());
+        assertEquals(OrderEventType.ORDER_CANCELLED, messages.get(2).getEventType());
+        assertTrue(messages.get(1).getPayload().contains("\"count\":2"), messages.get(1).getPayload());
+
+        assertEquals(0, outboxRelay.relay(), "이미 전달된 이벤트는 다시 보내지 않는다.");
+        assertEquals(0, outboxRelay.stats().getPending());
+    }
+
+    @Test
+    void 주문이_롤백되면_이벤트도_남지_않는다() {
+        // given
+        outboxRelay.relay();
+        long pending = outboxRelay.stats().getPending();
+        Long memberId = createMember("outbox-member2");
+        Book book = createBook("outbox-book2", 1000, 1);
+
+        // when
+        assertThrows(RuntimeException.class, () -> orderService.order(memberId, book.getId(), 2));
+
+        // then
+        assertEquals(pending, outboxRelay.stats().getPending());
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
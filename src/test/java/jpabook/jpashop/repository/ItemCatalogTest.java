@@ -0,0 +1,136 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemType;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class ItemCatalogTest {
+
+    @Autowired ItemRepository itemRepository;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void 조건에_맞는_상품만_keyset_페이징() {
+        // given - 가격 100 ~ 1000, 짝수번째는 재고 0
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Item item = i % 3 == 0 ? new Album() : new Book();
+            item.setName("catalog-" + i);
+            item.setPrice(i * 100);
+            item.setStockQuantity(i % 2 == 0 ? 0 : 10);
+            em.persist(item);
+            if (item instanceof Book && item.getStockQuantity() > 0 && item.getPrice() >= 200 && item.getPrice() <= 900) {
+                expected.add(item.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        ItemCatalogSearch search = new ItemCatalogSearch();
+        search.setType(ItemType.BOOK);
+        search.setMinPrice(200);
+        search.setMaxPrice(900);
+        search.setInStock(true);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when - 1건씩
+        List<ItemCatalogDto> rows = new ArrayList<>();
+        Long lastId = null;
+        while (true) {
+            List<ItemCatalogDto> page = itemRepository.findCatalog(search, lastId, 1);
+            if (page.isEmpty()) {
+                break;
+            }
+            rows.addAll(page);
+            lastId = page.get(0).getId();
+        }
+
+        // then - 5, 7 (3, 9 는 Album)
+        assertEquals(expected, rows.stream().map(ItemCatalogDto::getId).collect(Collectors.toList()));
+        assertEquals(2, expected.size());
+        assertTrue(rows.stream().allMatch(row -> row.getType() == ItemType.BOOK));
+        assertEquals(0, statistics.getEntityLoadCount(), "projection 조회 -> 엔티티 로딩 없음");
+    }
+
+    @Test
+    void 목록_인덱스_생성() {
+        Number count = (Number) em.createNativeQuery(
+                        "select count(*) from information_schema.indexes where index_name = 'IDX_ITEM_CATALOG'")
+                .getSingleResult();
+        assertTrue(count.intValue() > 0);
+    }
+
+    @Test
+    void 상품_목록_API와_화면() throws Exception {
+        // InitDb: 상품 4개 (모두 BOOK, 재고 있음) - 다른 테스트가 만든 상품이 있을 수 있다.
+        mockMvc.perform(get("/api/v1/items").param("type", "BOOK").param("inStock", "true").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.data[0].type").value("BOOK"))
+                .andExpect(jsonPath("$.nextLastId").isNumber());
+
+        mockMvc.perform(get("/api/v1/items").param("minPrice", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.nextLastId").doesNotExist());
+
+        mockMvc.perform(get("/items").param("type", "BOOK").param("minPrice", "20000"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("SPRING1 BOOK")))
+                .andExpect(content().string(not(containsString("JPA1 BOOK"))));
+    }
+
+    @Test
+    void 상품_목록_API_limit은_조회건수와_같은_값으로_맞춘다() throws Exception {
+        // given - 최대 페이지 크기보다 1건 많은 상품 (테스트 트랜잭션 안에서 MockMvc 가 같은 데이터를 본다.)
+        for (int i = 0; i <= ItemRepository.CATALOG_MAX_PAGE_SIZE; i++) {
+            Album album = new Album();
+            album.setName("limit-album-" + i);
+            album.setPrice(900_000_000);
+            em.persist(album);
+        }
+        em.flush();
+
+        // limit 이 최대값보다 크면 최대값만큼 조회하고 다음 페이지가 있다.
+        mockMvc.perform(get("/api/v1/items").param("minPrice", "900000000").param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(ItemRepository.CATALOG_MAX_PAGE_SIZE))
+                .andExpect(jsonPath("$.nextLastId").isNumber());
+
+        // limit <= 0 은 1건
+        mockMvc.perform(get("/api/v1/items").param("minPrice", "900000000").param("limit", "-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.nextLastId").isNumber());
+        mockMvc.perform(get("/api/v1/items").param("minPrice", String.valueOf(Integer.MAX_VALUE)).param("limit", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.nextLastId").doesNotExist());
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemType;
+import jpabook.jpashop.repository.item.ItemCatalogDto;
+import jpabook.jpashop.service.ItemBulkUpdateCommand;
+import jpabook.jpashop.service.ItemBulkUpdateService;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * spring.jpa.mapping-resources 로 Item 상속 매핑을 바꿨을 때 주요 기능 확인
+ * (하위 클래스마다 별도 in-memory DB 를 사용한다. -> 스키마가 다른 context 와 섞이지 않도록)
+ */
+abstract class ItemInheritanceMappingTestSupport {
+
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+    @Autowired ItemRepository itemRepository;
+    @Autowired ItemService itemService;
+    @Autowired ItemBulkUpdateService itemBulkUpdateService;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    abstract Class<? extends EntityPersister> expectedPersister();
+
+    @Test
+    void 매핑_전략_적용() {
+        EntityPersister persister = emf.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(Item.class);
+        assertEquals(expectedPersister(), persister.getClass());
+    }
+
+    @Test
+    void 상품_목록과_주문_그리고_일괄_변경() {
+        // given
+        Book book = new Book();
+        book.setName("mapping-book");
+        book.setPrice(1000);
+        book.setStockQuantity(10);
+        book.setAuthor("kim");
+        itemService.saveItem(book);
+        Album album = new Album();
+        album.setName("mapping-album");
+        album.setPrice(1000);
+        album.setStockQuantity(10);
+        itemService.saveItem(album);
+
+        Member member = new Member();
+        member.setName("mapping-member");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        // when
+        Long orderId = orderService.order(memberId, album.getId(), 3);
+        ItemCatalogSearch search = new ItemCatalogSearch();
+        search.setType(ItemType.ALBUM);
+        List<ItemCatalogDto> albums = itemRepository.findCatalog(search, null, 100);
+        ItemBulkUpdateCommand command = new ItemBulkUpdateCommand();
+        command.setItemType(ItemType.BOOK);
+        command.setPriceDelta(500);
+        itemBulkUpdateService.bulkUpdate(command);
+
+        // then
+        assertTrue(albums.stream().anyMatch(row -> row.getId().equals(album.getId()) && row.getStockQuantity() == 7));
+        assertTrue(albums.stream().allMatch(row -> row.getType() == ItemType.ALBUM));
+        Item found = itemService.findOne(book.getId());
+        assertTrue(found instanceof Book, "다형성 조회 (em.find(Item.class, id))");
+        assertEquals("kim", ((Book) found).getAuthor());
+        assertEquals(1500, found.getPrice());
+        assertEquals(1000, itemService.findOne(album.getId()).getPrice());
+        List<Order> orders = orderRepository.findAllWithItem(null, 0, OrderRepository.MAX_PAGE_SIZE);
+        Order order = orders.stream().filter(o -> o.getId().equals(orderId)).findFirst().orElseThrow();
+        assertEquals(3000, order.getTotalPrice());
+        assertEquals("mapping-album", order.getOrderItems().get(0).getItem().getName());
+    }
+}
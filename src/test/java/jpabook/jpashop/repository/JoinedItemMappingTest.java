@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository;
+
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.JoinedSubclassEntityPersister;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.jpa.mapping-resources=META-INF/item-inheritance/joined.xml",
+        "spring.datasource.url=jdbc:h2:mem:item-joined;DB_CLOSE_DELAY=-1"
+})
+class JoinedItemMappingTest extends ItemInheritanceMappingTestSupport {
+
+    @Override
+    Class<? extends EntityPersister> expectedPersister() {
+        return JoinedSubclassEntityPersister.class;
+    }
+}
@@ -0,0 +1,99 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderRepositoryPagingTest {
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+
+    @Test
+    void keyset_페이지를_이어붙이면_전체_주문과_같다() {
+        // given
+        Long memberId = createMember("paging-member");
+        Book book = createBook("paging-book", 1000, 100);
+        for (int i = 0; i < 7; i++) {
+            orderService.order(memberId, book.getId(), 1 + i % 3);
+        }
+        em.flush();
+        em.clear();
+        List<Long> all = em.createQuery("select o.id from Order o order by o.id", Long.class).getResultList();
+
+        // when - 3건씩 keyset 페이징
+        List<Order> paged = new ArrayList<>();
+        Long lastId = null;
+        while (true) {
+            List<Order> page = orderRepository.findAllWithItem(lastId, 0, 3);
+            if (page.isEmpty()) {
+                break;
+            }
+            assertTrue(page.size() <= 3);
+            paged.addAll(page);
+            lastId = page.get(page.size() - 1).getId();
+        }
+
+        // then
+        assertEquals(all, paged.stream().map(Order::getId).collect(Collectors.toList()), "id 순, 중복/누락 없음");
+        for (Order order : paged) {
+            assertTrue(Hibernate.isInitialized(order.getOrderItems()), "주문상품까지 한번에 조회");
+            assertTrue(Hibernate.isInitialized(order.getMember()));
+            List<Long> itemIds = order.getOrderItems().stream().map(OrderItem::getId).collect(Collectors.toList());
+            assertEquals(itemIds.stream().sorted().collect(Collectors.toList()), itemIds, "주문상품은 id 순");
+        }
+    }
+
+    @Test
+    void offset_페이징과_최대_페이지_크기() {
+        // given
+        List<Long> all = em.createQuery("select o.id from Order o order by o.id", Long.class).getResultList();
+
+        // when
+        List<Order> second = orderRepository.findAllWithItem(null, 1, 1);
+        List<Long> unbounded = orderRepository.findIdsPage(null, 0, Integer.MAX_VALUE);
+
+        // then
+        assertEquals(List.of(all.get(1)), second.stream().map(Order::getId).collect(Collectors.toList()));
+        assertTrue(unbounded.size() <= OrderRepository.MAX_PAGE_SIZE);
+        assertTrue(orderRepository.findAllWithItem(all.get(all.size() - 1), 0, 10).isEmpty());
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository;
+
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.UnionSubclassEntityPersister;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.jpa.mapping-resources=META-INF/item-inheritance/table-per-class.xml",
+        "spring.datasource.url=jdbc:h2:mem:item-table-per-class;DB_CLOSE_DELAY=-1"
+})
+class TablePerClassItemMappingTest extends ItemInheritanceMappingTestSupport {
+
+    @Override
+    Class<? extends EntityPersister> expectedPersister() {
+        return UnionSubclassEntityPersister.class;
+    }
+}
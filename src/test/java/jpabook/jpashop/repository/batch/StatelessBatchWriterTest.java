@@ -0,0 +1,140 @@
+package jpabook.jpashop.repository.batch;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * writer 는 호출한 트랜잭션의 커밋/롤백을 따르므로 TransactionTemplate 으로 직접 트랜잭션을 연다.
+ */
+@SpringBootTest(properties = "jpashop.batch-writer.batch-size=100")
+class StatelessBatchWriterTest {
+
+    @Autowired StatelessBatchWriter statelessBatchWriter;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 주문은_배송_주문상품까지_저장된다() {
+        // given
+        Member member = createMember("batch-writer-member");
+        Book book = createBook("batch-writer-book", 1000, 1000);
+        int orderCount = 250; // batch-size 100 -> 청크 3개
+
+        // when
+        long written = new TransactionTemplate(transactionManager).execute(status ->
+                statelessBatchWriter.insertOrders(orders(member, book, orderCount)));
+
+        // then
+        assertEquals(orderCount, written);
+        assertEquals(orderCount, count("select count(o) from Order o where o.member.id = :memberId", member.getId()));
+        assertEquals(orderCount * 2L, count("select count(oi) from OrderItem oi where oi.order.member.id = :memberId", member.getId()));
+        assertEquals(orderCount, count("select count(d) from Order o join o.delivery d where o.member.id = :memberId", member.getId()));
+        assertEquals(1000, itemService.findOne(book.getId()).getStockQuantity(), "상품 재고는 writer 가 저장하지 않는다.");
+    }
+
+    @Test
+    void 실패하면_호출한_트랜잭션과_함께_롤백된다() {
+        // given
+        Member member = createMember("batch-writer-rollback");
+        Book book = createBook("batch-writer-rollback-book", 1000, 100);
+        Member notSaved = new Member();
+        notSaved.setId(Long.MAX_VALUE);
+        List<Order> orders = new ArrayList<>();
+        orders.add(order(member, book));
+        orders.add(order(notSaved, book)); // 없는 회원 FK
+
+        // when
+        assertThrows(DataIntegrityViolationException.class, () ->
+                new TransactionTemplate(transactionManager).execute(status ->
+                        statelessBatchWriter.insertOrders(orders)));
+
+        // then
+        assertEquals(0, count("select count(o) from Order o where o.member.id = :memberId", member.getId()));
+    }
+
+    @Test
+    void 트랜잭션_밖에서는_사용할_수_없다() {
+        assertThrows(IllegalTransactionStateException.class, () -> statelessBatchWriter.insertAll(List.of()));
+    }
+
+    /**
+     * 주문을 필요할 때 하나씩 만드는 Iterable (전체 목록을 메모리에 만들지 않는다.)
+     */
+    private Iterable<Order> orders(Member member, Book book, int count) {
+        return () -> new Iterator<>() {
+            int created = 0;
+
+            @Override
+            public boolean hasNext() {
+                return created < count;
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                created++;
+                return order(member, book);
+            }
+        };
+    }
+
+    private Order order(Member member, Book book) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(DeliveryStatus.READY);
+        // createOrderItem 의 재고 차감은 메모리의 book 에만 반영된다.
+        return Order.createOrder(member, delivery,
+                OrderItem.createOrderItem(book, book.getPrice(), 1),
+                OrderItem.createOrderItem(book, book.getPrice(), 2));
+    }
+
+    private long count(String jpql, Long memberId) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                em.createQuery(jpql, Long.class)
+                        .setParameter("memberId", memberId)
+                        .getSingleResult());
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        return member;
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
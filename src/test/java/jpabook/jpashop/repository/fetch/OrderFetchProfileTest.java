@@ -0,0 +1,128 @@
+package jpabook.jpashop.repository.fetch;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * InitDb 주문 2건 (주문상품 2개씩) 기준
+ */
+@SpringBootTest
+@Transactional
+@AutoConfigureMockMvc
+class OrderFetchProfileTest {
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired BatchFetchPolicy batchFetchPolicy;
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+
+    @AfterEach
+    void resetBatchSize() {
+        batchFetchPolicy.setBatchSize(OrderFetchProfile.WITH_LINES, 100);
+    }
+
+    @Test
+    void summary는_주문상품을_조회하지_않는다() {
+        // when
+        List<Order> orders = orderRepository.findAll(new OrderSearch(), OrderFetchProfile.SUMMARY, 0, 2);
+
+        // then
+        assertEquals(2, orders.size());
+        for (Order order : orders) {
+            assertTrue(Hibernate.isInitialized(order.getMember()));
+            assertTrue(Hibernate.isInitialized(order.getDelivery()));
+            assertFalse(Hibernate.isInitialized(order.getOrderItems()));
+        }
+    }
+
+    @Test
+    void with_lines는_batch_size_단위로_주문상품과_상품을_채운다() {
+        // given
+        batchFetchPolicy.setBatchSize(OrderFetchProfile.WITH_LINES, 1);
+        long batchQueries = stats(OrderFetchProfile.WITH_LINES).getBatchQueries();
+
+        // when
+        List<Order> orders = orderRepository.findAll(new OrderSearch(), OrderFetchProfile.WITH_LINES, 0, 2);
+
+        // then
+        assertEquals(2, orders.size());
+        assertEquals(batchQueries + 2, stats(OrderFetchProfile.WITH_LINES).getBatchQueries(), "주문 2건 / batch size 1");
+        for (Order order : orders) {
+            assertTrue(Hibernate.isInitialized(order.getOrderItems()));
+            assertEquals(2, order.getOrderItems().size());
+            for (OrderItem orderItem : order.getOrderItems()) {
+                assertTrue(Hibernate.isInitialized(orderItem.getItem()));
+            }
+        }
+    }
+
+    @Test
+    void batch_size_범위를_벗어나면_예외() {
+        assertThrows(IllegalArgumentException.class,
+                () -> batchFetchPolicy.setBatchSize(OrderFetchProfile.WITH_LINES, BatchFetchPolicy.MAX_BATCH_SIZE + 1));
+    }
+
+    @Test
+    void 한_페이지는_MAX_PAGE_SIZE_를_넘지_않는다() {
+        // given - InitDb 2건 + 1000건
+        Member member = new Member();
+        member.setName("fetch-profile-page-member");
+        member.setAddress(new Address("서울", "강가", "123"));
+        em.persist(member);
+        for (int i = 0; i < OrderRepository.MAX_PAGE_SIZE; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            delivery.setStatus(DeliveryStatus.READY);
+            em.persist(Order.createOrder(member, delivery));
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        List<Order> orders = orderRepository.findAll(new OrderSearch(), OrderFetchProfile.SUMMARY, 0, 1_000_000);
+
+        // then
+        assertEquals(OrderRepository.MAX_PAGE_SIZE, orders.size());
+    }
+
+    @Test
+    void 음수_offset이나_1_미만_limit은_400() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> OrderRepository.checkPage(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> OrderRepository.checkPage(0, 0));
+        mockMvc.perform(get("/api/v3.3/orders").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.3/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5/simple-orders").param("limit", "-5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5/simple-orders").param("limit", "5"))
+                .andExpect(status().isOk());
+    }
+
+    private FetchProfileStats stats(OrderFetchProfile profile) {
+        return batchFetchPolicy.stats().stream()
+                .filter(s -> s.getProfile().equals(profile.getProfileName()))
+                .findFirst().get();
+    }
+}
@@ -0,0 +1,164 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.*;
+import jpabook.jpashop.inventory.StockBucketService;
+import jpabook.jpashop.inventory.StockBucketStatus;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 청크 단위로 커밋하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ * bucket 재고를 테스트에서 확인하기 위해 자동 재분배는 끈다.
+ */
+@SpringBootTest(properties = "jpashop.stock-buckets.auto-rebalance=false")
+@AutoConfigureMockMvc
+class ItemBulkUpdateServiceTest {
+
+    @Autowired ItemBulkUpdateService itemBulkUpdateService;
+    @Autowired ItemService itemService;
+    @Autowired StockBucketService stockBucketService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MockMvc mockMvc;
+    @SpyBean ItemRepository itemRepository;
+
+    @Test
+    void 카테고리와_상품종류로_가격과_재고를_일괄변경한다() {
+        // given
+        Book book1 = book("bulk-book1", 10000, 10);
+        Book book2 = book("bulk-book2", 20000, 2);
+        Book otherBook = book("bulk-book3", 10000, 10);
+        Album album = new Album();
+        album.setName("bulk-album");
+        album.setPrice(10000);
+        album.setStockQuantity(10);
+        itemService.saveItem(album);
+
+        Long categoryId = category("bulk-category", book1, book2, album);
+
+        ItemBulkUpdateCommand command = new ItemBulkUpdateCommand();
+        command.setItemType(ItemType.BOOK);
+        command.setCategoryId(categoryId);
+        command.setPricePercent(10);
+        command.setPriceDelta(-500);
+        command.setStockDelta(-5);
+
+        // when
+        ItemBulkUpdateResult result = itemBulkUpdateService.bulkUpdate(command);
+
+        // then
+        assertEquals(2, result.getUpdated());
+        assertEquals(10500, itemService.findOne(book1.getId()).getPrice());
+        assertEquals(5, itemService.findOne(book1.getId()).getStockQuantity());
+        assertEquals(21500, itemService.findOne(book2.getId()).getPrice());
+        assertEquals(0, itemService.findOne(book2.getId()).getStockQuantity(), "재고는 0 미만으로 내려가지 않는다.");
+        assertEquals(10000, itemService.findOne(otherBook.getId()).getPrice(), "다른 카테고리");
+        assertEquals(10000, itemService.findOne(album.getId()).getPrice(), "다른 상품 종류");
+    }
+
+    @Test
+    void 재고_bucket_분할_상품은_bucket_합계에서_재고를_변경한다() {
+        // given - 재고 10 을 bucket 4 개 (3, 3, 2, 2) 로 분할
+        Book bucketed = book("bulk-bucketed", 10000, 10);
+        Book plain = book("bulk-plain", 10000, 10);
+        stockBucketService.split(bucketed.getId(), 4);
+        Long categoryId = category("bulk-bucket-category", bucketed, plain);
+
+        ItemBulkUpdateCommand decrease = new ItemBulkUpdateCommand();
+        decrease.setCategoryId(categoryId);
+        decrease.setStockDelta(-7);
+
+        // when
+        itemBulkUpdateService.bulkUpdate(decrease);
+
+        // then - 미분배 재고(0) 가 아니라 전체 재고 10 에서 차감
+        StockBucketStatus status = stockBucketService.status(bucketed.getId());
+        assertEquals(3, status.getStockQuantity());
+        assertEquals(Arrays.asList(1, 1, 1, 0), status.getBuckets());
+        assertEquals(0, status.getUnallocated());
+        assertEquals(3, itemService.findOne(plain.getId()).getStockQuantity());
+
+        // 전체 재고보다 많이 차감하면 0
+        itemBulkUpdateService.bulkUpdate(decrease);
+        assertEquals(0, stockBucketService.status(bucketed.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 변경건수는_청크_id_수가_아니라_실제로_변경된_행_수다() {
+        // given - id 조회 후 update 전에 삭제된 상품 (청크에는 있지만 변경되지 않는 id)
+        Book book = book("bulk-count-book", 10000, 10);
+        Long categoryId = category("bulk-count-category", book);
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<Long> ids = new ArrayList<>((List<Long>) invocation.callRealMethod());
+            if (!ids.isEmpty()) {
+                ids.add(0, -1L);
+            }
+            return ids;
+        }).when(itemRepository).findIdsAfter(any(), eq(categoryId), anyLong(), anyInt());
+
+        ItemBulkUpdateCommand command = new ItemBulkUpdateCommand();
+        command.setCategoryId(categoryId);
+        command.setPriceDelta(100);
+
+        // when
+        ItemBulkUpdateResult result = itemBulkUpdateService.bulkUpdate(command);
+
+        // then
+        assertEquals(1, result.getUpdated());
+        assertEquals(10100, itemService.findOne(book.getId()).getPrice());
+    }
+
+    @Test
+    void 변경할_내용이_없으면_예외() {
+        assertThrows(IllegalArgumentException.class, () -> itemBulkUpdateService.bulkUpdate(new ItemBulkUpdateCommand()));
+    }
+
+    @Test
+    void 일괄변경_API는_잘못된_요청이면_400() throws Exception {
+        mockMvc.perform(put("/api/v1/items/bulk").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/v1/items/bulk").contentType(MediaType.APPLICATION_JSON).content("{\"pricePercent\": -101}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Book book(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+
+    private Long category(String name, Item... items) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Category category = new Category();
+            category.setName(name);
+            for (Item item : items) {
+                category.getItems().add(em.find(Item.class, item.getId()));
+            }
+            em.persist(category);
+            return category.getId();
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.BulkJoinResult.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 청크 단위로 커밋하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberBulkServiceTest {
+
+    @Autowired MemberBulkService memberBulkService;
+    @Autowired MemberService memberService;
+    @SpyBean MemberRepository memberRepository;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void 대량가입은_건별로_결과를_돌려준다() {
+        // given
+        Member existing = new Member();
+        existing.setName("bulk-existing");
+        memberService.join(existing);
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < MemberBulkService.CHUNK_SIZE * 2 + 10; i++) {
+            names.add("bulk-member-" + i);
+        }
+        names.addAll(Arrays.asList("bulk-existing", "bulk-member-0", " ", null));
+
+        // when
+        List<BulkJoinResult> results = memberBulkService.joinAll(names);
+
+        // then
+        int size = names.size();
+        assertEquals(size, results.size());
+        for (int i = 0; i < size - 4; i++) {
+            assertEquals(Status.CREATED, results.get(i).getStatus());
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(Status.DUPLICATE, results.get(size - 4).getStatus(), "이미 가입된 이름");
+        assertEquals(Status.DUPLICATE, results.get(size - 3).getStatus(), "요청 안에서 중복된 이름");
+        assertEquals(Status.INVALID, results.get(size - 2).getStatus());
+        assertEquals(Status.INVALID, results.get(size - 1).getStatus());
+
+        Long id = results.get(MemberBulkService.CHUNK_SIZE + 1).getId();
+        assertEquals("bulk-member-" + (MemberBulkService.CHUNK_SIZE + 1), memberRepository.findById(id).get().getName());
+        assertThrows(IllegalStateException.class, () -> {
+            Member member = new Member();
+            member.setName("bulk-member-7");
+            memberService.join(member);
+        });
+    }
+
+    @Test
+    void 청크_insert_중_동시가입과_충돌하면_한건씩_다시_처리한다() {
+        // given
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < MemberBulkService.CHUNK_SIZE + 10; i++) {
+            names.add("bulk-race-" + i);
+        }
+        String racing = "bulk-race-" + (MemberBulkService.CHUNK_SIZE + 5); // 두 번째 청크
+
+        // 두 번째 청크의 중복 검사 직후 (flush 전) 다른 스레드가 같은 이름으로 가입한다.
+        // (새 이름들이므로 중복 검사 결과는 항상 비어 있다.)
+        doAnswer(invocation -> {
+            Collection<?> chunkNames = invocation.getArgument(0);
+            if (chunkNames.contains(racing)) {
+                CompletableFuture.runAsync(() -> {
+                    Member member = new Member();
+                    member.setName(racing);
+                    memberService.join(member);
+                }).join();
+            }
+            return List.of();
+        }).when(memberRepository).findExistingNames(any());
+
+        // when
+        List<BulkJoinResult> results = memberBulkService.joinAll(names);
+
+        // then
+        assertEquals(names.size(), results.size());
+        for (int i = 0; i < names.size(); i++) {
+            Status expected = names.get(i).equals(racing) ? Status.DUPLICATE : Status.CREATED;
+            assertEquals(expected, results.get(i).getStatus(), names.get(i));
+        }
+        Long id = results.get(MemberBulkService.CHUNK_SIZE + 1).getId();
+        assertEquals("bulk-race-" + (MemberBulkService.CHUNK_SIZE + 1), memberRepository.findById(id).get().getName());
+        assertEquals(1, memberRepository.findByName(racing).size());
+    }
+
+    @Test
+    void NDJSON_대량가입은_줄마다_결과를_돌려준다() throws Exception {
+        // given - 빈 줄은 건너뛰고, 파싱할 수 없거나 너무 긴 줄은 INVALID
+        String body = "{\"name\": \"ndjson-member-1\"}\n"
+                + "\n"
+                + "{broken\n"
+                + "{\"name\": \"" + "x".repeat(2_000) + "\"}\n"
+                + "{\"name\": \"ndjson-member-1\"}\r\n"
+                + "{\"name\": \"ndjson-member-2\"}";
+
+        // when, then
+        mockMvc.perform(post("/api/v2/members/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.invalid").value(2))
+                .andExpect(jsonPath("$.duplicated").value(1))
+                .andExpect(jsonPath("$.results.length()").value(5));
+    }
+
+    @Test
+    void NDJSON_최대_줄_수를_넘으면_413_그_전_청크는_커밋된다() throws Exception {
+        // given - 첫 청크(CHUNK_SIZE 명) 뒤에 빈 줄 100,000 개
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < MemberBulkService.CHUNK_SIZE; i++) {
+            body.append("{\"name\": \"ndjson-limit-").append(i).append("\"}\n");
+        }
+        body.append("\n".repeat(100_000));
+
+        // when, then - 본문을 끝까지 읽기 전에 첫 청크가 처리된다.
+        mockMvc.perform(post("/api/v2/members/bulk").contentType("application/x-ndjson").content(body.toString()))
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(1, memberRepository.findByName("ndjson-limit-0").size());
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.exception.DuplicateMemberException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 중복 검사는 커밋된 데이터 기준이므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest
+class MemberJoinTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberNameFilter memberNameFilter;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 새로운_이름은_중복조회_없이_가입된다() {
+        // given
+        assertTrue(memberNameFilter.isReady());
+        long skipped = memberNameFilter.getSkippedQueries();
+
+        // when
+        memberService.join(member("filter-new-member"));
+
+        // then
+        assertEquals(skipped + 1, memberNameFilter.getSkippedQueries());
+        assertThrows(DuplicateMemberException.class, () -> memberService.join(member("filter-new-member")));
+    }
+
+    @Test
+    void 필터가_모르는_중복은_unique_제약조건으로_막는다() {
+        // given - 다른 서버에서 가입한 경우처럼 필터를 거치지 않고 저장
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> em.persist(member("other-server-member")));
+
+        // when, then
+        assertThrows(DuplicateMemberException.class, () -> memberService.join(member("other-server-member")));
+    }
+
+    @Test
+    void 동시에_같은_이름으로_가입하면_하나만_성공한다() throws Exception {
+        // given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger duplicated = new AtomicInteger();
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    memberService.join(member("concurrent-member"));
+                    success.incrementAndGet();
+                } catch (DuplicateMemberException e) {
+                    duplicated.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, success.get());
+        assertEquals(threads - 1, duplicated.get());
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        return member;
+    }
+}
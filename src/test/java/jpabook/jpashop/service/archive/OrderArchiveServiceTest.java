@@ -0,0 +1,110 @@
+package jpabook.jpashop.service.archive;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 보관 작업은 배치 단위로 커밋하므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest
+class OrderArchiveServiceTest {
+
+    @Autowired OrderArchiveService orderArchiveService;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired OrderQueryService orderQueryService;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void 오래된_취소주문은_보관되고_요청시에만_조회된다() {
+        // given
+        Long memberId = createMember("archive-member");
+        Book book = createBook("archive-book", 1000, 10);
+        Long cancelled = orderService.order(memberId, book.getId(), 1);
+        Long active = orderService.order(memberId, book.getId(), 1);
+        orderService.cancelOrder(cancelled);
+        setOrderDate(cancelled, LocalDateTime.now().minusDays(100));
+        setOrderDate(active, LocalDateTime.now().minusDays(100));
+
+        long hotBefore = orderArchiveService.stats().getHotOrders();
+
+        // when
+        long archived = orderArchiveService.archive(LocalDateTime.now().minusDays(90));
+
+        // then
+        assertEquals(1, archived, "취소된 주문만 보관된다.");
+        assertEquals(hotBefore - 1, orderArchiveService.stats().getHotOrders());
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("archive-member");
+        List<OrderQueryDto> hot = orderQueryRepository.findAllByDto_optimization(orderSearch);
+        assertEquals(1, hot.size());
+        assertEquals(active, hot.get(0).getOrderId());
+
+        orderSearch.setIncludeArchived(true);
+        assertEquals(1, orderQueryRepository.findAllByDto_optimization(orderSearch).size(), "hot 테이블 전용 조회");
+        List<OrderQueryDto> all = orderQueryService.searchOrders(orderSearch, null, 0, 100);
+        assertEquals(2, all.size());
+        OrderQueryDto archivedOrder = all.get(0); // 주문 id 순
+        assertEquals(cancelled, archivedOrder.getOrderId());
+        assertEquals("archive-book", archivedOrder.getOrderItems().get(0).getItemName());
+        assertEquals("서울", archivedOrder.getAddress().getCity());
+        assertEquals(active, all.get(1).getOrderId());
+        assertEquals("archive-book", all.get(1).getOrderItems().get(0).getItemName());
+
+        // 보관 주문도 요청한 페이지 크기 안에서 합쳐진다.
+        List<OrderQueryDto> first = orderQueryService.searchOrders(orderSearch, null, 0, 1);
+        assertEquals(List.of(cancelled), first.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList()));
+        List<OrderQueryDto> next = orderQueryService.searchOrders(orderSearch, cancelled, 0, 1);
+        assertEquals(List.of(active), next.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList()));
+        assertEquals(active, orderQueryService.searchOrders(orderSearch, null, 1, 1).get(0).getOrderId());
+        assertEquals(cancelled, orderQueryService.orderSummaries(orderSearch, 0, 1).get(0).getOrderId(), "simple-orders v5 도 같은 경로");
+    }
+
+    private void setOrderDate(Long orderId, LocalDateTime orderDate) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("update Order o set o.orderDate = :orderDate where o.id = :id")
+                        .setParameter("orderDate", orderDate)
+                        .setParameter("id", orderId)
+                        .executeUpdate());
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
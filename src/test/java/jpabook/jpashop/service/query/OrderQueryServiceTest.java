@@ -0,0 +1,51 @@
+package jpabook.jpashop.service.query;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InitDb 주문 (userA: JPA1 BOOK, JPA2 BOOK) 기준
+ */
+@SpringBootTest
+class OrderQueryServiceTest {
+
+    @Autowired OrderQueryService orderQueryService;
+
+    @Test
+    void stateless_조회로_주문상품까지_DTO_변환() {
+        // when
+        List<OrderDto> orders = orderQueryService.ordersV3_osviOff(null, 0, 100);
+
+        // then
+        OrderDto userA = orders.stream()
+                .filter(o -> "userA".equals(o.getName()))
+                .findFirst().get();
+        assertEquals("서울", userA.getAddress().getCity());
+        assertEquals(List.of("JPA1 BOOK", "JPA2 BOOK"), userA.getOrderItems().stream()
+                .map(OrderItemDto::getItemName)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(orders.size(), orders.stream().map(OrderDto::getOrderId).distinct().count(), "주문 중복 없음");
+    }
+
+    @Test
+    void keyset_페이징과_offset_페이징은_같은_순서() {
+        // when
+        List<OrderDto> first = orderQueryService.ordersV3_osviOff(null, 0, 1);
+        List<OrderDto> nextByKeyset = orderQueryService.ordersV3_osviOff(first.get(0).getOrderId(), 0, 1);
+        List<OrderDto> nextByOffset = orderQueryService.ordersV3_osviOff(null, 1, 1);
+
+        // then
+        assertEquals(1, first.size());
+        assertEquals(1, nextByKeyset.size());
+        assertTrue(first.get(0).getOrderId() < nextByKeyset.get(0).getOrderId());
+        assertEquals(nextByKeyset.get(0).getOrderId(), nextByOffset.get(0).getOrderId());
+        assertEquals(2, nextByKeyset.get(0).getOrderItems().size());
+    }
+}
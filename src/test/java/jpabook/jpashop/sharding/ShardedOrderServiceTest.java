@@ -0,0 +1,209 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * shard 3개 (embedded H2) 로 주문 분산 저장 / scatter-gather 조회 확인
+ * shard 저장은 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional)을 사용하지 않는다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.sharding.enabled=true",
+        "jpashop.sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "jpashop.sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "jpashop.sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class ShardedOrderServiceTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired ShardedOrderRepository shardedOrderRepository;
+    @Autowired ShardedOrderQueryRepository shardedOrderQueryRepository;
+    @Autowired ShardKeyResolver shardKeyResolver;
+
+    @Test
+    void 주문은_회원_shard에_저장되고_전체조회는_병합된다() {
+        // given
+        Book book = createBook("shard-book", 1000, 100);
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            memberIds.add(createMember("shard-member-" + i));
+        }
+
+        // when
+        List<Long> orderIds = new ArrayList<>();
+        for (Long memberId : memberIds) {
+            orderIds.add(orderService.order(memberId, book.getId(), 2));
+        }
+
+        // then
+        for (int i = 0; i < memberIds.size(); i++) {
+            int shard = shardKeyResolver.shardOfMember(memberIds.get(i));
+            assertEquals(shard, shardKeyResolver.shardOfOrder(orderIds.get(i)), "주문 id 에 shard 번호가 들어있어야 한다.");
+            assertNotNull(shardedOrderRepository.findOne(shard, orderIds.get(i)));
+        }
+        assertEquals(100 - 2 * 12, itemService.findOne(book.getId()).getStockQuantity(), "재고는 central 에서 차감된다.");
+
+        List<OrderQueryDto> orders = shardedOrderQueryRepository.findAll(new OrderSearch());
+        List<OrderQueryDto> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(OrderQueryDto::getOrderDate).thenComparing(OrderQueryDto::getOrderId));
+        assertEquals(sorted, orders, "(orderDate, orderId) 순으로 병합되어야 한다.");
+
+        List<OrderQueryDto> mine = orders.stream()
+                .filter(o -> orderIds.contains(o.getOrderId()))
+                .collect(Collectors.toList());
+        assertEquals(orderIds.size(), mine.size());
+        assertEquals("shard-book", mine.get(0).getOrderItems().get(0).getItemName());
+    }
+
+    @Test
+    void 회원이름_조건은_해당_shard만_조회() {
+        // given
+        Book book = createBook("shard-book2", 1000, 10);
+        Long memberId = createMember("shard-only-me");
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("shard-only-me");
+
+        // when
+        List<OrderQueryDto> orders = shardedOrderQueryRepository.findAll(orderSearch);
+
+        // then
+        assertEquals(1, orders.size());
+        assertEquals(orderId, orders.get(0).getOrderId());
+        assertEquals("shard-only-me", orders.get(0).getName());
+    }
+
+    @Test
+    void 주문id순_페이지는_shard를_합쳐서_keyset으로_이어진다() {
+        // given - 회원 6명 (여러 shard) 이 한 건씩 주문
+        Book book = createBook("shard-page-book", 1000, 100);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            orderIds.add(orderService.order(createMember("shard-page-" + i), book.getId(), 1));
+        }
+        orderIds.sort(Comparator.naturalOrder());
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("shard-page-%");
+
+        // when
+        List<Long> keyset = new ArrayList<>();
+        Long lastId = null;
+        List<OrderQueryDto> page;
+        do {
+            page = shardedOrderQueryRepository.findPage(orderSearch, lastId, 0, 4);
+            page.forEach(o -> keyset.add(o.getOrderId()));
+            lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getOrderId();
+        } while (page.size() == 4);
+        List<OrderQueryDto> offsetPage = shardedOrderQueryRepository.findPage(orderSearch, null, 2, 3);
+
+        // then
+        assertEquals(orderIds, keyset);
+        assertEquals(orderIds.subList(2, 5), offsetPage.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList()));
+        assertEquals("shard-page-book", offsetPage.get(0).getOrderItems().get(0).getItemName());
+    }
+
+    @Test
+    void 주문조회_API와_화면은_shard_주문을_보여준다() throws Exception {
+        // given
+        Book book = createBook("shard-api-book", 1000, 10);
+        Long orderId = orderService.order(createMember("shard-api-member"), book.getId(), 1);
+        int id = orderId.intValue();
+
+        // when / then
+        mockMvc.perform(get("/api/v2/orders")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v3/orders").param("limit", "1000")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1000")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v3.3/orders").param("memberName", "shard-api-member"))
+                .andExpect(jsonPath("$[0].orderItems[0].itemName").value("shard-api-book"));
+        mockMvc.perform(get("/api/v4/orders")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v6/orders")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v2/simple-orders")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v4/simple-orders")).andExpect(jsonPath("$[*].orderId", hasItems(id)));
+        mockMvc.perform(get("/api/v5/simple-orders").param("memberName", "shard-api-member"))
+                .andExpect(jsonPath("$[0].orderId").value(id));
+        mockMvc.perform(get("/orders").param("memberName", "shard-api-member"))
+                .andExpect(content().string(containsString("shard-api-book")));
+
+        // 엔티티를 그대로 노출하는 v1 은 sharding 모드에서 지원하지 않는다.
+        mockMvc.perform(get("/api/v1/orders")).andExpect(status().isNotImplemented());
+        mockMvc.perform(get("/api/v1/simple-orders")).andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    void 주문취소시_central_재고가_복구된다() {
+        // given
+        Book book = createBook("shard-book3", 1000, 10);
+        Long memberId = createMember("shard-cancel");
+        Long orderId = orderService.order(memberId, book.getId(), 3);
+
+        // when
+        orderService.cancelOrder(orderId);
+
+        // then
+        int shard = shardKeyResolver.shardOfOrder(orderId);
+        assertEquals(OrderStatus.CANCEL, shardedOrderRepository.findOne(shard, orderId).getStatus());
+        assertEquals(10, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    @Test
+    void 재고부족이면_shard에_주문이_남지_않는다() {
+        // given
+        Book book = createBook("shard-book4", 1000, 1);
+        Long memberId = createMember("shard-no-stock");
+        int shard = shardKeyResolver.shardOfMember(memberId);
+        long before = shardedOrderRepository.count(shard);
+
+        // when
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, book.getId(), 2));
+
+        // then
+        assertEquals(before, shardedOrderRepository.count(shard));
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
@@ -0,0 +1,123 @@
+package jpabook.jpashop.slowquery;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.query.OrderQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * threshold 0 -> 모든 쿼리가 slow 로 집계되고 select 는 EXPLAIN 이 저장된다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.slow-query.enabled=true",
+        "jpashop.slow-query.threshold-millis=0"
+})
+@AutoConfigureMockMvc
+class SlowQueryRecorderTest {
+
+    @Autowired SlowQueryRecorder slowQueryRecorder;
+    @Autowired OrderQueryService orderQueryService;
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void 같은_쿼리는_하나로_집계되고_실행계획이_저장된다() {
+        // given
+        slowQueryRecorder.reset();
+
+        // when - fetch join 조회를 3번
+        for (int i = 0; i < 3; i++) {
+            orderQueryService.ordersWithLines(new OrderSearch(), 0, 10);
+        }
+
+        // then
+        List<SlowQueryDto> top = slowQueryRecorder.top(100, "count");
+        SlowQueryDto orders = top.stream()
+                .filter(q -> q.getSql().contains("from orders") && q.getSql().contains("limit"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3, orders.getCount());
+        assertEquals(3, orders.getSlowCount());
+        assertTrue(orders.getP50Millis() <= orders.getMaxMillis());
+        assertNotNull(orders.getPlan());
+        assertTrue(orders.getPlan().contains("ORDERS") && orders.getPlan().contains("PRIMARY_KEY"), orders.getPlan()); // 사용한 index
+        assertFalse(top.stream().anyMatch(q -> q.getSql().startsWith("explain")), "EXPLAIN 은 집계하지 않는다.");
+    }
+
+    @Test
+    void 실행계획에는_파라미터_값이_남지_않는다() {
+        // given
+        slowQueryRecorder.reset();
+
+        // when
+        em.createQuery("select m from Member m where m.name = :name", Member.class)
+                .setParameter("name", "slow-query-secret")
+                .getResultList();
+
+        // then
+        SlowQueryDto members = slowQueryRecorder.top(100, "count").stream()
+                .filter(q -> q.getSql().contains("from member") && q.getSql().contains("name=?"))
+                .findFirst()
+                .orElseThrow();
+        assertNotNull(members.getPlan());
+        assertFalse(members.getPlan().startsWith("EXPLAIN 실패"), members.getPlan());
+        assertFalse(members.getPlan().contains("slow-query-secret"), members.getPlan());
+        assertTrue(members.getPlan().contains("?1"), members.getPlan());
+    }
+
+    @Test
+    void 조회_API는_잘못된_top이나_sort면_400() throws Exception {
+        mockMvc.perform(get("/api/v1/slow-queries").param("sort", "unknown"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/slow-queries").param("top", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/slow-queries").param("top", "5").param("sort", "max"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void fingerprint_수를_넘으면_overflow로_합친다() {
+        // given
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setMaxFingerprints(2);
+        properties.setThresholdMillis(1_000);
+        SlowQueryRecorder recorder = new SlowQueryRecorder(properties);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            execute(recorder, "select * from t" + (char) ('a' + i) + " where id = " + i);
+        }
+        execute(recorder, "select * from ta where id = 100");
+
+        // then
+        List<SlowQueryDto> top = recorder.top(10, "count");
+        assertEquals(3, top.size());
+        assertEquals(SlowQueryRecorder.OVERFLOW_ID, top.get(0).getId());
+        assertEquals(3, top.get(0).getCount(), "tc, td, te");
+        assertEquals("select * from ta where id = ?", top.get(1).getSql());
+        assertEquals(2, top.get(1).getCount());
+        assertEquals(0, top.get(1).getSlowCount());
+        assertThrows(IllegalArgumentException.class, () -> recorder.top(10, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> recorder.top(0, "count"));
+    }
+
+    private void execute(SlowQueryRecorder recorder, String sql) {
+        StatementInformation statement = new StatementInformation(ConnectionInformation.fromTestConnection(null));
+        statement.setStatementQuery(sql);
+        recorder.onAfterAnyExecute(statement, 1_000_000, null);
+    }
+}
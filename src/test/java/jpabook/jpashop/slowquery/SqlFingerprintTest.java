@@ -0,0 +1,38 @@
+package jpabook.jpashop.slowquery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlFingerprintTest {
+
+    @Test
+    void 파라미터_값과_공백은_지운다() {
+        String a = SqlFingerprint.normalize("select order0_.order_id as order_id1_6_ from orders order0_\n"
+                + "  where order0_.status='ORDER' and order0_.order_id > 10 limit 20");
+        String b = SqlFingerprint.normalize("SELECT order0_.order_id as order_id1_6_ FROM orders order0_ "
+                + "WHERE order0_.status = 'CANCEL' and order0_.order_id > 3 LIMIT 5");
+
+        assertEquals("select order0_.order_id as order_id1_6_ from orders order0_"
+                + " where order0_.status=? and order0_.order_id > ? limit ?", a);
+        assertNotEquals(a, b, "연산자 주변 공백 차이는 다른 모양으로 본다.");
+        assertEquals(SqlFingerprint.normalize(b), b);
+    }
+
+    @Test
+    void IN_절은_개수와_관계없이_같다() {
+        String three = SqlFingerprint.normalize("select * from item where item_id in (?, ?, ?)");
+        String hundred = SqlFingerprint.normalize("select * from item where item_id in (1,2,3,4,5,6,7,8,9,10)");
+
+        assertEquals("select * from item where item_id in (?+)", three);
+        assertEquals(three, hundred);
+        assertEquals(SqlFingerprint.id(three), SqlFingerprint.id(hundred));
+    }
+
+    @Test
+    void 문자열_안의_따옴표와_주석도_처리한다() {
+        String sql = SqlFingerprint.normalize("/* load Member */ select * from member where name = 'O''Brien' and id = -1");
+
+        assertEquals("select * from member where name = ? and id = ?", sql);
+    }
+}
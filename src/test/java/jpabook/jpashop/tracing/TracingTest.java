@@ -0,0 +1,147 @@
+package jpabook.jpashop.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @Scheduled 작업 (재고 재분배, 통계 갱신 등) 의 SQL span 도 같은 exporter 로 들어오므로
+ * 요청 span 을 찾은 뒤 그 trace id 의 span 만 검사한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.tracing.enabled=true",
+        "jpashop.tracing.exporter=none"
+})
+@AutoConfigureMockMvc
+class TracingTest {
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired MockMvc mockMvc;
+    @Autowired InMemorySpanExporter exporter;
+    @Autowired SdkTracerProvider sdkTracerProvider;
+
+    @BeforeEach
+    void clear() {
+        sdkTracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        exporter.reset();
+    }
+
+    @Test
+    void 요청_controller_repository_SQL_직렬화가_하나의_trace로_기록된다() throws Exception {
+        // when
+        mockMvc.perform(get("/api/v3/orders")).andExpect(status().isOk());
+
+        // then
+        List<SpanData> spans = traceOf("GET /api/v3/orders");
+        Map<String, SpanData> byName = byName(spans);
+
+        SpanData request = byName.get("GET /api/v3/orders");
+        SpanData controller = byName.get("OrderApiController.ordersV3");
+        SpanData repository = byName.get("OrderRepository.findAllWithItem");
+        SpanData serialize = byName.get("json.serialize");
+        assertNotNull(request, byName.keySet().toString());
+        assertNotNull(controller, byName.keySet().toString());
+        assertNotNull(repository, byName.keySet().toString());
+        assertNotNull(serialize, byName.keySet().toString());
+
+        assertEquals(SpanKind.SERVER, request.getKind());
+        assertEquals(200L, request.getAttributes().get(AttributeKey.longKey("http.status_code")));
+        assertEquals(request.getSpanId(), controller.getParentSpanId());
+        assertEquals(controller.getSpanId(), repository.getParentSpanId());
+        assertEquals(request.getSpanId(), serialize.getParentSpanId());
+
+        // 2단계 조회: 주문 id 2건 -> fetch join 결과 행은 주문상품 수(4) 만큼
+        assertEquals(2L, repository.getAttributes().get(AttributeKey.longKey("result.count")));
+        List<SpanData> selects = spans.stream()
+                .filter(span -> span.getParentSpanId().equals(repository.getSpanId()) && span.getName().equals("jdbc select"))
+                .collect(Collectors.toList());
+        assertEquals(2, selects.size());
+        assertEquals(2L, selects.get(0).getAttributes().get(AttributeKey.longKey("db.rows")));
+        SpanData select = selects.get(1);
+        assertEquals(SpanKind.CLIENT, select.getKind());
+        assertEquals(4L, select.getAttributes().get(AttributeKey.longKey("db.rows")));
+        assertFalse(select.getAttributes().get(AttributeKey.stringKey("db.statement")).contains("'"), "파라미터 값은 남기지 않는다.");
+        assertTrue(serialize.getAttributes().get(AttributeKey.longKey("response.bytes")) > 0);
+    }
+
+    @Test
+    void 서비스_트랜잭션과_spring_data_repository_span() throws Exception {
+        // when
+        mockMvc.perform(get("/api/v2/members")).andExpect(status().isOk());
+
+        // then
+        Map<String, SpanData> byName = byName(traceOf("GET /api/v2/members"));
+        SpanData service = byName.get("MemberService.findMembers");
+        assertNotNull(service, byName.keySet().toString());
+        assertEquals("service", service.getAttributes().get(AttributeKey.stringKey("layer")));
+        SpanData repository = byName.values().stream()
+                .filter(span -> service.getSpanId().equals(span.getParentSpanId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("repository", repository.getAttributes().get(AttributeKey.stringKey("layer")));
+    }
+
+    @Test
+    void traceparent_헤더의_trace를_이어간다() throws Exception {
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+        mockMvc.perform(get("/api/v2/members")
+                        .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TracingFilter.TRACE_ID_HEADER, traceId));
+
+        assertTrue(finishedSpans().stream().anyMatch(span -> span.getTraceId().equals(traceId)));
+    }
+
+    /**
+     * 이름이 requestSpanName 인 요청 span 과 같은 trace 의 span 들
+     */
+    private List<SpanData> traceOf(String requestSpanName) {
+        List<SpanData> spans = finishedSpans();
+        SpanData request = spans.stream()
+                .filter(span -> span.getName().equals(requestSpanName) && span.getKind() == SpanKind.SERVER)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(requestSpanName + " span 이 없습니다. " + spans));
+        return spans.stream()
+                .filter(span -> span.getTraceId().equals(request.getTraceId()))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, SpanData> byName(List<SpanData> spans) {
+        return spans.stream()
+                .collect(Collectors.toMap(SpanData::getName, Function.identity(), (a, b) -> a));
+    }
+
+    private List<SpanData> finishedSpans() {
+        sdkTracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return exporter.getFinishedSpanItems();
+    }
+}